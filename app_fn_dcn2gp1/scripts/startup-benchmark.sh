@@ -0,0 +1,90 @@
+#!/usr/bin/env bash
+# Benchmark de arranque en frio con y sin el archivo AppCDS dinamico.
+#
+# Uso (desde la carpeta del modulo, despues de "mvn clean package -Pappcds"):
+#   scripts/startup-benchmark.sh [repeticiones]
+#
+# 1. Worker simulado: arranca la JVM como el worker de Functions (solo un jar en -cp y la
+#    app cargada desde la carpeta de la funcion con un URLClassLoader, ver CdsTraining) y mide
+#    N arranques con -Xshare:off, con el CDS por defecto de la JDK y con el app-cds.jsa que el
+#    perfil appcds genero en la carpeta de staging (si falta, se genera con el mismo comando).
+# 2. Host: si "func" (Azure Functions Core Tools) esta instalado, mide N arranques del host hasta
+#    el primer 200 de /api/health con y sin ese archivo. Ruta y puerto configurables con
+#    HEALTH_PATH y FUNC_PORT.
+set -euo pipefail
+
+RUNS="${1:-5}"
+MODULE_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+STAGING_DIR="$(ls -d "$MODULE_DIR"/target/azure-functions/*/ | head -n 1)"
+STAGING_DIR="${STAGING_DIR%/}"
+JAR="$(ls "$STAGING_DIR"/*.jar | head -n 1)"
+# Fuera de la carpeta de la funcion, como el jar del worker (el mismo -cp que usa el perfil appcds)
+LAUNCHER="$MODULE_DIR/target/$(basename "$JAR")"
+ARCHIVE="$STAGING_DIR/app-cds.jsa"
+HEALTH_PATH="${HEALTH_PATH:-/api/health}"
+FUNC_PORT="${FUNC_PORT:-7071}"
+
+now_ms() {
+    date +%s%3N
+}
+
+worker() {
+    (cd "$STAGING_DIR" && java "$@" -cp "$LAUNCHER" com.function.util.CdsTraining --worker . >/dev/null 2>&1)
+}
+
+# Tiempo medio de N arranques del worker simulado con las opciones dadas
+jvm_run() {
+    local label="$1"; shift
+    local total=0 start elapsed
+    for ((i = 1; i <= RUNS; i++)); do
+        start=$(now_ms)
+        worker "$@"
+        elapsed=$(( $(now_ms) - start ))
+        total=$(( total + elapsed ))
+    done
+    printf '%-28s %6d ms (media de %d)\n' "$label" $(( total / RUNS )) "$RUNS"
+}
+
+# Tiempo medio de N arranques del host hasta el primer 200 del endpoint de salud
+host_run() {
+    local label="$1" jvm_args="$2"
+    local total=0 start elapsed pid
+    for ((i = 1; i <= RUNS; i++)); do
+        start=$(now_ms)
+        (cd "$STAGING_DIR" && exec env languageWorkers__java__arguments="$jvm_args" \
+            func host start --port "$FUNC_PORT" >/dev/null 2>&1) &
+        pid=$!
+        until curl -sf -o /dev/null "http://localhost:$FUNC_PORT$HEALTH_PATH"; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "El host termino antes de responder" >&2
+                return 1
+            fi
+            sleep 0.1
+        done
+        elapsed=$(( $(now_ms) - start ))
+        total=$(( total + elapsed ))
+        kill "$pid" 2>/dev/null || true
+        wait "$pid" 2>/dev/null || true
+    done
+    printf '%-28s %6d ms (media de %d)\n' "$label" $(( total / RUNS )) "$RUNS"
+}
+
+echo "== Worker simulado ($(basename "$JAR")) =="
+if [[ ! -f "$ARCHIVE" ]]; then
+    worker -XX:ArchiveClassesAtExit=app-cds.jsa
+fi
+# Confirma que la JVM acepta el archivo con este arranque
+(cd "$STAGING_DIR" && java -Xshare:on -XX:SharedArchiveFile="$ARCHIVE" -cp "$LAUNCHER" -version >/dev/null 2>&1) \
+    || echo "Aviso: la JVM rechaza el archivo dinamico" >&2
+jvm_run "sin CDS (-Xshare:off)" -Xshare:off
+jvm_run "CDS por defecto de la JDK" -Xshare:auto
+jvm_run "AppCDS del build" -Xshare:auto -XX:SharedArchiveFile="$ARCHIVE"
+
+if command -v func >/dev/null 2>&1; then
+    echo "== Host de Functions (puerto $FUNC_PORT, $HEALTH_PATH) =="
+    host_run "sin AppCDS" "-Xshare:auto"
+    host_run "AppCDS del build" "-Xshare:auto -XX:SharedArchiveFile=$ARCHIVE -Xlog:cds=info:file=$STAGING_DIR/cds.log"
+    echo "Uso del archivo por el worker (un classpath distinto al del build lo descarta): ver $STAGING_DIR/cds.log"
+else
+    echo "func (Azure Functions Core Tools) no esta instalado: se omite la medicion con el host"
+fi
@@ -0,0 +1,156 @@
+package com.function.dao;
+
+import com.function.event.RolActualizado;
+import com.function.event.RolAsignado;
+import com.function.event.RolAsignadoAutomatico;
+import com.function.event.RolCreado;
+import com.function.event.RolEliminado;
+import com.function.event.RolQuitado;
+import com.function.event.RolRemovidoAutomatico;
+import com.function.event.UsuarioActualizado;
+import com.function.event.UsuarioCreado;
+import com.function.event.UsuarioEliminado;
+import com.function.model.Cambio;
+import com.function.util.DBConnectionManager;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feed de cambios de usuarios, roles y asignaciones de roles leído de la tabla de auditoría SUM_LOG_EVENTOS.
+ * El cursor es el ID_LOG del último cambio entregado: cada página es una consulta por rango
+ * sobre la clave primaria (id_log > cursor), así que su costo depende de la cantidad de
+ * cambios nuevos y no del tamaño de las tablas de usuarios y roles.
+ *
+ * ID_LOG sale de una secuencia al insertar, por lo que una fila con ID menor puede confirmarse
+ * después que otra con ID mayor. Para no saltarse esas filas el feed solo entrega los eventos
+ * registrados hace al menos {@code retrasoSegundos}.
+ */
+public class CambiosDAO {
+    private static final Logger logger = LoggerFactory.getLogger(CambiosDAO.class);
+
+    // Tipo de evento de auditoría -> {entidad, operación} del feed
+    // (las asignaciones manuales y automáticas son la misma operación sobre SUM_USUARIO_ROL)
+    private static final Map<String, String[]> TIPOS = Map.of(
+            UsuarioCreado.TIPO, new String[] {"usuario", "creado"},
+            UsuarioActualizado.TIPO, new String[] {"usuario", "actualizado"},
+            UsuarioEliminado.TIPO, new String[] {"usuario", "eliminado"},
+            RolCreado.TIPO, new String[] {"rol", "creado"},
+            RolActualizado.TIPO, new String[] {"rol", "actualizado"},
+            RolEliminado.TIPO, new String[] {"rol", "eliminado"},
+            RolAsignado.TIPO, new String[] {"usuario_rol", "creado"},
+            RolAsignadoAutomatico.TIPO, new String[] {"usuario_rol", "creado"},
+            RolQuitado.TIPO, new String[] {"usuario_rol", "eliminado"},
+            RolRemovidoAutomatico.TIPO, new String[] {"usuario_rol", "eliminado"});
+
+    private static final String FILTRO_TIPOS =
+            "tipo_evento IN (" + String.join(", ", Collections.nCopies(TIPOS.size(), "?")) + ") " +
+            "AND fecha_evento <= SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND')";
+
+    /**
+     * Obtiene los cambios posteriores al cursor, en el orden en que se registraron.
+     * @param cursor ID_LOG del último cambio ya procesado (0 para leer desde el inicio)
+     * @param limite Cantidad máxima de cambios
+     * @param retrasoSegundos Antigüedad mínima de los eventos entregados
+     * @return Cambios sin los datos de la entidad; en las asignaciones, datos con idUsuario e idRol
+     *         (idRol es null en los registros que no lo guardaron)
+     */
+    public List<Cambio> findDesde(long cursor, int limite, int retrasoSegundos) {
+        List<Cambio> cambios = new ArrayList<>();
+        String sql = "SELECT id_log, tipo_evento, id_afectado, fecha_evento, datos_previos, datos_nuevos FROM sum_log_eventos " +
+                    "WHERE id_log > ? AND " + FILTRO_TIPOS + " " +
+                    "ORDER BY id_log FETCH FIRST ? ROWS ONLY";
+
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            stmt.setLong(indice++, cursor);
+            indice = enlazarFiltro(stmt, indice, retrasoSegundos);
+            stmt.setInt(indice, limite);
+            stmt.setFetchSize(Math.min(limite, DBConnectionManager.getListFetchSize()));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String[] tipo = TIPOS.get(rs.getString("tipo_evento"));
+                    Timestamp fecha = rs.getTimestamp("fecha_evento");
+                    long idAfectado = rs.getLong("id_afectado");
+                    Cambio cambio = new Cambio(
+                            String.valueOf(rs.getLong("id_log")),
+                            tipo[0],
+                            tipo[1],
+                            rs.wasNull() ? null : idAfectado,
+                            fecha != null ? fecha.toLocalDateTime() : null);
+                    if ("usuario_rol".equals(tipo[0])) {
+                        // La auditoría guarda el rol en datos_nuevos al asignar y en datos_previos al quitar
+                        Map<String, Object> asignacion = new LinkedHashMap<>();
+                        asignacion.put("idUsuario", cambio.getId());
+                        asignacion.put("idRol", leerIdRol(rs.getString(
+                                "creado".equals(tipo[1]) ? "datos_nuevos" : "datos_previos")));
+                        cambio.setDatos(asignacion);
+                    }
+                    cambios.add(cambio);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al leer los cambios desde el cursor: " + cursor, e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+
+        return cambios;
+    }
+
+    /**
+     * Obtiene el cursor del último cambio registrado, para empezar a sincronizar desde ahora.
+     * @param retrasoSegundos Antigüedad mínima del evento (la misma que usa {@link #findDesde})
+     * @return ID_LOG del último cambio, o 0 si no hay cambios
+     */
+    public long findUltimoCursor(int retrasoSegundos) {
+        // Recorre la clave primaria desde el final y se detiene en la primera fila que cumple
+        String sql = "SELECT id_log FROM sum_log_eventos WHERE " + FILTRO_TIPOS + " " +
+                    "ORDER BY id_log DESC FETCH FIRST 1 ROWS ONLY";
+
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            enlazarFiltro(stmt, 1, retrasoSegundos);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        } catch (SQLException e) {
+            logger.error("Error al leer el ultimo cursor de cambios", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+    }
+
+    // {"idRol": 5} -> 5; null si no hay datos o no traen el rol
+    private static Long leerIdRol(String datos) {
+        if (datos == null || datos.isBlank()) {
+            return null;
+        }
+        try {
+            JsonElement idRol = JsonParser.parseString(datos).getAsJsonObject().get("idRol");
+            return idRol == null || idRol.isJsonNull() ? null : idRol.getAsLong();
+        } catch (RuntimeException e) {
+            logger.warn("Datos de asignacion sin idRol valido: {}", datos);
+            return null;
+        }
+    }
+
+    private static int enlazarFiltro(PreparedStatement stmt, int indice, int retrasoSegundos) throws SQLException {
+        for (String tipo : TIPOS.keySet()) {
+            stmt.setString(indice++, tipo);
+        }
+        stmt.setInt(indice++, retrasoSegundos);
+        return indice;
+    }
+}
@@ -0,0 +1,258 @@
+package com.function.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Filtros, proyección y orden de un listado (GET usuarios y GET roles) leídos de los parámetros
+ * de consulta. Todo se resuelve en el SQL: los filtros van como parámetros enlazados y los campos
+ * de fields= y sort= se validan contra las columnas de la entidad, así que el texto del cliente
+ * nunca se concatena en la consulta.
+ *
+ * Parámetros:
+ * - activo=true|false
+ * - q=texto: prefijo (sin distinguir mayúsculas) del username o email del usuario, o del nombre del rol
+ * - dominio=duoc.cl: dominio del email (solo usuarios)
+ * - createdAfter=2024-01-01 o 2024-01-01T10:00:00: fecha de creación posterior a la indicada
+ * - fields=idUsuario,username: columnas a seleccionar
+ * - sort=campo,-campo: orden ascendente o descendente (con "-")
+ */
+public final class ConsultaListado {
+
+    /**
+     * Columna de la tabla expuesta como campo JSON del listado.
+     */
+    record Columna(String nombre, Class<?> tipo) {
+    }
+
+    private final Boolean activo;
+    private final String q;
+    private final String dominio;
+    private final LocalDateTime creadoDesde;
+    private final List<String> campos;
+    private final List<String> orden;
+
+    private ConsultaListado(Boolean activo, String q, String dominio, LocalDateTime creadoDesde,
+                            List<String> campos, List<String> orden) {
+        this.activo = activo;
+        this.q = q;
+        this.dominio = dominio;
+        this.creadoDesde = creadoDesde;
+        this.campos = campos;
+        this.orden = orden;
+    }
+
+    /**
+     * Lee la consulta de los parámetros de la solicitud; los parámetros desconocidos se ignoran.
+     * @param parametros Parámetros de consulta (puede ser null)
+     * @return Consulta del listado
+     * @throws IllegalArgumentException Si algún valor no tiene el formato esperado
+     */
+    public static ConsultaListado desdeParametros(Map<String, String> parametros) {
+        if (parametros == null) {
+            parametros = Collections.emptyMap();
+        }
+        return new ConsultaListado(
+                leerActivo(parametros.get("activo")),
+                texto(parametros.get("q")),
+                leerDominio(parametros.get("dominio")),
+                leerFecha(parametros.get("createdAfter")),
+                lista(parametros.get("fields")),
+                lista(parametros.get("sort")));
+    }
+
+    /**
+     * @return true si se pidió una proyección con fields=
+     */
+    public boolean tieneProyeccion() {
+        return !campos.isEmpty();
+    }
+
+    /**
+     * Columnas de la proyección en el orden pedido.
+     */
+    String select(Map<String, Columna> columnas) {
+        StringBuilder select = new StringBuilder();
+        for (String campo : camposProyectados(columnas)) {
+            if (select.length() > 0) {
+                select.append(", ");
+            }
+            select.append(columnas.get(campo).nombre());
+        }
+        return select.toString();
+    }
+
+    /**
+     * Cláusula WHERE de los filtros (vacía si no hay filtros).
+     * @param columnas Columnas de la entidad
+     * @param busqueda Columnas en las que se busca el prefijo q
+     * @param valores Recibe los valores a enlazar, en orden
+     */
+    String where(Map<String, Columna> columnas, List<String> busqueda, List<Object> valores) {
+        List<String> condiciones = new ArrayList<>();
+        if (activo != null) {
+            condiciones.add("activo = ?");
+            valores.add(activo ? 1 : 0);
+        }
+        if (q != null) {
+            // Prefijo con LIKE 'abc%': usa los índices sobre LOWER(columna)
+            String patron = escaparLike(q.toLowerCase(Locale.ROOT)) + "%";
+            List<String> alternativas = new ArrayList<>();
+            for (String columna : busqueda) {
+                alternativas.add("LOWER(" + columna + ") LIKE ? ESCAPE '\\'");
+                valores.add(patron);
+            }
+            condiciones.add("(" + String.join(" OR ", alternativas) + ")");
+        }
+        if (dominio != null) {
+            if (!columnas.containsKey("email")) {
+                throw new IllegalArgumentException("El filtro dominio solo aplica a usuarios");
+            }
+            condiciones.add("LOWER(SUBSTR(email, INSTR(email, '@') + 1)) = ?");
+            valores.add(dominio);
+        }
+        if (creadoDesde != null) {
+            condiciones.add("fecha_creacion > ?");
+            valores.add(Timestamp.valueOf(creadoDesde));
+        }
+        return condiciones.isEmpty() ? "" : " WHERE " + String.join(" AND ", condiciones);
+    }
+
+    /**
+     * Cláusula ORDER BY; siempre termina en la clave primaria para que el orden sea estable.
+     * @param columnas Columnas de la entidad
+     * @param campoId Campo de la clave primaria
+     */
+    String orderBy(Map<String, Columna> columnas, String campoId) {
+        List<String> partes = new ArrayList<>();
+        boolean incluyeId = false;
+        for (String campo : orden) {
+            boolean descendente = campo.startsWith("-");
+            String nombre = descendente ? campo.substring(1) : campo;
+            Columna columna = columnas.get(nombre);
+            if (columna == null) {
+                throw new IllegalArgumentException("No se puede ordenar por el campo: " + nombre);
+            }
+            partes.add(columna.nombre() + (descendente ? " DESC" : " ASC"));
+            incluyeId |= nombre.equals(campoId);
+        }
+        if (!incluyeId) {
+            partes.add(columnas.get(campoId).nombre() + " ASC");
+        }
+        return " ORDER BY " + String.join(", ", partes);
+    }
+
+    /**
+     * Lee una fila de la proyección como mapa campo JSON -> valor (sin los nulos).
+     */
+    Map<String, Object> leerFila(ResultSet rs, Map<String, Columna> columnas) throws SQLException {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        for (String campo : camposProyectados(columnas)) {
+            Columna columna = columnas.get(campo);
+            Object valor;
+            if (columna.tipo() == Long.class) {
+                long numero = rs.getLong(columna.nombre());
+                valor = rs.wasNull() ? null : numero;
+            } else if (columna.tipo() == Boolean.class) {
+                valor = rs.getBoolean(columna.nombre());
+            } else if (columna.tipo() == LocalDateTime.class) {
+                Timestamp fecha = rs.getTimestamp(columna.nombre());
+                valor = fecha != null ? fecha.toLocalDateTime() : null;
+            } else {
+                valor = rs.getString(columna.nombre());
+            }
+            if (valor != null) {
+                fila.put(campo, valor);
+            }
+        }
+        return fila;
+    }
+
+    /**
+     * Enlaza los valores de {@link #where} en la sentencia.
+     */
+    static void enlazar(PreparedStatement stmt, List<Object> valores) throws SQLException {
+        for (int i = 0; i < valores.size(); i++) {
+            stmt.setObject(i + 1, valores.get(i));
+        }
+    }
+
+    private List<String> camposProyectados(Map<String, Columna> columnas) {
+        for (String campo : campos) {
+            if (!columnas.containsKey(campo)) {
+                throw new IllegalArgumentException("Campo desconocido en fields: " + campo);
+            }
+        }
+        return campos;
+    }
+
+    private static Boolean leerActivo(String valor) {
+        valor = texto(valor);
+        if (valor == null) {
+            return null;
+        }
+        if (!valor.equalsIgnoreCase("true") && !valor.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("El parametro activo debe ser true o false");
+        }
+        return Boolean.parseBoolean(valor);
+    }
+
+    private static String leerDominio(String valor) {
+        valor = texto(valor);
+        if (valor == null) {
+            return null;
+        }
+        if (valor.startsWith("@")) {
+            valor = valor.substring(1);
+        }
+        return valor.toLowerCase(Locale.ROOT);
+    }
+
+    private static LocalDateTime leerFecha(String valor) {
+        valor = texto(valor);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return valor.contains("T") ? LocalDateTime.parse(valor) : LocalDate.parse(valor).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("El parametro createdAfter debe tener el formato yyyy-MM-dd o yyyy-MM-ddTHH:mm:ss");
+        }
+    }
+
+    // Lista separada por comas, sin vacíos ni repetidos
+    private static List<String> lista(String valor) {
+        valor = texto(valor);
+        if (valor == null) {
+            return Collections.emptyList();
+        }
+        Set<String> elementos = new LinkedHashSet<>();
+        for (String elemento : valor.split(",")) {
+            if (!elemento.isBlank()) {
+                elementos.add(elemento.trim());
+            }
+        }
+        return new ArrayList<>(elementos);
+    }
+
+    private static String texto(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,11 @@
+package com.function.dao;
+
+/**
+ * El usuario o el rol referenciado en una operación no existe (las funciones responden 404).
+ */
+public class RecursoNoEncontradoException extends RuntimeException {
+
+    public RecursoNoEncontradoException(String message) {
+        super(message);
+    }
+}
@@ -6,8 +6,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -16,22 +23,43 @@ import java.util.Optional;
 public class RolDAO {
     private static final Logger logger = LoggerFactory.getLogger(RolDAO.class);
 
+    // Columnas que se pueden filtrar, proyectar (fields=) y ordenar (sort=) en el listado
+    private static final Map<String, ConsultaListado.Columna> COLUMNAS_LISTADO = columnasListado();
+    private static final List<String> BUSQUEDA_LISTADO = List.of("nombre");
+
     /**
      * Obtiene todos los roles.
      * @return Lista de roles
      */
     public List<Rol> findAll() {
+        return findAll(ConsultaListado.desdeParametros(null));
+    }
+
+    /**
+     * Obtiene los roles que cumplen los filtros de la consulta, en su orden.
+     * @param consulta Filtros y orden del listado (la proyección se ignora)
+     * @return Lista de roles
+     * @throws IllegalArgumentException Si la consulta usa campos o filtros que no aplican
+     */
+    public List<Rol> findAll(ConsultaListado consulta) {
         List<Rol> roles = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
         String sql = "SELECT id_rol, nombre, descripcion, fecha_creacion, fecha_modificacion, activo " +
-                    "FROM sum_roles";
+                    "FROM sum_roles" +
+                    consulta.where(COLUMNAS_LISTADO, BUSQUEDA_LISTADO, valores) +
+                    consulta.orderBy(COLUMNAS_LISTADO, "idRol");
         
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            while (rs.next()) {
-                Rol rol = mapResultSetToRol(rs);
-                roles.add(rol);
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            ConsultaListado.enlazar(stmt, valores);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Rol rol = mapResultSetToRol(rs);
+                    roles.add(rol);
+                }
             }
         } catch (SQLException e) {
             logger.error("Error al obtener todos los roles", e);
@@ -41,6 +69,38 @@ public class RolDAO {
         return roles;
     }
 
+    /**
+     * Obtiene solo los campos pedidos en fields= de los roles que cumplen los filtros.
+     * @param consulta Consulta con proyección
+     * @return Filas como mapas campo -> valor
+     * @throws IllegalArgumentException Si la consulta usa campos o filtros que no aplican
+     */
+    public List<Map<String, Object>> findCampos(ConsultaListado consulta) {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
+        String sql = "SELECT " + consulta.select(COLUMNAS_LISTADO) + " FROM sum_roles" +
+                    consulta.where(COLUMNAS_LISTADO, BUSQUEDA_LISTADO, valores) +
+                    consulta.orderBy(COLUMNAS_LISTADO, "idRol");
+        
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            ConsultaListado.enlazar(stmt, valores);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    filas.add(consulta.leerFila(rs, COLUMNAS_LISTADO));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener los campos de los roles", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+        
+        return filas;
+    }
+
     /**
      * Busca un rol por su ID.
      * @param id ID del rol
@@ -69,6 +129,80 @@ public class RolDAO {
         return Optional.empty();
     }
 
+    /**
+     * Lee solo la versión de un rol (COALESCE(fecha_modificacion, fecha_creacion)) para
+     * resolver solicitudes condicionales sin cargar el registro completo.
+     * @param id ID del rol
+     * @return Optional con la versión si el rol existe
+     */
+    public Optional<LocalDateTime> findVersion(Long id) {
+        String sql = "SELECT COALESCE(fecha_modificacion, fecha_creacion) FROM sum_roles WHERE id_rol = ?";
+        
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp version = rs.getTimestamp(1);
+                    return Optional.ofNullable(version != null ? version.toLocalDateTime() : null);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al leer la version del rol con ID: " + id, e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+        
+        return Optional.empty();
+    }
+
+    /**
+     * Busca varios roles por ID con una consulta IN por cada 1000 IDs, en la misma conexión.
+     * @param ids IDs de los roles (los repetidos se ignoran)
+     * @return Roles encontrados en el orden de los IDs; los que no existen no aparecen
+     */
+    public List<Rol> findByIds(Collection<Long> ids) {
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Rol> encontrados = new HashMap<>();
+        
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            for (int desde = 0; desde < unicos.size(); desde += UsuarioDAO.MAX_LISTA_IN) {
+                List<Long> bloque = unicos.subList(desde, Math.min(desde + UsuarioDAO.MAX_LISTA_IN, unicos.size()));
+                int tamano = UsuarioDAO.tamanoListaIn(bloque.size());
+                String sql = "SELECT id_rol, nombre, descripcion, fecha_creacion, fecha_modificacion, activo " +
+                            "FROM sum_roles WHERE id_rol IN (" +
+                            String.join(", ", Collections.nCopies(tamano, "?")) + ")";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    // Las posiciones sobrantes repiten el último ID (no cambian el resultado)
+                    for (int i = 0; i < tamano; i++) {
+                        stmt.setLong(i + 1, bloque.get(Math.min(i, bloque.size() - 1)));
+                    }
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Rol rol = mapResultSetToRol(rs);
+                            encontrados.put(rol.getIdRol(), rol);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al buscar " + unicos.size() + " roles por ID", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+        
+        List<Rol> roles = new ArrayList<>(encontrados.size());
+        for (Long id : unicos) {
+            Rol rol = encontrados.get(id);
+            if (rol != null) {
+                roles.add(rol);
+            }
+        }
+        return roles;
+    }
+
     /**
      * Busca un rol por su nombre.
      * @param nombre Nombre del rol
@@ -145,19 +279,45 @@ public class RolDAO {
      * @return true si se actualizó correctamente
      */
     public boolean update(Rol rol) {
-        String sql = "UPDATE sum_roles SET " +
-                    "nombre = ?, " +
-                    "descripcion = ? " +
-                    "WHERE id_rol = ?";
+        return update(rol, null);
+    }
+
+    /**
+     * Actualiza un rol solo si su versión sigue siendo la esperada (If-Match).
+     * El UPDATE y la lectura de la nueva fecha_modificacion (asignada por el trigger) van en un
+     * solo bloque PL/SQL; si se actualiza, la nueva fecha queda en el objeto.
+     * @param rol Rol con datos actualizados
+     * @param versionEsperada COALESCE(fecha_modificacion, fecha_creacion) leída antes, o null para no verificarla
+     * @return true si se actualizó; false si no existe o su versión cambió
+     */
+    public boolean update(Rol rol, LocalDateTime versionEsperada) {
+        String sql = "BEGIN " +
+                    "UPDATE sum_roles SET nombre = ?, descripcion = ? " +
+                    "WHERE id_rol = ?" +
+                    (versionEsperada != null ? " AND COALESCE(fecha_modificacion, fecha_creacion) = ?" : "") +
+                    " RETURNING fecha_modificacion INTO ?; " +
+                    "? := SQL%ROWCOUNT; " +
+                    "END;";
         
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             CallableStatement stmt = conn.prepareCall(sql)) {
             
             stmt.setString(1, rol.getNombre());
             stmt.setString(2, rol.getDescripcion());
             stmt.setLong(3, rol.getIdRol());
+            int i = 4;
+            if (versionEsperada != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf(versionEsperada));
+            }
+            stmt.registerOutParameter(i, Types.TIMESTAMP);
+            stmt.registerOutParameter(i + 1, Types.INTEGER);
             
-            int rowsAffected = stmt.executeUpdate();
+            stmt.execute();
+            int rowsAffected = stmt.getInt(i + 1);
+            Timestamp fechaModificacion = stmt.getTimestamp(i);
+            if (rowsAffected > 0 && fechaModificacion != null) {
+                rol.setFechaModificacion(fechaModificacion.toLocalDateTime());
+            }
             logger.info("Rol actualizado con ID: " + rol.getIdRol() + ", filas afectadas: " + rowsAffected);
             
             return rowsAffected > 0;
@@ -209,6 +369,8 @@ public class RolDAO {
             
             stmt.setLong(1, idRol);
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     usuarios.add(rs.getLong("id_usuario"));
@@ -228,7 +390,7 @@ public class RolDAO {
      * @return Rol
      * @throws SQLException si hay error en la conversión
      */
-    private Rol mapResultSetToRol(ResultSet rs) throws SQLException {
+    Rol mapResultSetToRol(ResultSet rs) throws SQLException {
         Rol rol = new Rol();
         rol.setIdRol(rs.getLong("id_rol"));
         rol.setNombre(rs.getString("nombre"));
@@ -248,4 +410,15 @@ public class RolDAO {
         
         return rol;
     }
+
+    private static Map<String, ConsultaListado.Columna> columnasListado() {
+        Map<String, ConsultaListado.Columna> columnas = new LinkedHashMap<>();
+        columnas.put("idRol", new ConsultaListado.Columna("id_rol", Long.class));
+        columnas.put("nombre", new ConsultaListado.Columna("nombre", String.class));
+        columnas.put("descripcion", new ConsultaListado.Columna("descripcion", String.class));
+        columnas.put("fechaCreacion", new ConsultaListado.Columna("fecha_creacion", LocalDateTime.class));
+        columnas.put("fechaModificacion", new ConsultaListado.Columna("fecha_modificacion", LocalDateTime.class));
+        columnas.put("activo", new ConsultaListado.Columna("activo", Boolean.class));
+        return columnas;
+    }
 }
\ No newline at end of file
@@ -1,14 +1,25 @@
 package com.function.dao;
 
+import com.function.model.AsignacionRol;
 import com.function.model.Usuario;
 import com.function.util.DBConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Clase de acceso a datos para la entidad Usuario.
@@ -16,23 +27,57 @@ import java.util.Optional;
 public class UsuarioDAO {
     private static final Logger logger = LoggerFactory.getLogger(UsuarioDAO.class);
 
+    // Sentencias de la creación por lotes
+    private static final String INSERT_USUARIO_SQL =
+            "INSERT INTO sum_usuarios (id_usuario, username, email, nombre, apellido, password_hash) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USUARIO_ROL_SQL =
+            "INSERT INTO sum_usuario_rol (id_usuario, id_rol) VALUES (?, ?)";
+    private static final String YA_EXISTE = "Ya existe un usuario con ese nombre de usuario o email";
+
+    // Búsqueda por lista de IDs: máximo de elementos de una lista IN en Oracle y tamaños a los que
+    // se completa cada lista, para que la caché de sentencias guarde pocas variantes del SQL
+    static final int MAX_LISTA_IN = 1000;
+    private static final int[] TAMANOS_LISTA_IN = {10, 50, 100, 250, 500, MAX_LISTA_IN};
+
+    // Columnas que se pueden filtrar, proyectar (fields=) y ordenar (sort=) en el listado
+    private static final Map<String, ConsultaListado.Columna> COLUMNAS_LISTADO = columnasListado();
+    private static final List<String> BUSQUEDA_LISTADO = List.of("username", "email");
+
     /**
-     * Obtiene todos los usuarios activos.
+     * Obtiene todos los usuarios.
      * @return Lista de usuarios
      */
     public List<Usuario> findAll() {
+        return findAll(ConsultaListado.desdeParametros(null));
+    }
+
+    /**
+     * Obtiene los usuarios que cumplen los filtros de la consulta, en su orden.
+     * @param consulta Filtros y orden del listado (la proyección se ignora)
+     * @return Lista de usuarios
+     * @throws IllegalArgumentException Si la consulta usa campos desconocidos
+     */
+    public List<Usuario> findAll(ConsultaListado consulta) {
         List<Usuario> usuarios = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
         String sql = "SELECT id_usuario, username, email, nombre, apellido, " +
                     "password_hash, fecha_creacion, fecha_modificacion, ultimo_login, activo " +
-                    "FROM sum_usuarios";
+                    "FROM sum_usuarios" +
+                    consulta.where(COLUMNAS_LISTADO, BUSQUEDA_LISTADO, valores) +
+                    consulta.orderBy(COLUMNAS_LISTADO, "idUsuario");
         
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            while (rs.next()) {
-                Usuario usuario = mapResultSetToUsuario(rs);
-                usuarios.add(usuario);
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            ConsultaListado.enlazar(stmt, valores);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Usuario usuario = mapResultSetToUsuario(rs);
+                    usuarios.add(usuario);
+                }
             }
         } catch (SQLException e) {
             logger.error("Error al obtener todos los usuarios", e);
@@ -42,6 +87,39 @@ public class UsuarioDAO {
         return usuarios;
     }
 
+    /**
+     * Obtiene solo los campos pedidos en fields= de los usuarios que cumplen los filtros.
+     * El SELECT incluye únicamente esas columnas (nunca password_hash).
+     * @param consulta Consulta con proyección
+     * @return Filas como mapas campo -> valor
+     * @throws IllegalArgumentException Si la consulta usa campos desconocidos
+     */
+    public List<Map<String, Object>> findCampos(ConsultaListado consulta) {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
+        String sql = "SELECT " + consulta.select(COLUMNAS_LISTADO) + " FROM sum_usuarios" +
+                    consulta.where(COLUMNAS_LISTADO, BUSQUEDA_LISTADO, valores) +
+                    consulta.orderBy(COLUMNAS_LISTADO, "idUsuario");
+        
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            ConsultaListado.enlazar(stmt, valores);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    filas.add(consulta.leerFila(rs, COLUMNAS_LISTADO));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener los campos de los usuarios", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+        
+        return filas;
+    }
+
     /**
      * Busca un usuario por su ID.
      * @param id ID del usuario
@@ -71,6 +149,34 @@ public class UsuarioDAO {
         return Optional.empty();
     }
 
+    /**
+     * Lee solo la versión de un usuario (COALESCE(fecha_modificacion, fecha_creacion)) para
+     * resolver solicitudes condicionales sin cargar el registro completo.
+     * @param id ID del usuario
+     * @return Optional con la versión si el usuario existe
+     */
+    public Optional<LocalDateTime> findVersion(Long id) {
+        String sql = "SELECT COALESCE(fecha_modificacion, fecha_creacion) FROM sum_usuarios WHERE id_usuario = ?";
+        
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setLong(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp version = rs.getTimestamp(1);
+                    return Optional.ofNullable(version != null ? version.toLocalDateTime() : null);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al leer la version del usuario con ID: " + id, e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+        
+        return Optional.empty();
+    }
+
     /**
      * Busca un usuario por su nombre de usuario.
      * @param username Nombre de usuario
@@ -100,6 +206,55 @@ public class UsuarioDAO {
         return Optional.empty();
     }
 
+    /**
+     * Busca varios usuarios por ID con una consulta IN por cada 1000 IDs (límite de Oracle),
+     * todas en la misma conexión.
+     * @param ids IDs de los usuarios (los repetidos se ignoran)
+     * @return Usuarios encontrados en el orden de los IDs; los que no existen no aparecen
+     */
+    public List<Usuario> findByIds(Collection<Long> ids) {
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Usuario> encontrados = new HashMap<>();
+        
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            for (int desde = 0; desde < unicos.size(); desde += MAX_LISTA_IN) {
+                List<Long> bloque = unicos.subList(desde, Math.min(desde + MAX_LISTA_IN, unicos.size()));
+                int tamano = tamanoListaIn(bloque.size());
+                String sql = "SELECT id_usuario, username, email, nombre, apellido, " +
+                            "password_hash, fecha_creacion, fecha_modificacion, ultimo_login, activo " +
+                            "FROM sum_usuarios WHERE id_usuario IN (" +
+                            String.join(", ", Collections.nCopies(tamano, "?")) + ")";
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    // Las posiciones sobrantes repiten el último ID (no cambian el resultado)
+                    for (int i = 0; i < tamano; i++) {
+                        stmt.setLong(i + 1, bloque.get(Math.min(i, bloque.size() - 1)));
+                    }
+                    stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+                    
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Usuario usuario = mapResultSetToUsuario(rs);
+                            encontrados.put(usuario.getIdUsuario(), usuario);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al buscar " + unicos.size() + " usuarios por ID", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+        
+        List<Usuario> usuarios = new ArrayList<>(encontrados.size());
+        for (Long id : unicos) {
+            Usuario usuario = encontrados.get(id);
+            if (usuario != null) {
+                usuarios.add(usuario);
+            }
+        }
+        return usuarios;
+    }
+
     /**
      * Crea un nuevo usuario en la base de datos.
      * @param usuario Usuario a crear
@@ -135,22 +290,193 @@ public class UsuarioDAO {
         }
     }
 
+    /**
+     * Crea un lote de usuarios y les asigna un rol en una sola transacción.
+     * Los IDs se reservan con una consulta a la secuencia y los INSERT se envían con batching
+     * de JDBC (un viaje de red por sentencia en lugar de uno por usuario). Los usuarios que ya
+     * existen se descartan antes de insertar; si otro proceso crea uno de ellos entre la
+     * validación y el INSERT, el lote se repite fila por fila para informar solo esa fila.
+     * @param usuarios Usuarios a crear (a los creados se les asigna su ID)
+     * @param idRol Rol que se asigna a cada usuario creado
+     * @return Mensaje de error por posición de la lista, o null si la fila se creó
+     */
+    public List<String> createBatch(List<Usuario> usuarios, Long idRol) {
+        List<String> errores = new ArrayList<>(Collections.nCopies(usuarios.size(), null));
+        if (usuarios.isEmpty()) {
+            return errores;
+        }
+
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            marcarExistentes(conn, usuarios, errores);
+
+            List<Usuario> pendientes = new ArrayList<>();
+            for (int i = 0; i < usuarios.size(); i++) {
+                if (errores.get(i) == null) {
+                    pendientes.add(usuarios.get(i));
+                }
+            }
+            if (pendientes.isEmpty()) {
+                return errores;
+            }
+
+            List<Long> ids = reservarIds(conn, pendientes.size());
+            for (int i = 0; i < pendientes.size(); i++) {
+                pendientes.get(i).setIdUsuario(ids.get(i));
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertUsuario = conn.prepareStatement(INSERT_USUARIO_SQL);
+                 PreparedStatement insertRol = conn.prepareStatement(INSERT_USUARIO_ROL_SQL)) {
+                try {
+                    for (Usuario usuario : pendientes) {
+                        setInsertParameters(insertUsuario, usuario);
+                        insertUsuario.addBatch();
+                        insertRol.setLong(1, usuario.getIdUsuario());
+                        insertRol.setLong(2, idRol);
+                        insertRol.addBatch();
+                    }
+                    insertUsuario.executeBatch();
+                    insertRol.executeBatch();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    insertUsuario.clearBatch();
+                    insertRol.clearBatch();
+                    logger.warn("Lote de " + pendientes.size() + " usuarios rechazado, se reintenta fila por fila: "
+                            + e.getMessage());
+                    crearFilaPorFila(conn, insertUsuario, insertRol, usuarios, idRol, errores);
+                }
+            }
+
+            logger.info("Lote de usuarios creado: " + usuarios.size() + " filas, "
+                    + errores.stream().filter(Objects::nonNull).count() + " con error");
+            return errores;
+
+        } catch (SQLException e) {
+            logger.error("Error al crear lote de " + usuarios.size() + " usuarios", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+    }
+
+    /**
+     * Marca con error las filas cuyo username o email ya están registrados (una consulta por lote).
+     */
+    private void marcarExistentes(Connection conn, List<Usuario> usuarios, List<String> errores) throws SQLException {
+        String marcadores = String.join(", ", Collections.nCopies(usuarios.size(), "?"));
+        String sql = "SELECT username, email FROM sum_usuarios " +
+                    "WHERE username IN (" + marcadores + ") OR email IN (" + marcadores + ")";
+
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int n = usuarios.size();
+            for (int i = 0; i < n; i++) {
+                stmt.setString(i + 1, usuarios.get(i).getUsername());
+                stmt.setString(n + i + 1, usuarios.get(i).getEmail());
+            }
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    usernames.add(rs.getString("username"));
+                    emails.add(rs.getString("email"));
+                }
+            }
+        }
+
+        for (int i = 0; i < usuarios.size(); i++) {
+            Usuario usuario = usuarios.get(i);
+            if (usernames.contains(usuario.getUsername()) || emails.contains(usuario.getEmail())) {
+                errores.set(i, YA_EXISTE);
+            }
+        }
+    }
+
+    /**
+     * Reserva IDs de la secuencia de usuarios en un solo viaje de red.
+     */
+    private List<Long> reservarIds(Connection conn, int cantidad) throws SQLException {
+        String sql = "SELECT sum_seq_usuario.NEXTVAL FROM dual CONNECT BY LEVEL <= ?";
+        List<Long> ids = new ArrayList<>(cantidad);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, cantidad);
+            stmt.setFetchSize(cantidad);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Crea cada usuario pendiente del lote en su propia transacción, registrando el error de cada fila.
+     */
+    private void crearFilaPorFila(Connection conn, PreparedStatement insertUsuario, PreparedStatement insertRol,
+                                  List<Usuario> usuarios, Long idRol, List<String> errores) throws SQLException {
+        for (int i = 0; i < usuarios.size(); i++) {
+            if (errores.get(i) != null) {
+                continue;
+            }
+            Usuario usuario = usuarios.get(i);
+            try {
+                setInsertParameters(insertUsuario, usuario);
+                insertUsuario.executeUpdate();
+                insertRol.setLong(1, usuario.getIdUsuario());
+                insertRol.setLong(2, idRol);
+                insertRol.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                usuario.setIdUsuario(null);
+                errores.set(i, esClaveDuplicada(e) ? YA_EXISTE : e.getMessage());
+            }
+        }
+    }
+
+    // ORA-00001 (o SQLState 23505 en H2): restricción única violada. No se usa
+    // SQLIntegrityConstraintViolationException porque también cubre claves foráneas y NOT NULL
+    private static boolean esClaveDuplicada(SQLException e) {
+        return e.getErrorCode() == 1 || "23505".equals(e.getSQLState());
+    }
+
+    private static void setInsertParameters(PreparedStatement stmt, Usuario usuario) throws SQLException {
+        stmt.setLong(1, usuario.getIdUsuario());
+        stmt.setString(2, usuario.getUsername());
+        stmt.setString(3, usuario.getEmail());
+        stmt.setString(4, usuario.getNombre());
+        stmt.setString(5, usuario.getApellido());
+        stmt.setString(6, usuario.getPasswordHash());
+    }
+
     /**
      * Actualiza un usuario existente.
      * @param usuario Usuario con datos actualizados
      * @return true si se actualizó correctamente
      */
     public boolean update(Usuario usuario) {
-        String sql = "UPDATE sum_usuarios SET " +
-                    "nombre = ?, " +
-                    "apellido = ?, " +
-                    "email = ?, " +
-                    "username = ?, " +
-                    "password_hash = ? " +
-                    "WHERE id_usuario = ?";
+        return update(usuario, null);
+    }
+
+    /**
+     * Actualiza un usuario solo si su versión sigue siendo la esperada (If-Match).
+     * El UPDATE y la lectura de la nueva fecha_modificacion (asignada por el trigger) van en un
+     * solo bloque PL/SQL; si se actualiza, la nueva fecha queda en el objeto.
+     * @param usuario Usuario con datos actualizados
+     * @param versionEsperada COALESCE(fecha_modificacion, fecha_creacion) leída antes, o null para no verificarla
+     * @return true si se actualizó; false si no existe o su versión cambió
+     */
+    public boolean update(Usuario usuario, LocalDateTime versionEsperada) {
+        String sql = "BEGIN " +
+                    "UPDATE sum_usuarios SET nombre = ?, apellido = ?, email = ?, username = ?, password_hash = ? " +
+                    "WHERE id_usuario = ?" +
+                    (versionEsperada != null ? " AND COALESCE(fecha_modificacion, fecha_creacion) = ?" : "") +
+                    " RETURNING fecha_modificacion INTO ?; " +
+                    "? := SQL%ROWCOUNT; " +
+                    "END;";
         
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             CallableStatement stmt = conn.prepareCall(sql)) {
             
             stmt.setString(1, usuario.getNombre());
             stmt.setString(2, usuario.getApellido());
@@ -158,8 +484,19 @@ public class UsuarioDAO {
             stmt.setString(4, usuario.getUsername());
             stmt.setString(5, usuario.getPasswordHash());
             stmt.setLong(6, usuario.getIdUsuario());
-            
-            int rowsAffected = stmt.executeUpdate();
+            int i = 7;
+            if (versionEsperada != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf(versionEsperada));
+            }
+            stmt.registerOutParameter(i, Types.TIMESTAMP);
+            stmt.registerOutParameter(i + 1, Types.INTEGER);
+            
+            stmt.execute();
+            int rowsAffected = stmt.getInt(i + 1);
+            Timestamp fechaModificacion = stmt.getTimestamp(i);
+            if (rowsAffected > 0 && fechaModificacion != null) {
+                usuario.setFechaModificacion(fechaModificacion.toLocalDateTime());
+            }
             logger.info("Usuario actualizado con ID: " + usuario.getIdUsuario() + ", filas afectadas: " + rowsAffected);
             
             return rowsAffected > 0;
@@ -253,6 +590,68 @@ public class UsuarioDAO {
         }
     }
 
+    /**
+     * Asigna un rol a un usuario y obtiene en la misma llamada los datos que necesita la
+     * respuesta y el evento: username, nombre del rol y roles resultantes del usuario.
+     * Todo se ejecuta en un bloque PL/SQL (un viaje de red y una conexión del pool).
+     * @param idUsuario ID del usuario
+     * @param idRol ID del rol
+     * @return Asignación con username, nombre del rol y roles del usuario
+     */
+    public AsignacionRol asignarRolConDetalle(Long idUsuario, Long idRol) {
+        String sql = "DECLARE " +
+                    "  v_id_usuario NUMBER := ?; " +
+                    "  v_id_rol NUMBER := ?; " +
+                    "BEGIN " +
+                    "  sum_asignar_rol(v_id_usuario, v_id_rol); " +
+                    "  SELECT username INTO ? FROM sum_usuarios WHERE id_usuario = v_id_usuario; " +
+                    "  SELECT nombre INTO ? FROM sum_roles WHERE id_rol = v_id_rol; " +
+                    "  SELECT LISTAGG(id_rol, ',') WITHIN GROUP (ORDER BY id_rol) INTO ? " +
+                    "    FROM sum_usuario_rol WHERE id_usuario = v_id_usuario; " +
+                    "END;";
+        
+        try (Connection conn = DBConnectionManager.getConnection();
+             CallableStatement cstmt = conn.prepareCall(sql)) {
+            
+            cstmt.setLong(1, idUsuario);
+            cstmt.setLong(2, idRol);
+            cstmt.registerOutParameter(3, Types.VARCHAR);
+            cstmt.registerOutParameter(4, Types.VARCHAR);
+            cstmt.registerOutParameter(5, Types.VARCHAR);
+            
+            cstmt.execute();
+            logger.info("Rol " + idRol + " asignado al usuario " + idUsuario);
+            
+            AsignacionRol asignacion = new AsignacionRol(idUsuario, idRol, true);
+            asignacion.setUsername(cstmt.getString(3));
+            asignacion.setRolNombre(cstmt.getString(4));
+            asignacion.setRoles(parseIds(cstmt.getString(5)));
+            return asignacion;
+            
+        } catch (SQLException e) {
+            logger.error("Error al asignar rol " + idRol + " al usuario " + idUsuario, e);
+            if (e.getMessage().contains("20001")) {
+                throw new RuntimeException("El usuario no existe", e);
+            }
+            if (e.getMessage().contains("20002")) {
+                throw new RuntimeException("El rol no existe", e);
+            }
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+    }
+
+    // Lista de IDs separada por comas (resultado de LISTAGG, null si el usuario no tiene roles)
+    private static List<Long> parseIds(String lista) {
+        List<Long> ids = new ArrayList<>();
+        if (lista == null || lista.isEmpty()) {
+            return ids;
+        }
+        for (String id : lista.split(",")) {
+            ids.add(Long.parseLong(id.trim()));
+        }
+        return ids;
+    }
+
     /**
      * Quita un rol a un usuario.
      * @param idUsuario ID del usuario
@@ -279,6 +678,153 @@ public class UsuarioDAO {
         }
     }
 
+    /**
+     * Asigna y quita roles a usuarios en una sola transacción.
+     * Valida que existan los usuarios y los roles (una consulta para cada tabla, que también
+     * entrega el username y el nombre del rol) y envía todos los MERGE y todos los DELETE como
+     * dos sentencias con batching de JDBC, sin importar la cantidad de pares.
+     * @param cambios Pares (usuario, rol) a asignar o quitar; se completan con username y rolNombre
+     * @return Pares que cambiaron (no incluye asignaciones que ya existían ni retiros sin efecto)
+     * @throws RecursoNoEncontradoException Si falta algún usuario o rol
+     */
+    public List<AsignacionRol> actualizarAsignaciones(List<AsignacionRol> cambios) {
+        List<AsignacionRol> realizados = new ArrayList<>();
+        if (cambios.isEmpty()) {
+            return realizados;
+        }
+        String mergeSql = "MERGE INTO sum_usuario_rol ur " +
+                         "USING (SELECT ? AS id_usuario, ? AS id_rol FROM dual) n " +
+                         "ON (ur.id_usuario = n.id_usuario AND ur.id_rol = n.id_rol) " +
+                         "WHEN NOT MATCHED THEN INSERT (id_usuario, id_rol) VALUES (n.id_usuario, n.id_rol)";
+        String deleteSql = "DELETE FROM sum_usuario_rol WHERE id_usuario = ? AND id_rol = ?";
+
+        Set<Long> idsUsuario = new LinkedHashSet<>();
+        Set<Long> idsRol = new LinkedHashSet<>();
+        List<AsignacionRol> asignar = new ArrayList<>();
+        List<AsignacionRol> quitar = new ArrayList<>();
+        for (AsignacionRol cambio : cambios) {
+            idsUsuario.add(cambio.getIdUsuario());
+            idsRol.add(cambio.getIdRol());
+            (cambio.isAsignar() ? asignar : quitar).add(cambio);
+        }
+
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            Map<Long, String> usernames = buscarNombres(conn,
+                    "SELECT id_usuario, username FROM sum_usuarios WHERE id_usuario IN ", idsUsuario);
+            Map<Long, String> roles = buscarNombres(conn,
+                    "SELECT id_rol, nombre FROM sum_roles WHERE id_rol IN ", idsRol);
+            idsUsuario.removeAll(usernames.keySet());
+            if (!idsUsuario.isEmpty()) {
+                throw new RecursoNoEncontradoException("El usuario no existe: " + idsUsuario);
+            }
+            idsRol.removeAll(roles.keySet());
+            if (!idsRol.isEmpty()) {
+                throw new RecursoNoEncontradoException("El rol no existe: " + idsRol);
+            }
+            for (AsignacionRol cambio : cambios) {
+                cambio.setUsername(usernames.get(cambio.getIdUsuario()));
+                cambio.setRolNombre(roles.get(cambio.getIdRol()));
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement merge = conn.prepareStatement(mergeSql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+                int[] asignados = ejecutarLote(merge, asignar);
+                int[] quitados = ejecutarLote(delete, quitar);
+                conn.commit();
+                agregarRealizados(realizados, asignar, asignados);
+                agregarRealizados(realizados, quitar, quitados);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+            logger.info("Asignaciones de roles actualizadas: " + cambios.size() + " pares, "
+                    + realizados.size() + " cambios");
+            return realizados;
+
+        } catch (SQLException e) {
+            logger.error("Error al actualizar " + cambios.size() + " asignaciones de roles", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+    }
+
+    /**
+     * Obtiene los roles de varios usuarios en una sola consulta.
+     * @param idsUsuario IDs de los usuarios (hasta 1000)
+     * @return Lista de IDs de roles por usuario (lista vacía si el usuario no tiene roles)
+     */
+    public Map<Long, List<Long>> getRolesPorUsuario(Collection<Long> idsUsuario) {
+        Map<Long, List<Long>> rolesPorUsuario = new LinkedHashMap<>();
+        if (idsUsuario.isEmpty()) {
+            return rolesPorUsuario;
+        }
+        idsUsuario.forEach(id -> rolesPorUsuario.put(id, new ArrayList<>()));
+        String sql = "SELECT id_usuario, id_rol FROM sum_usuario_rol WHERE id_usuario IN (" +
+                    String.join(", ", Collections.nCopies(idsUsuario.size(), "?")) + ") " +
+                    "ORDER BY id_usuario, id_rol";
+
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            for (Long id : idsUsuario) {
+                stmt.setLong(i++, id);
+            }
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rolesPorUsuario.get(rs.getLong("id_usuario")).add(rs.getLong("id_rol"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener roles de " + idsUsuario.size() + " usuarios", e);
+            throw new RuntimeException("Error al acceder a la base de datos", e);
+        }
+
+        return rolesPorUsuario;
+    }
+
+    // ID y nombre de las filas cuyos IDs están en la lista (consulta con una lista IN)
+    private Map<Long, String> buscarNombres(Connection conn, String sqlSinLista, Set<Long> ids) throws SQLException {
+        Map<Long, String> nombres = new HashMap<>();
+        String sql = sqlSinLista + "(" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Long id : ids) {
+                stmt.setLong(i++, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    nombres.put(rs.getLong(1), rs.getString(2));
+                }
+            }
+        }
+        return nombres;
+    }
+
+    private int[] ejecutarLote(PreparedStatement stmt, List<AsignacionRol> pares) throws SQLException {
+        if (pares.isEmpty()) {
+            return new int[0];
+        }
+        for (AsignacionRol par : pares) {
+            stmt.setLong(1, par.getIdUsuario());
+            stmt.setLong(2, par.getIdRol());
+            stmt.addBatch();
+        }
+        return stmt.executeBatch();
+    }
+
+    // Filas afectadas por par; SUCCESS_NO_INFO (el driver no informa el conteo) se toma como cambio
+    private static void agregarRealizados(List<AsignacionRol> realizados, List<AsignacionRol> pares, int[] filas) {
+        for (int i = 0; i < pares.size(); i++) {
+            if (filas[i] > 0 || filas[i] == Statement.SUCCESS_NO_INFO) {
+                realizados.add(pares.get(i));
+            }
+        }
+    }
+
     /**
      * Obtiene los roles de un usuario.
      * @param idUsuario ID del usuario
@@ -293,6 +839,8 @@ public class UsuarioDAO {
             
             stmt.setLong(1, idUsuario);
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     roles.add(rs.getLong("id_rol"));
@@ -312,7 +860,7 @@ public class UsuarioDAO {
      * @return Usuario
      * @throws SQLException si hay error en la conversión
      */
-    private Usuario mapResultSetToUsuario(ResultSet rs) throws SQLException {
+    Usuario mapResultSetToUsuario(ResultSet rs) throws SQLException {
         Usuario usuario = new Usuario();
         usuario.setIdUsuario(rs.getLong("id_usuario"));
         usuario.setUsername(rs.getString("username"));
@@ -340,4 +888,28 @@ public class UsuarioDAO {
         
         return usuario;
     }
+
+    // Tamaño al que se completa una lista IN de la cantidad de IDs indicada (también lo usa RolDAO)
+    static int tamanoListaIn(int cantidad) {
+        for (int tamano : TAMANOS_LISTA_IN) {
+            if (cantidad <= tamano) {
+                return tamano;
+            }
+        }
+        return MAX_LISTA_IN;
+    }
+
+    private static Map<String, ConsultaListado.Columna> columnasListado() {
+        Map<String, ConsultaListado.Columna> columnas = new LinkedHashMap<>();
+        columnas.put("idUsuario", new ConsultaListado.Columna("id_usuario", Long.class));
+        columnas.put("username", new ConsultaListado.Columna("username", String.class));
+        columnas.put("email", new ConsultaListado.Columna("email", String.class));
+        columnas.put("nombre", new ConsultaListado.Columna("nombre", String.class));
+        columnas.put("apellido", new ConsultaListado.Columna("apellido", String.class));
+        columnas.put("fechaCreacion", new ConsultaListado.Columna("fecha_creacion", LocalDateTime.class));
+        columnas.put("fechaModificacion", new ConsultaListado.Columna("fecha_modificacion", LocalDateTime.class));
+        columnas.put("ultimoLogin", new ConsultaListado.Columna("ultimo_login", LocalDateTime.class));
+        columnas.put("activo", new ConsultaListado.Columna("activo", Boolean.class));
+        return columnas;
+    }
 }
\ No newline at end of file
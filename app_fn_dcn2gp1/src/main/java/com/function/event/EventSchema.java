@@ -0,0 +1,111 @@
+package com.function.event;
+
+import com.function.util.EventEnvelope;
+import com.function.util.GsonConfig;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.Map;
+
+/**
+ * Registro de los tipos de evento y de su versión de esquema.
+ * Los productores publican records {@link EventoDominio} serializados con Gson (JSON compacto,
+ * sin nulos) y dataVersion {@link #VERSION}; los consumidores obtienen el record tipado con
+ * {@link #decode(EventEnvelope)} en lugar de revisar el JsonObject campo por campo.
+ *
+ * Versiones:
+ * - 1.0: payload armado a mano con JsonObject y serializado por el SDK; puede venir envuelto
+ *   como {"members": {"campo": {"value": ...}}}. Se normaliza aquí, en un solo lugar.
+ * - 2.0: payload igual a los campos del record.
+ */
+public final class EventSchema {
+
+    public static final String VERSION = "2.0";
+
+    private static final Map<String, Class<? extends EventoDominio>> TIPOS = Map.of(
+            UsuarioCreado.TIPO, UsuarioCreado.class,
+            UsuarioActualizado.TIPO, UsuarioActualizado.class,
+            UsuarioEliminado.TIPO, UsuarioEliminado.class,
+            RolCreado.TIPO, RolCreado.class,
+            RolActualizado.TIPO, RolActualizado.class,
+            RolEliminado.TIPO, RolEliminado.class,
+            RolAsignado.TIPO, RolAsignado.class,
+            RolQuitado.TIPO, RolQuitado.class,
+            RolAsignadoAutomatico.TIPO, RolAsignadoAutomatico.class,
+            RolRemovidoAutomatico.TIPO, RolRemovidoAutomatico.class);
+
+    private EventSchema() {
+    }
+
+    /**
+     * @param eventType Tipo de evento de Event Grid
+     * @return Clase del record registrado, o null si el tipo no es conocido
+     */
+    public static Class<? extends EventoDominio> tipoRegistrado(String eventType) {
+        return TIPOS.get(eventType);
+    }
+
+    /**
+     * Convierte la data del evento en el record de su tipo.
+     * @param envelope Evento recibido por el trigger
+     * @return Evento tipado, o null si el tipo no está registrado
+     * @throws com.google.gson.JsonParseException Si la data no corresponde al esquema
+     */
+    public static EventoDominio decode(EventEnvelope envelope) {
+        Class<? extends EventoDominio> tipo = TIPOS.get(envelope.getEventType());
+        if (tipo == null) {
+            return null;
+        }
+        JsonElement data = envelope.getData();
+        if (!VERSION.equals(envelope.getDataVersion())) {
+            data = normalizarLegado(data);
+        }
+        return GsonConfig.getGson().fromJson(data, tipo);
+    }
+
+    /**
+     * Serializa la data de un evento para publicarlo.
+     * @param evento Evento de dominio
+     * @return JSON compacto del record
+     */
+    public static String toJson(EventoDominio evento) {
+        return GsonConfig.getGson().toJson(evento);
+    }
+
+    /**
+     * Quita el envoltorio {"members": {"campo": {"value": ...}}} de los payloads 1.0 (lo genera
+     * el SDK al serializar un JsonObject de Gson). Si la data ya es plana se devuelve sin copiar.
+     */
+    static JsonElement normalizarLegado(JsonElement element) {
+        if (element == null || !element.isJsonObject() || !element.getAsJsonObject().has("members")) {
+            return element;
+        }
+        return desenvolver(element);
+    }
+
+    private static JsonElement desenvolver(JsonElement element) {
+        if (element.isJsonArray()) {
+            JsonArray plano = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                plano.add(desenvolver(item));
+            }
+            return plano;
+        }
+        if (!element.isJsonObject()) {
+            return element;
+        }
+
+        JsonObject objeto = element.getAsJsonObject();
+        if (objeto.has("members") && objeto.get("members").isJsonObject()) {
+            objeto = objeto.getAsJsonObject("members");
+        } else if (objeto.has("value") && objeto.get("value").isJsonPrimitive()) {
+            return objeto.get("value");
+        }
+        JsonObject plano = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : objeto.entrySet()) {
+            plano.add(entry.getKey(), desenvolver(entry.getValue()));
+        }
+        return plano;
+    }
+}
@@ -0,0 +1,19 @@
+package com.function.event;
+
+/**
+ * Evento de dominio publicado en Event Grid. Cada tipo de evento es un record con los
+ * campos de su payload (data); los nombres de campo son el contrato entre productores
+ * y consumidores (ver {@link EventSchema}).
+ */
+public interface EventoDominio {
+
+    /**
+     * @return Tipo de evento en Event Grid (eventType), por ejemplo "user_created"
+     */
+    String tipo();
+
+    /**
+     * @return Subject del evento en Event Grid, por ejemplo "/usuarios/created"
+     */
+    String origen();
+}
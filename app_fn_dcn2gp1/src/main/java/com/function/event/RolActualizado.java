@@ -0,0 +1,20 @@
+package com.function.event;
+
+/**
+ * Evento role_updated: se actualizó un rol (incluye los datos antes y después del cambio).
+ */
+public record RolActualizado(Long idRol, String nombre, String descripcion,
+                             RolDatos datosPrevios, RolDatos datosNuevos) implements EventoDominio {
+    public static final String TIPO = "role_updated";
+    public static final String ORIGEN = "/roles/updated";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
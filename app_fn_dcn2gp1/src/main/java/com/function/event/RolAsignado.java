@@ -0,0 +1,19 @@
+package com.function.event;
+
+/**
+ * Evento role_assigned: se asignó un rol a un usuario desde la API.
+ */
+public record RolAsignado(Long idUsuario, Long idRol, String rolNombre, String username) implements EventoDominio {
+    public static final String TIPO = "role_assigned";
+    public static final String ORIGEN = "/usuarios/roles/assigned";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
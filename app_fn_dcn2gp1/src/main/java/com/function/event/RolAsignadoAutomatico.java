@@ -0,0 +1,20 @@
+package com.function.event;
+
+/**
+ * Evento role_assigned_auto: se asignó el rol por defecto a un usuario nuevo.
+ */
+public record RolAsignadoAutomatico(Long idUsuario, Long idRol, String rolNombre, String username,
+                                    boolean asignacionAutomatica) implements EventoDominio {
+    public static final String TIPO = "role_assigned_auto";
+    public static final String ORIGEN = "/usuarios/roles/asignacion_automatica";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
@@ -0,0 +1,21 @@
+package com.function.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento role_created: se creó un rol.
+ */
+public record RolCreado(Long idRol, String nombre, String descripcion, LocalDateTime fechaCreacion) implements EventoDominio {
+    public static final String TIPO = "role_created";
+    public static final String ORIGEN = "/roles/created";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
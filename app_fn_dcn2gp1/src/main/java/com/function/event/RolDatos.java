@@ -0,0 +1,17 @@
+package com.function.event;
+
+import com.function.model.Rol;
+
+import java.time.LocalDateTime;
+
+/**
+ * Foto de un rol incluida en los eventos.
+ */
+public record RolDatos(Long idRol, String nombre, String descripcion,
+                       LocalDateTime fechaCreacion, LocalDateTime fechaModificacion, boolean activo) {
+
+    public static RolDatos from(Rol rol) {
+        return new RolDatos(rol.getIdRol(), rol.getNombre(), rol.getDescripcion(),
+                rol.getFechaCreacion(), rol.getFechaModificacion(), rol.isActivo());
+    }
+}
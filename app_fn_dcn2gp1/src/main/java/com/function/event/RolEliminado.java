@@ -0,0 +1,19 @@
+package com.function.event;
+
+/**
+ * Evento role_deleted: se dio de baja un rol.
+ */
+public record RolEliminado(Long idRol, String nombre, RolDatos datosPrevios) implements EventoDominio {
+    public static final String TIPO = "role_deleted";
+    public static final String ORIGEN = "/roles/deleted";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
@@ -0,0 +1,19 @@
+package com.function.event;
+
+/**
+ * Evento role_removed: se quitó un rol a un usuario desde la API.
+ */
+public record RolQuitado(Long idUsuario, Long idRol, String rolNombre, String username) implements EventoDominio {
+    public static final String TIPO = "role_removed";
+    public static final String ORIGEN = "/usuarios/roles/removed";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
\ No newline at end of file
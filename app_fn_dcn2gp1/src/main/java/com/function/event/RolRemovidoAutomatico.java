@@ -0,0 +1,19 @@
+package com.function.event;
+
+/**
+ * Evento role_removed_auto: se quitó a un usuario un rol que fue eliminado.
+ */
+public record RolRemovidoAutomatico(Long idUsuario, Long idRol, String rolNombre, boolean eliminacionAutomatica) implements EventoDominio {
+    public static final String TIPO = "role_removed_auto";
+    public static final String ORIGEN = "/usuarios/roles/eliminacion_automatica";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
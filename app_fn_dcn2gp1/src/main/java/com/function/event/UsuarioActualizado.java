@@ -0,0 +1,20 @@
+package com.function.event;
+
+/**
+ * Evento user_updated: se actualizó un usuario (incluye los datos antes y después del cambio).
+ */
+public record UsuarioActualizado(Long idUsuario, String username, String email, String nombre, String apellido,
+                                 UsuarioDatos datosPrevios, UsuarioDatos datosNuevos) implements EventoDominio {
+    public static final String TIPO = "user_updated";
+    public static final String ORIGEN = "/usuarios/updated";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
@@ -0,0 +1,24 @@
+package com.function.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento user_created: se creó un usuario.
+ * rolPorDefectoAsignado es true cuando la creación ya asignó el rol por defecto (importación
+ * masiva), para que la asignación automática no repita el trabajo.
+ */
+public record UsuarioCreado(Long idUsuario, String username, String email, String nombre, String apellido,
+                            LocalDateTime fechaCreacion, boolean rolPorDefectoAsignado) implements EventoDominio {
+    public static final String TIPO = "user_created";
+    public static final String ORIGEN = "/usuarios/created";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
@@ -0,0 +1,19 @@
+package com.function.event;
+
+import com.function.model.Usuario;
+
+import java.time.LocalDateTime;
+
+/**
+ * Foto de un usuario incluida en los eventos (sin el hash de la contraseña).
+ */
+public record UsuarioDatos(Long idUsuario, String username, String email, String nombre, String apellido,
+                           LocalDateTime fechaCreacion, LocalDateTime fechaModificacion,
+                           LocalDateTime ultimoLogin, boolean activo) {
+
+    public static UsuarioDatos from(Usuario usuario) {
+        return new UsuarioDatos(usuario.getIdUsuario(), usuario.getUsername(), usuario.getEmail(),
+                usuario.getNombre(), usuario.getApellido(), usuario.getFechaCreacion(),
+                usuario.getFechaModificacion(), usuario.getUltimoLogin(), usuario.isActivo());
+    }
+}
@@ -0,0 +1,19 @@
+package com.function.event;
+
+/**
+ * Evento user_deleted: se dio de baja un usuario.
+ */
+public record UsuarioEliminado(Long idUsuario, String username, String email, UsuarioDatos datosPrevios) implements EventoDominio {
+    public static final String TIPO = "user_deleted";
+    public static final String ORIGEN = "/usuarios/deleted";
+
+    @Override
+    public String tipo() {
+        return TIPO;
+    }
+
+    @Override
+    public String origen() {
+        return ORIGEN;
+    }
+}
@@ -7,12 +7,25 @@ import com.microsoft.azure.functions.annotation.FunctionName;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.function.event.EventSchema;
+import com.function.event.EventoDominio;
+import com.function.event.RolActualizado;
+import com.function.event.RolAsignado;
+import com.function.event.RolAsignadoAutomatico;
+import com.function.event.RolCreado;
+import com.function.event.RolEliminado;
+import com.function.event.RolQuitado;
+import com.function.event.RolRemovidoAutomatico;
+import com.function.event.UsuarioActualizado;
+import com.function.event.UsuarioCreado;
+import com.function.event.UsuarioEliminado;
 import com.function.util.DBConnectionManager;
+import com.function.util.EventDeduplicator;
+import com.function.util.EventEnvelope;
 import com.function.util.GsonConfig;
 
 /**
@@ -20,8 +33,6 @@ import com.function.util.GsonConfig;
  */
 public class AuditEventFunction {
 
-    private final Gson gson = GsonConfig.getGson();
-
     @FunctionName("auditarEventos")
     public void run(
         @EventGridTrigger(name = "eventGridEvent") String content,
@@ -31,25 +42,36 @@ public class AuditEventFunction {
         logger.info("Función de auditoría de eventos ejecutada.");
 
         try {
-            // Parsear el evento recibido
-            JsonObject eventGridEvent = JsonParser.parseString(content).getAsJsonObject();
+            // Parsear el evento recibido en una sola pasada
+            EventEnvelope evento = EventEnvelope.parse(content);
+            String eventType = evento.getEventType();
+            JsonObject data = evento.getData();
             
             logger.info("============== EVENTO DE AUDITORÍA ==============");
-            logger.info("Evento recibido: " + eventGridEvent.toString());
-            
-            String eventType = eventGridEvent.get("eventType").getAsString();
-            String dataStr = eventGridEvent.get("data").toString();
-            JsonObject data = JsonParser.parseString(dataStr).getAsJsonObject();
-            
-            logger.info("Tipo de evento: " + eventType);
-            logger.info("Datos del evento: " + dataStr);
+            logger.info("Tipo de evento: " + eventType + ", subject: " + evento.getSubject() + ", id: " + evento.getId());
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine("Datos del evento: " + data);
+            }
             
-            // Registrar el evento en la tabla de auditoría
-            registrarEventoAuditoria(eventType, data, logger);
+            // Reentrega de Event Grid ya registrada por esta instancia
+            if (EventDeduplicator.AUDITORIA.esDuplicadoReciente(evento.getId())) {
+                logger.info("Evento " + evento.getId() + " ya registrado en auditoría, se omite");
+                return;
+            }
             
-            logger.info("Evento registrado correctamente en el sistema de auditoría");
+            // Registrar el evento en la tabla de auditoría (data convertida al record de su esquema)
+            if (registrarEventoAuditoria(evento.getId(), eventType, EventSchema.decode(evento), logger)) {
+                logger.info("Evento registrado correctamente en el sistema de auditoría");
+            } else {
+                logger.info("Evento " + evento.getId() + " ya registrado en auditoría por otra entrega, se omite");
+            }
             logger.info("==================================================");
-            
+
+        } catch (SQLException e) {
+            // La fila de auditoría y su registro de deduplicación se deshicieron juntos:
+            // se informa el error para que Event Grid reintente la entrega
+            logger.severe("Error al registrar el evento de auditoría: " + e.getMessage());
+            throw new RuntimeException("Error al auditar el evento", e);
         } catch (Exception e) {
             // Captura y loguea cualquier excepción
             logger.severe("Error al procesar el evento de auditoría: " + e.getMessage());
@@ -59,13 +81,17 @@ public class AuditEventFunction {
     
     /**
      * Registra un evento en la tabla de auditoría SUM_LOG_EVENTOS.
+     * El ID del evento se registra en SUM_EVENTOS_PROCESADOS en la misma transacción, de modo
+     * que cada evento genera una sola fila de auditoría aunque Event Grid lo entregue varias veces.
      * 
+     * @param idEvento ID del evento de Event Grid
      * @param eventType Tipo de evento
-     * @param data Datos del evento en formato JSON
+     * @param evento Evento tipado, o null si el tipo no está registrado en {@link EventSchema}
      * @param logger Logger para registrar información
+     * @return true si se insertó el registro; false si el evento ya estaba registrado
      * @throws SQLException Si ocurre un error en la base de datos
      */
-    private void registrarEventoAuditoria(String eventType, JsonObject data, Logger logger) throws SQLException {
+    private boolean registrarEventoAuditoria(String idEvento, String eventType, EventoDominio evento, Logger logger) throws SQLException {
         // SQL para insertar en la tabla de auditoría
         String sql = "INSERT INTO SUM_LOG_EVENTOS (ID_LOG, ID_USUARIO, USERNAME, TIPO_EVENTO, " +
                      "MODULO, ACCION, ENTIDAD, ID_AFECTADO, DATOS_PREVIOS, DATOS_NUEVOS, IP_ORIGEN, NIVEL) " +
@@ -74,6 +100,13 @@ public class AuditEventFunction {
         try (Connection conn = DBConnectionManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            // Si algo falla antes del commit, el pool deshace la transacción al cerrar la conexión
+            conn.setAutoCommit(false);
+            if (!EventDeduplicator.AUDITORIA.registrar(conn, idEvento)) {
+                conn.rollback();
+                return false;
+            }
+            
             // Valores predeterminados
             Long idUsuario = null;
             String username = "sistema";
@@ -87,127 +120,88 @@ public class AuditEventFunction {
             String nivel = "INFO";
             
             // Extraer información del evento según su tipo
-            switch (eventType) {
-                case "user_created":
-                    modulo = "USUARIOS";
-                    accion = "Creación de usuario";
-                    entidad = "SUM_USUARIOS";
-                    if (data.has("idUsuario")) {
-                        idAfectado = data.get("idUsuario").getAsLong();
-                    }
-                    if (data.has("username")) {
-                        username = data.get("username").getAsString();
-                    }
-                    datosNuevos = data.toString();
-                    break;
-                    
-                case "user_updated":
-                    modulo = "USUARIOS";
-                    accion = "Actualización de usuario";
-                    entidad = "SUM_USUARIOS";
-                    if (data.has("idUsuario")) {
-                        idAfectado = data.get("idUsuario").getAsLong();
-                    }
-                    if (data.has("username")) {
-                        username = data.get("username").getAsString();
-                    }
-                    if (data.has("datosPrevios")) {
-                        datosPrevios = data.get("datosPrevios").toString();
-                    }
-                    if (data.has("datosNuevos")) {
-                        datosNuevos = data.get("datosNuevos").toString();
-                    }
-                    break;
-                    
-                case "user_deleted":
-                    modulo = "USUARIOS";
-                    accion = "Eliminación de usuario";
-                    entidad = "SUM_USUARIOS";
-                    if (data.has("idUsuario")) {
-                        idAfectado = data.get("idUsuario").getAsLong();
-                    }
-                    if (data.has("username")) {
-                        username = data.get("username").getAsString();
-                    }
-                    if (data.has("datosPrevios")) {
-                        datosPrevios = data.get("datosPrevios").toString();
-                    }
-                    break;
-                    
-                case "role_created":
-                    modulo = "ROLES";
-                    accion = "Creación de rol";
-                    entidad = "SUM_ROLES";
-                    if (data.has("idRol")) {
-                        idAfectado = data.get("idRol").getAsLong();
-                    }
-                    if (data.has("idUsuario")) {
-                        idUsuario = data.get("idUsuario").getAsLong();
-                    }
-                    if (data.has("username")) {
-                        username = data.get("username").getAsString();
-                    }
-                    datosNuevos = data.toString();
-                    break;
-                    
-                case "role_updated":
-                    modulo = "ROLES";
-                    accion = "Actualización de rol";
-                    entidad = "SUM_ROLES";
-                    if (data.has("idRol")) {
-                        idAfectado = data.get("idRol").getAsLong();
-                    }
-                    if (data.has("idUsuario")) {
-                        idUsuario = data.get("idUsuario").getAsLong();
-                    }
-                    if (data.has("username")) {
-                        username = data.get("username").getAsString();
-                    }
-                    if (data.has("datosPrevios")) {
-                        datosPrevios = data.get("datosPrevios").toString();
-                    }
-                    if (data.has("datosNuevos")) {
-                        datosNuevos = data.get("datosNuevos").toString();
-                    }
-                    break;
-                    
-                case "role_deleted":
-                    modulo = "ROLES";
-                    accion = "Eliminación de rol";
-                    entidad = "SUM_ROLES";
-                    if (data.has("idRol")) {
-                        idAfectado = data.get("idRol").getAsLong();
-                    }
-                    if (data.has("idUsuario")) {
-                        idUsuario = data.get("idUsuario").getAsLong();
-                    }
-                    if (data.has("username")) {
-                        username = data.get("username").getAsString();
-                    }
-                    if (data.has("datosPrevios")) {
-                        datosPrevios = data.get("datosPrevios").toString();
-                    }
-                    break;
-                    
-                case "role_assigned":
-                    modulo = "ROLES";
-                    accion = "Asignación de rol a usuario";
-                    entidad = "SUM_USUARIO_ROL";
-                    if (data.has("idUsuario")) {
-                        idAfectado = data.get("idUsuario").getAsLong();
-                        idUsuario = data.get("idUsuario").getAsLong();
-                    }
-                    if (data.has("username")) {
-                        username = data.get("username").getAsString();
-                    }
-                    if (data.has("idRol")) {
-                        datosNuevos = "{\"idRol\": " + data.get("idRol").getAsString() + "}";
-                    }
-                    break;
-                    
-                default:
-                    logger.warning("Tipo de evento no reconocido: " + eventType);
-                    break;
+            if (evento instanceof UsuarioCreado e) {
+                modulo = "USUARIOS";
+                accion = "Creación de usuario";
+                entidad = "SUM_USUARIOS";
+                idAfectado = e.idUsuario();
+                username = valorODefecto(e.username(), username);
+                datosNuevos = EventSchema.toJson(e);
+            } else if (evento instanceof UsuarioActualizado e) {
+                modulo = "USUARIOS";
+                accion = "Actualización de usuario";
+                entidad = "SUM_USUARIOS";
+                idAfectado = e.idUsuario();
+                username = valorODefecto(e.username(), username);
+                datosPrevios = toJson(e.datosPrevios());
+                datosNuevos = toJson(e.datosNuevos());
+            } else if (evento instanceof UsuarioEliminado e) {
+                modulo = "USUARIOS";
+                accion = "Eliminación de usuario";
+                entidad = "SUM_USUARIOS";
+                idAfectado = e.idUsuario();
+                username = valorODefecto(e.username(), username);
+                datosPrevios = toJson(e.datosPrevios());
+            } else if (evento instanceof RolCreado e) {
+                modulo = "ROLES";
+                accion = "Creación de rol";
+                entidad = "SUM_ROLES";
+                idAfectado = e.idRol();
+                datosNuevos = EventSchema.toJson(e);
+            } else if (evento instanceof RolActualizado e) {
+                modulo = "ROLES";
+                accion = "Actualización de rol";
+                entidad = "SUM_ROLES";
+                idAfectado = e.idRol();
+                datosPrevios = toJson(e.datosPrevios());
+                datosNuevos = toJson(e.datosNuevos());
+            } else if (evento instanceof RolEliminado e) {
+                modulo = "ROLES";
+                accion = "Eliminación de rol";
+                entidad = "SUM_ROLES";
+                idAfectado = e.idRol();
+                datosPrevios = toJson(e.datosPrevios());
+            } else if (evento instanceof RolAsignado e) {
+                modulo = "ROLES";
+                accion = "Asignación de rol a usuario";
+                entidad = "SUM_USUARIO_ROL";
+                idAfectado = e.idUsuario();
+                idUsuario = e.idUsuario();
+                username = valorODefecto(e.username(), username);
+                if (e.idRol() != null) {
+                    datosNuevos = "{\"idRol\": " + e.idRol() + "}";
+                }
+            } else if (evento instanceof RolQuitado e) {
+                modulo = "ROLES";
+                accion = "Retiro de rol a usuario";
+                entidad = "SUM_USUARIO_ROL";
+                idAfectado = e.idUsuario();
+                idUsuario = e.idUsuario();
+                username = valorODefecto(e.username(), username);
+                if (e.idRol() != null) {
+                    datosPrevios = "{\"idRol\": " + e.idRol() + "}";
+                }
+            } else if (evento instanceof RolAsignadoAutomatico e) {
+                modulo = "ROLES";
+                accion = "Asignación automática de rol a usuario";
+                entidad = "SUM_USUARIO_ROL";
+                idAfectado = e.idUsuario();
+                idUsuario = e.idUsuario();
+                username = valorODefecto(e.username(), username);
+                if (e.idRol() != null) {
+                    datosNuevos = "{\"idRol\": " + e.idRol() + "}";
+                }
+            } else if (evento instanceof RolRemovidoAutomatico e) {
+                modulo = "ROLES";
+                accion = "Retiro automático de rol eliminado";
+                entidad = "SUM_USUARIO_ROL";
+                idAfectado = e.idUsuario();
+                idUsuario = e.idUsuario();
+                if (e.idRol() != null) {
+                    datosPrevios = "{\"idRol\": " + e.idRol() + "}";
+                }
+            } else {
+                logger.warning("Tipo de evento no reconocido: " + eventType);
             }
             
             // Preparar los parámetros de la consulta
@@ -225,11 +219,22 @@ public class AuditEventFunction {
             
             // Ejecutar la inserción
             int filasAfectadas = stmt.executeUpdate();
+            conn.commit();
             logger.info("Registro de auditoría insertado. Filas afectadas: " + filasAfectadas);
             
         } catch (SQLException e) {
             logger.severe("Error al insertar en la tabla de auditoría: " + e.getMessage());
             throw e;
         }
+        EventDeduplicator.AUDITORIA.recordar(idEvento);
+        return true;
+    }
+
+    private static String valorODefecto(String valor, String porDefecto) {
+        return valor != null ? valor : porDefecto;
+    }
+
+    private static String toJson(Object datos) {
+        return datos != null ? GsonConfig.getGson().toJson(datos) : null;
     }
 }
\ No newline at end of file
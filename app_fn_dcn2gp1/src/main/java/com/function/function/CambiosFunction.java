@@ -0,0 +1,210 @@
+package com.function.function;
+
+import com.function.dao.CambiosDAO;
+import com.function.dao.RolDAO;
+import com.function.dao.UsuarioDAO;
+import com.function.model.Cambio;
+import com.function.model.Response;
+import com.function.model.Rol;
+import com.function.model.Usuario;
+import com.function.util.GsonConfig;
+import com.function.util.HttpCompression;
+import com.microsoft.azure.functions.*;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Funcion de Azure con el feed de cambios de usuarios y roles (GET /api/cambios?since=cursor).
+ * Devuelve en orden los usuarios y roles creados, actualizados o eliminados y las asignaciones
+ * de roles (entidad usuario_rol) después del cursor, con el estado actual de cada uno, y el cursor
+ * para pedir la página siguiente. Así los sistemas que replican usuarios y roles sincronizan solo
+ * lo que cambió en lugar de releer los listados.
+ *
+ * Parámetros:
+ * - since: cursor devuelto por la página anterior; sin valor se lee desde el inicio y con "now"
+ *   se obtiene solo el cursor actual, para empezar a sincronizar desde ahora
+ * - limit: cambios por página (por defecto 500, máximo 1000)
+ */
+public class CambiosFunction {
+    private static final Logger logger = LoggerFactory.getLogger(CambiosFunction.class);
+    private final CambiosDAO cambiosDAO = new CambiosDAO();
+    private final UsuarioDAO usuarioDAO = new UsuarioDAO();
+    private final RolDAO rolDAO = new RolDAO();
+
+    private static final int LIMITE_DEFECTO = 500;
+    private static final int LIMITE_MAXIMO = 1000;
+
+    // Antigüedad mínima de los eventos entregados (ver CambiosDAO)
+    private static final int RETRASO_SEGUNDOS = Math.max(0, getIntSetting("CAMBIOS_RETRASO_SEGUNDOS", 5));
+
+    @FunctionName("cambios")
+    public HttpResponseMessage run(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.GET},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "cambios")
+                    HttpRequestMessage<Optional<String>> request,
+            final ExecutionContext context) {
+
+        logger.info("Solicitud HTTP recibida en la funcion de Cambios");
+
+        try {
+            Map<String, String> parametros = request.getQueryParameters() != null
+                    ? request.getQueryParameters() : Collections.emptyMap();
+            String since = parametros.get("since");
+            int limite = leerLimite(parametros.get("limit"));
+
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            if ("now".equalsIgnoreCase(StringUtils.trimToEmpty(since))) {
+                resultado.put("cambios", Collections.emptyList());
+                resultado.put("cursor", String.valueOf(cambiosDAO.findUltimoCursor(RETRASO_SEGUNDOS)));
+                resultado.put("hayMas", false);
+            } else {
+                long cursor = leerCursor(since);
+
+                // Se pide uno más para saber si quedan cambios después de esta página
+                List<Cambio> cambios = cambiosDAO.findDesde(cursor, limite + 1, RETRASO_SEGUNDOS);
+                boolean hayMas = cambios.size() > limite;
+                if (hayMas) {
+                    cambios = cambios.subList(0, limite);
+                }
+                agregarDatos(cambios);
+
+                resultado.put("cambios", cambios);
+                resultado.put("cursor", cambios.isEmpty() ? String.valueOf(cursor) : cambios.get(cambios.size() - 1).getCursor());
+                resultado.put("hayMas", hayMas);
+            }
+
+            return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                            GsonConfig.toJson(request, Response.success("Cambios encontrados", resultado)))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Parametros invalidos", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (Exception e) {
+            logger.error("Error en la funcion de Cambios", e);
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(GsonConfig.toJson(request, Response.error("Error interno del servidor", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+    }
+
+    /**
+     * Agrega a cada cambio el estado actual del usuario o rol, leído con una consulta por entidad.
+     * Los eliminados (y los que se eliminaron después del cambio) quedan sin datos.
+     * Los usuarios creados y las asignaciones llevan además los roles actuales del usuario: la
+     * importación masiva asigna el rol por defecto sin evento de asignación, y las asignaciones
+     * antiguas pueden no tener el idRol.
+     */
+    private void agregarDatos(List<Cambio> cambios) {
+        Set<Long> idsUsuarios = new LinkedHashSet<>();
+        Set<Long> idsRoles = new LinkedHashSet<>();
+        Set<Long> idsConRoles = new LinkedHashSet<>();
+        for (Cambio cambio : cambios) {
+            if (cambio.getId() == null) {
+                continue;
+            }
+            if (conRoles(cambio)) {
+                idsConRoles.add(cambio.getId());
+            }
+            if ("usuario_rol".equals(cambio.getEntidad()) || "eliminado".equals(cambio.getOperacion())) {
+                continue;
+            }
+            if ("usuario".equals(cambio.getEntidad())) {
+                idsUsuarios.add(cambio.getId());
+            } else {
+                idsRoles.add(cambio.getId());
+            }
+        }
+
+        Map<Long, Usuario> usuarios = new HashMap<>();
+        if (!idsUsuarios.isEmpty()) {
+            for (Usuario usuario : usuarioDAO.findByIds(idsUsuarios)) {
+                // No devolver el hash de contraseña en la respuesta
+                usuario.setPasswordHash(null);
+                usuarios.put(usuario.getIdUsuario(), usuario);
+            }
+        }
+        Map<Long, Rol> roles = new HashMap<>();
+        if (!idsRoles.isEmpty()) {
+            for (Rol rol : rolDAO.findByIds(idsRoles)) {
+                roles.put(rol.getIdRol(), rol);
+            }
+        }
+
+        Map<Long, List<Long>> rolesPorUsuario = idsConRoles.isEmpty()
+                ? Collections.emptyMap() : usuarioDAO.getRolesPorUsuario(idsConRoles);
+
+        for (Cambio cambio : cambios) {
+            if (cambio.getId() == null) {
+                continue;
+            }
+            if (conRoles(cambio)) {
+                cambio.setRoles(rolesPorUsuario.getOrDefault(cambio.getId(), Collections.emptyList()));
+            }
+            if (!"usuario_rol".equals(cambio.getEntidad()) && !"eliminado".equals(cambio.getOperacion())) {
+                cambio.setDatos("usuario".equals(cambio.getEntidad())
+                        ? usuarios.get(cambio.getId()) : roles.get(cambio.getId()));
+            }
+        }
+    }
+
+    private static boolean conRoles(Cambio cambio) {
+        return "usuario_rol".equals(cambio.getEntidad())
+                || ("usuario".equals(cambio.getEntidad()) && "creado".equals(cambio.getOperacion()));
+    }
+
+    private static long leerCursor(String valor) {
+        if (StringUtils.isBlank(valor)) {
+            return 0L;
+        }
+        try {
+            long cursor = Long.parseLong(valor.trim());
+            if (cursor < 0) {
+                throw new IllegalArgumentException("Cursor invalido en since: " + valor.trim());
+            }
+            return cursor;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor invalido en since: " + valor.trim());
+        }
+    }
+
+    private static int leerLimite(String valor) {
+        if (StringUtils.isBlank(valor)) {
+            return LIMITE_DEFECTO;
+        }
+        try {
+            int limite = Integer.parseInt(valor.trim());
+            if (limite < 1 || limite > LIMITE_MAXIMO) {
+                throw new IllegalArgumentException("limit debe estar entre 1 y " + LIMITE_MAXIMO);
+            }
+            return limite;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit debe ser un numero entero");
+        }
+    }
+
+    private static int getIntSetting(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valor invalido para " + name + ": " + value + ", se usa " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
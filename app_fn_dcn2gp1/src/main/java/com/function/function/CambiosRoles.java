@@ -0,0 +1,108 @@
+package com.function.function;
+
+import com.function.dao.UsuarioDAO;
+import com.function.event.EventoDominio;
+import com.function.event.RolAsignado;
+import com.function.event.RolQuitado;
+import com.function.model.AsignacionRol;
+import com.function.util.EventGridPublisher;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Asignación y retiro de roles por lotes, compartido por los endpoints
+ * usuarios/{id}/roles/batch y roles/{id}/usuarios/batch.
+ * El cuerpo es {"asignar": [ids], "quitar": [ids]} con los IDs del otro extremo de la relación.
+ */
+final class CambiosRoles {
+
+    // Límite de IDs por solicitud (las consultas usan una sola lista IN de Oracle)
+    static final int MAX_IDS = 1000;
+
+    private CambiosRoles() {
+    }
+
+    /**
+     * Lee los cambios del cuerpo de la solicitud.
+     * @param body Cuerpo JSON
+     * @param crearPar Crea el par (usuario, rol) a partir del ID leído y de si se asigna
+     * @return Pares a asignar y a quitar, sin repetidos
+     * @throws IllegalArgumentException Si el cuerpo no tiene el formato esperado
+     */
+    static List<AsignacionRol> leer(String body, BiFunction<Long, Boolean, AsignacionRol> crearPar) {
+        JsonElement elemento = JsonParser.parseString(body);
+        if (!elemento.isJsonObject()) {
+            throw new IllegalArgumentException("El cuerpo debe ser un objeto con las listas asignar y quitar");
+        }
+        JsonObject json = elemento.getAsJsonObject();
+        Set<Long> asignar = leerIds(json, "asignar");
+        Set<Long> quitar = leerIds(json, "quitar");
+        if (asignar.isEmpty() && quitar.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un ID en asignar o quitar");
+        }
+        if (asignar.size() + quitar.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Se permiten como maximo " + MAX_IDS + " IDs por solicitud");
+        }
+        for (Long id : asignar) {
+            if (quitar.contains(id)) {
+                throw new IllegalArgumentException("El ID " + id + " esta en asignar y en quitar");
+            }
+        }
+
+        List<AsignacionRol> cambios = new ArrayList<>(asignar.size() + quitar.size());
+        asignar.forEach(id -> cambios.add(crearPar.apply(id, true)));
+        quitar.forEach(id -> cambios.add(crearPar.apply(id, false)));
+        return cambios;
+    }
+
+    /**
+     * Aplica los cambios en una transacción y publica sus eventos en una sola solicitud a Event Grid.
+     * @return Pares que cambiaron
+     */
+    static List<AsignacionRol> aplicar(UsuarioDAO usuarioDAO, List<AsignacionRol> cambios) {
+        List<AsignacionRol> realizados = usuarioDAO.actualizarAsignaciones(cambios);
+
+        List<EventoDominio> eventos = new ArrayList<>(realizados.size());
+        for (AsignacionRol par : realizados) {
+            eventos.add(par.isAsignar()
+                    ? new RolAsignado(par.getIdUsuario(), par.getIdRol(), par.getRolNombre(), par.getUsername())
+                    : new RolQuitado(par.getIdUsuario(), par.getIdRol(), par.getRolNombre(), par.getUsername()));
+        }
+        EventGridPublisher.publishEvents(eventos);
+        return realizados;
+    }
+
+    /**
+     * Cantidad de pares asignados (o quitados) entre los realizados.
+     */
+    static long contar(List<AsignacionRol> realizados, boolean asignar) {
+        return realizados.stream().filter(par -> par.isAsignar() == asignar).count();
+    }
+
+    private static Set<Long> leerIds(JsonObject json, String campo) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (!json.has(campo) || json.get(campo).isJsonNull()) {
+            return ids;
+        }
+        if (!json.get(campo).isJsonArray()) {
+            throw new IllegalArgumentException("El campo " + campo + " debe ser una lista de IDs");
+        }
+        JsonArray lista = json.getAsJsonArray(campo);
+        for (JsonElement id : lista) {
+            try {
+                ids.add(id.getAsLong());
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("El campo " + campo + " contiene un ID invalido: " + id);
+            }
+        }
+        return ids;
+    }
+}
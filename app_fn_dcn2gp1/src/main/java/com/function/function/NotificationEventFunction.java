@@ -4,19 +4,27 @@ import com.microsoft.azure.functions.ExecutionContext;
 import com.microsoft.azure.functions.annotation.EventGridTrigger;
 import com.microsoft.azure.functions.annotation.FunctionName;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.function.util.GsonConfig;
+import com.function.event.EventSchema;
+import com.function.event.EventoDominio;
+import com.function.event.RolActualizado;
+import com.function.event.RolAsignado;
+import com.function.event.RolCreado;
+import com.function.event.RolEliminado;
+import com.function.event.RolQuitado;
+import com.function.event.UsuarioActualizado;
+import com.function.event.UsuarioCreado;
+import com.function.event.UsuarioEliminado;
+import com.function.util.EventDeduplicator;
+import com.function.util.EventEnvelope;
 
 /**
  * Función que recibe eventos de Event Grid y envía notificaciones.
  */
 public class NotificationEventFunction {
 
-    private final Gson gson = GsonConfig.getGson();
-
     @FunctionName("notificarEventos")
     public void run(
         @EventGridTrigger(name = "eventGridEvent") String content,
@@ -25,46 +33,50 @@ public class NotificationEventFunction {
         Logger logger = context.getLogger();
         logger.info("Función de notificación de eventos ejecutada.");
 
+        // ID del evento reclamado en EventDeduplicator; se libera si el trabajo falla
+        String reclamado = null;
         try {
-            // Parsear el evento recibido
-            JsonObject eventGridEvent = JsonParser.parseString(content).getAsJsonObject();
+            // Parsear el evento recibido en una sola pasada
+            EventEnvelope evento = EventEnvelope.parse(content);
+            String eventType = evento.getEventType();
+            JsonObject data = evento.getData();
             
             logger.info("============== NOTIFICACIÓN DE EVENTO ==============");
-            logger.info("Evento recibido: " + eventGridEvent.toString());
+            logger.info("Tipo de evento: " + eventType + ", subject: " + evento.getSubject() + ", id: " + evento.getId());
+            if (logger.isLoggable(Level.FINE)) {
+                logger.fine("Datos del evento: " + data);
+            }
             
-            String eventType = eventGridEvent.get("eventType").getAsString();
-            String dataStr = eventGridEvent.get("data").toString();
-            JsonObject data = JsonParser.parseString(dataStr).getAsJsonObject();
+            // Procesar el evento según su tipo (data convertida al record de su esquema)
+            EventoDominio eventoDominio = EventSchema.decode(evento);
             
-            logger.info("Tipo de evento: " + eventType);
-            logger.info("Datos del evento: " + dataStr);
+            // Una reentrega de Event Grid no debe enviar la misma notificación dos veces
+            if (eventoDominio != null && !EventDeduplicator.NOTIFICACIONES.reclamar(evento.getId())) {
+                logger.info("Evento " + evento.getId() + " ya notificado, se omite");
+                return;
+            }
+            if (eventoDominio != null) {
+                reclamado = evento.getId();
+            }
             
-            // Procesar el evento según su tipo
-            switch (eventType) {
-                case "user_created":
-                    notificarUsuarioCreado(data, logger);
-                    break;
-                case "user_updated":
-                    notificarUsuarioActualizado(data, logger);
-                    break;
-                case "user_deleted":
-                    notificarUsuarioEliminado(data, logger);
-                    break;
-                case "role_created":
-                    notificarRolCreado(data, logger);
-                    break;
-                case "role_updated":
-                    notificarRolActualizado(data, logger);
-                    break;
-                case "role_deleted":
-                    notificarRolEliminado(data, logger);
-                    break;
-                case "role_assigned":
-                    notificarRolAsignado(data, logger);
-                    break;
-                default:
-                    logger.warning("Tipo de evento no reconocido: " + eventType);
-                    break;
+            if (eventoDominio instanceof UsuarioCreado e) {
+                notificarUsuarioCreado(e, logger);
+            } else if (eventoDominio instanceof UsuarioActualizado e) {
+                notificarUsuarioActualizado(e, logger);
+            } else if (eventoDominio instanceof UsuarioEliminado e) {
+                notificarUsuarioEliminado(e, logger);
+            } else if (eventoDominio instanceof RolCreado e) {
+                notificarRolCreado(e, logger);
+            } else if (eventoDominio instanceof RolActualizado e) {
+                notificarRolActualizado(e, logger);
+            } else if (eventoDominio instanceof RolEliminado e) {
+                notificarRolEliminado(e, logger);
+            } else if (eventoDominio instanceof RolAsignado e) {
+                notificarRolAsignado(e, logger);
+            } else if (eventoDominio instanceof RolQuitado e) {
+                notificarRolQuitado(e, logger);
+            } else {
+                logger.warning("Tipo de evento no reconocido: " + eventType);
             }
             
             logger.info("Notificación enviada correctamente");
@@ -73,6 +85,11 @@ public class NotificationEventFunction {
         } catch (Exception e) {
             // Captura y loguea cualquier excepción
             logger.severe("Error al procesar la notificación: " + e.getMessage());
+            if (reclamado != null) {
+                // Se libera el evento y se informa el error para que Event Grid lo reintente
+                EventDeduplicator.NOTIFICACIONES.liberar(reclamado);
+                throw new RuntimeException("Error al notificar el evento " + reclamado, e);
+            }
             e.printStackTrace();
         }
     }
@@ -80,10 +97,10 @@ public class NotificationEventFunction {
     /**
      * Envía una notificación cuando se crea un usuario.
      */
-    private void notificarUsuarioCreado(JsonObject data, Logger logger) {
+    private void notificarUsuarioCreado(UsuarioCreado evento, Logger logger) {
         // Extraer información relevante
-        String username = data.has("username") ? data.get("username").getAsString() : "desconocido";
-        String email = data.has("email") ? data.get("email").getAsString() : "desconocido";
+        String username = valorODefecto(evento.username());
+        String email = valorODefecto(evento.email());
         
         // En un sistema real, aquí enviaríamos un correo o notificación
         // Por ahora, solo registramos en el log
@@ -98,8 +115,8 @@ public class NotificationEventFunction {
     /**
      * Envía una notificación cuando se actualiza un usuario.
      */
-    private void notificarUsuarioActualizado(JsonObject data, Logger logger) {
-        String username = data.has("username") ? data.get("username").getAsString() : "desconocido";
+    private void notificarUsuarioActualizado(UsuarioActualizado evento, Logger logger) {
+        String username = valorODefecto(evento.username());
         logger.info("NOTIFICACIÓN: Usuario actualizado - " + username);
         logger.info("Se enviaría un correo notificando los cambios en la cuenta");
     }
@@ -107,8 +124,8 @@ public class NotificationEventFunction {
     /**
      * Envía una notificación cuando se elimina un usuario.
      */
-    private void notificarUsuarioEliminado(JsonObject data, Logger logger) {
-        String username = data.has("username") ? data.get("username").getAsString() : "desconocido";
+    private void notificarUsuarioEliminado(UsuarioEliminado evento, Logger logger) {
+        String username = valorODefecto(evento.username());
         logger.info("NOTIFICACIÓN: Usuario eliminado - " + username);
         logger.info("Se enviaría un correo notificando la desactivación de la cuenta");
     }
@@ -116,8 +133,8 @@ public class NotificationEventFunction {
     /**
      * Envía una notificación cuando se crea un rol.
      */
-    private void notificarRolCreado(JsonObject data, Logger logger) {
-        String nombre = data.has("nombre") ? data.get("nombre").getAsString() : "desconocido";
+    private void notificarRolCreado(RolCreado evento, Logger logger) {
+        String nombre = valorODefecto(evento.nombre());
         logger.info("NOTIFICACIÓN: Nuevo rol creado - " + nombre);
         logger.info("Se notificaría a los administradores sobre el nuevo rol");
     }
@@ -125,8 +142,8 @@ public class NotificationEventFunction {
     /**
      * Envía una notificación cuando se actualiza un rol.
      */
-    private void notificarRolActualizado(JsonObject data, Logger logger) {
-        String nombre = data.has("nombre") ? data.get("nombre").getAsString() : "desconocido";
+    private void notificarRolActualizado(RolActualizado evento, Logger logger) {
+        String nombre = valorODefecto(evento.nombre());
         logger.info("NOTIFICACIÓN: Rol actualizado - " + nombre);
         logger.info("Se notificaría a los usuarios afectados por el cambio de rol");
     }
@@ -134,8 +151,8 @@ public class NotificationEventFunction {
     /**
      * Envía una notificación cuando se elimina un rol.
      */
-    private void notificarRolEliminado(JsonObject data, Logger logger) {
-        String nombre = data.has("nombre") ? data.get("nombre").getAsString() : "desconocido";
+    private void notificarRolEliminado(RolEliminado evento, Logger logger) {
+        String nombre = valorODefecto(evento.nombre());
         logger.info("NOTIFICACIÓN: Rol eliminado - " + nombre);
         logger.info("Se notificaría a los usuarios afectados por la eliminación del rol");
     }
@@ -143,11 +160,26 @@ public class NotificationEventFunction {
     /**
      * Envía una notificación cuando se asigna un rol a un usuario.
      */
-    private void notificarRolAsignado(JsonObject data, Logger logger) {
-        String username = data.has("username") ? data.get("username").getAsString() : "desconocido";
-        String rolNombre = data.has("rolNombre") ? data.get("rolNombre").getAsString() : "desconocido";
+    private void notificarRolAsignado(RolAsignado evento, Logger logger) {
+        String username = valorODefecto(evento.username());
+        String rolNombre = valorODefecto(evento.rolNombre());
         
         logger.info("NOTIFICACIÓN: Rol asignado - Usuario: " + username + ", Rol: " + rolNombre);
         logger.info("Se notificaría al usuario sobre sus nuevos permisos");
     }
+    
+    /**
+     * Envía una notificación cuando se quita un rol a un usuario.
+     */
+    private void notificarRolQuitado(RolQuitado evento, Logger logger) {
+        String username = valorODefecto(evento.username());
+        String rolNombre = valorODefecto(evento.rolNombre());
+        
+        logger.info("NOTIFICACIÓN: Rol quitado - Usuario: " + username + ", Rol: " + rolNombre);
+        logger.info("Se notificaría al usuario sobre el cambio en sus permisos");
+    }
+
+    private static String valorODefecto(String valor) {
+        return valor != null ? valor : "desconocido";
+    }
 }
\ No newline at end of file
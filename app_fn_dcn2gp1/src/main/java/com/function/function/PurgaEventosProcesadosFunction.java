@@ -0,0 +1,43 @@
+package com.function.function;
+
+import com.function.util.EventDeduplicator;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Funcion de Azure que borra cada día los eventos de Event Grid ya procesados más antiguos que
+ * EVENT_DEDUP_RETENCION_DIAS (por defecto 7). Event Grid reintenta como máximo 24 horas, así que
+ * esas filas ya no descartan reentregas y solo hacen crecer SUM_EVENTOS_PROCESADOS.
+ * Se ejecuta a las 03:00 UTC; el borrado usa el índice por FECHA_PROCESO.
+ */
+public class PurgaEventosProcesadosFunction {
+    private static final Logger logger = LoggerFactory.getLogger(PurgaEventosProcesadosFunction.class);
+
+    // Nunca menos de un día, para no borrar registros que aún reciben reintentos
+    private static final int RETENCION_DIAS = Math.max(1, getIntSetting("EVENT_DEDUP_RETENCION_DIAS", 7));
+
+    @FunctionName("purgarEventosProcesados")
+    public void run(
+            @TimerTrigger(name = "timer", schedule = "0 0 3 * * *") String timerInfo,
+            final ExecutionContext context) throws Exception {
+
+        int filas = EventDeduplicator.purgar(RETENCION_DIAS);
+        logger.info("Purga de eventos procesados: {} filas con mas de {} dias", filas, RETENCION_DIAS);
+    }
+
+    private static int getIntSetting(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valor invalido para " + name + ": " + value + ", se usa " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package com.function.function;
 
+import com.function.dao.ConsultaListado;
+import com.function.dao.RecursoNoEncontradoException;
 import com.function.dao.RolDAO;
+import com.function.dao.UsuarioDAO;
+import com.function.event.RolActualizado;
+import com.function.event.RolCreado;
+import com.function.event.RolDatos;
+import com.function.event.RolEliminado;
+import com.function.model.AsignacionRol;
 import com.function.model.Response;
 import com.function.model.Rol;
+import com.function.util.ConditionalRequests;
 import com.function.util.GsonConfig;
+import com.function.util.HttpCompression;
+import com.function.util.WarmUp;
 import com.function.util.EventGridPublisher;
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.microsoft.azure.functions.*;
 import com.microsoft.azure.functions.annotation.AuthorizationLevel;
@@ -17,8 +28,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Funcion de Azure para la gestion de roles.
@@ -26,7 +42,12 @@ import java.util.Optional;
 public class RolFunction {
     private static final Logger logger = LoggerFactory.getLogger(RolFunction.class);
     private final RolDAO rolDAO = new RolDAO();
-    private final Gson gson = GsonConfig.getGson();
+    private final UsuarioDAO usuarioDAO = new UsuarioDAO();
+    
+    // Calentamiento en segundo plano al cargar la primera Funcion HTTP de la instancia
+    static {
+        WarmUp.startInBackground();
+    }
 
     /**
      * Este Metodo se ejecuta cuando se recibe una solicitud HTTP en el endpoint /api/roles.
@@ -62,14 +83,14 @@ public class RolFunction {
                     return handleDeleteRequest(request, id);
                 default:
                     return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                            .body(gson.toJson(Response.error("Metodo no soportado", "Este Metodo HTTP no esta soportado")))
+                            .body(GsonConfig.toJson(request, Response.error("Metodo no soportado", "Este Metodo HTTP no esta soportado")))
                             .header("Content-Type", "application/json")
                             .build();
             }
         } catch (Exception e) {
             logger.error("Error en la Funcion de Roles", e);
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(gson.toJson(Response.error("Error interno del servidor", e.getMessage())))
+                    .body(GsonConfig.toJson(request, Response.error("Error interno del servidor", e.getMessage())))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -86,34 +107,61 @@ public class RolFunction {
         if (id != null && !id.equals("none")) {
             try {
                 Long rolId = Long.parseLong(id);
+                
+                // Solicitud condicional: solo se lee la versión y, si el cliente la tiene, se responde 304
+                if (ConditionalRequests.esCondicional(request)) {
+                    Optional<LocalDateTime> version = rolDAO.findVersion(rolId);
+                    if (version.isPresent() && ConditionalRequests.noModificado(request, rolId, version.get())) {
+                        return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.NOT_MODIFIED), rolId, version.get())
+                                .build();
+                    }
+                }
+                
                 Optional<Rol> rol = rolDAO.findById(rolId);
                 
                 if (rol.isPresent()) {
-                    return request.createResponseBuilder(HttpStatus.OK)
-                            .body(gson.toJson(Response.success("Rol encontrado", rol.get())))
+                    LocalDateTime version = ConditionalRequests.version(rol.get().getFechaModificacion(), rol.get().getFechaCreacion());
+                    return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.OK), rolId, version)
+                            .body(GsonConfig.toJson(request, Response.success("Rol encontrado", rol.get())))
                             .header("Content-Type", "application/json")
                             .build();
                 } else {
                     return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                            .body(gson.toJson(Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
+                            .body(GsonConfig.toJson(request, Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
                             .header("Content-Type", "application/json")
                             .build();
                 }
             } catch (NumberFormatException e) {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                        .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
                         .header("Content-Type", "application/json")
                         .build();
             }
         } 
-        // Si no se proporciona un ID, devuelve todos los roles
+        // Si no se proporciona un ID, devuelve los roles (filtrados, proyectados y ordenados en la base de datos)
         else {
-            List<Rol> roles = rolDAO.findAll();
-            
-            return request.createResponseBuilder(HttpStatus.OK)
-                    .body(gson.toJson(Response.success("Roles encontrados", roles)))
-                    .header("Content-Type", "application/json")
-                    .build();
+            try {
+                ConsultaListado consulta = ConsultaListado.desdeParametros(request.getQueryParameters());
+                if (consulta.tieneProyeccion()) {
+                    List<Map<String, Object>> roles = rolDAO.findCampos(consulta);
+                    return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                                    GsonConfig.toJson(request, Response.success("Roles encontrados", roles)))
+                            .header("Content-Type", "application/json")
+                            .build();
+                }
+                
+                List<Rol> roles = rolDAO.findAll(consulta);
+                
+                return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                                GsonConfig.toJson(request, Response.success("Roles encontrados", roles)))
+                        .header("Content-Type", "application/json")
+                        .build();
+            } catch (IllegalArgumentException e) {
+                return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                        .body(GsonConfig.toJson(request, Response.error("Parametros invalidos", e.getMessage())))
+                        .header("Content-Type", "application/json")
+                        .build();
+            }
         }
     }
 
@@ -127,7 +175,7 @@ public class RolFunction {
         // Verificar si el cuerpo de la solicitud esta presente
         if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -139,7 +187,7 @@ public class RolFunction {
             // Validar campos obligatorios
             if (!jsonRol.has("nombre")) {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("Datos invalidos", "El campo nombre es obligatorio")))
+                        .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El campo nombre es obligatorio")))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -156,34 +204,28 @@ public class RolFunction {
             Rol rolCreado = rolDAO.create(rol);
             
             // Publicar evento de creación de rol
-            Rol rolParaEvento = new Rol();
-            rolParaEvento.setIdRol(rolCreado.getIdRol());
-            rolParaEvento.setNombre(rolCreado.getNombre());
-            rolParaEvento.setDescripcion(rolCreado.getDescripcion());
-            rolParaEvento.setFechaCreacion(rolCreado.getFechaCreacion());
-
             // En un entorno real, aquí obtendríamos la información del usuario que está realizando la acción
-            // Por ahora, enviamos un evento simplificado
-            EventGridPublisher.publishEvent(
-                "/roles/created",
-                "role_created",
-                rolParaEvento
-            );
+            EventGridPublisher.publishEvent(new RolCreado(
+                rolCreado.getIdRol(),
+                rolCreado.getNombre(),
+                rolCreado.getDescripcion(),
+                rolCreado.getFechaCreacion()
+            ));
             
             return request.createResponseBuilder(HttpStatus.CREATED)
-                    .body(gson.toJson(Response.success("Rol creado correctamente", rolCreado)))
+                    .body(GsonConfig.toJson(request, Response.success("Rol creado correctamente", rolCreado)))
                     .header("Content-Type", "application/json")
                     .build();
             
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Ya existe")) {
                 return request.createResponseBuilder(HttpStatus.CONFLICT)
-                        .body(gson.toJson(Response.error("Conflicto", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Conflicto", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("Error", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Error", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -201,7 +243,7 @@ public class RolFunction {
         // Verificar si se proporciona un ID
         if (id == null || id.equals("none")) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID no proporcionado", "Debe proporcionar un ID de rol para actualizar")))
+                    .body(GsonConfig.toJson(request, Response.error("ID no proporcionado", "Debe proporcionar un ID de rol para actualizar")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -209,7 +251,7 @@ public class RolFunction {
         // Verificar si el cuerpo de la solicitud esta presente
         if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -221,7 +263,16 @@ public class RolFunction {
             Optional<Rol> rolExistente = rolDAO.findById(rolId);
             if (!rolExistente.isPresent()) {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
+                        .body(GsonConfig.toJson(request, Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
+                        .header("Content-Type", "application/json")
+                        .build();
+            }
+            
+            // If-Match: solo se actualiza si el cliente tiene la versión actual
+            LocalDateTime version = ConditionalRequests.version(rolExistente.get().getFechaModificacion(), rolExistente.get().getFechaCreacion());
+            if (!ConditionalRequests.cumpleIfMatch(request, rolId, version)) {
+                return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.PRECONDITION_FAILED), rolId, version)
+                        .body(GsonConfig.toJson(request, Response.error("Version desactualizada", "El rol fue modificado; vuelva a leerlo antes de actualizar")))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -246,53 +297,50 @@ public class RolFunction {
             }
             
             // Actualizar el rol en la base de datos
-            if (rolDAO.update(rol)) {
+            // Con If-Match el UPDATE verifica la versión en la misma sentencia (otra solicitud pudo modificarlo)
+            boolean conIfMatch = ConditionalRequests.tieneIfMatch(request);
+            if (rolDAO.update(rol, conIfMatch ? version : null)) {
                 // Publicar evento de actualización de rol
-                JsonObject dataEvento = new JsonObject();
-                dataEvento.addProperty("idRol", rol.getIdRol());
-                dataEvento.addProperty("nombre", rol.getNombre());
-                dataEvento.addProperty("descripcion", rol.getDescripcion());
-                
-                // Agregar datos previos
-                JsonObject datosPreviosJson = gson.toJsonTree(datosAnteriores).getAsJsonObject();
-                dataEvento.add("datosPrevios", datosPreviosJson);
-                
-                // Agregar datos nuevos
-                JsonObject datosNuevosJson = gson.toJsonTree(rol).getAsJsonObject();
-                dataEvento.add("datosNuevos", datosNuevosJson);
-
                 // En un entorno real, aquí incluiríamos datos del usuario que realiza la acción
-                EventGridPublisher.publishEvent(
-                    "/roles/updated",
-                    "role_updated",
-                    dataEvento
-                );
+                EventGridPublisher.publishEvent(new RolActualizado(
+                    rol.getIdRol(),
+                    rol.getNombre(),
+                    rol.getDescripcion(),
+                    RolDatos.from(datosAnteriores),
+                    RolDatos.from(rol)
+                ));
                 
-                return request.createResponseBuilder(HttpStatus.OK)
-                        .body(gson.toJson(Response.success("Rol actualizado correctamente", rol)))
+                return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.OK), rolId,
+                                ConditionalRequests.version(rol.getFechaModificacion(), rol.getFechaCreacion()))
+                        .body(GsonConfig.toJson(request, Response.success("Rol actualizado correctamente", rol)))
+                        .header("Content-Type", "application/json")
+                        .build();
+            } else if (conIfMatch) {
+                return request.createResponseBuilder(HttpStatus.PRECONDITION_FAILED)
+                        .body(GsonConfig.toJson(request, Response.error("Version desactualizada", "El rol fue modificado; vuelva a leerlo antes de actualizar")))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Error al actualizar", "No se pudo actualizar el rol")))
+                        .body(GsonConfig.toJson(request, Response.error("Error al actualizar", "No se pudo actualizar el rol")))
                         .header("Content-Type", "application/json")
                         .build();
             }
             
         } catch (NumberFormatException e) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                    .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
                     .header("Content-Type", "application/json")
                     .build();
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Ya existe")) {
                 return request.createResponseBuilder(HttpStatus.CONFLICT)
-                        .body(gson.toJson(Response.error("Conflicto", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Conflicto", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("Error", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Error", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -309,7 +357,7 @@ public class RolFunction {
         // Verificar si se proporciona un ID
         if (id == null || id.equals("none")) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID no proporcionado", "Debe proporcionar un ID de rol para eliminar")))
+                    .body(GsonConfig.toJson(request, Response.error("ID no proporcionado", "Debe proporcionar un ID de rol para eliminar")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -321,7 +369,7 @@ public class RolFunction {
             Optional<Rol> rolExistente = rolDAO.findById(rolId);
             if (!rolExistente.isPresent()) {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
+                        .body(GsonConfig.toJson(request, Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -329,40 +377,32 @@ public class RolFunction {
             // Eliminar el rol (baja lógica)
             if (rolDAO.delete(rolId)) {
                 // Publicar evento de eliminación de rol
-                JsonObject dataEvento = new JsonObject();
-                dataEvento.addProperty("idRol", rolId);
-                dataEvento.addProperty("nombre", rolExistente.get().getNombre());
-                
-                // Agregar datos previos
-                JsonObject datosPreviosJson = gson.toJsonTree(rolExistente.get()).getAsJsonObject();
-                dataEvento.add("datosPrevios", datosPreviosJson);
-
                 // En un entorno real, aquí incluiríamos datos del usuario que realiza la acción
-                EventGridPublisher.publishEvent(
-                    "/roles/deleted",
-                    "role_deleted",
-                    dataEvento
-                );
+                EventGridPublisher.publishEvent(new RolEliminado(
+                    rolId,
+                    rolExistente.get().getNombre(),
+                    RolDatos.from(rolExistente.get())
+                ));
                 
                 return request.createResponseBuilder(HttpStatus.OK)
-                        .body(gson.toJson(Response.success("Rol eliminado correctamente", null)))
+                        .body(GsonConfig.toJson(request, Response.success("Rol eliminado correctamente", null)))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(gson.toJson(Response.error("Error al eliminar", "No se pudo eliminar el rol")))
+                        .body(GsonConfig.toJson(request, Response.error("Error al eliminar", "No se pudo eliminar el rol")))
                         .header("Content-Type", "application/json")
                         .build();
             }
             
         } catch (NumberFormatException e) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                    .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
                     .header("Content-Type", "application/json")
                     .build();
         } catch (Exception e) {
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(gson.toJson(Response.error("Error al eliminar", e.getMessage())))
+                    .body(GsonConfig.toJson(request, Response.error("Error al eliminar", e.getMessage())))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -391,7 +431,7 @@ public class RolFunction {
         // Verificar si se proporciona un ID
         if (id == null) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID no proporcionado", "Debe proporcionar un ID de rol")))
+                    .body(GsonConfig.toJson(request, Response.error("ID no proporcionado", "Debe proporcionar un ID de rol")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -403,7 +443,7 @@ public class RolFunction {
             Optional<Rol> rolExistente = rolDAO.findById(rolId);
             if (!rolExistente.isPresent()) {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
+                        .body(GsonConfig.toJson(request, Response.error("Rol no encontrado", "No se encontro un rol con el ID proporcionado")))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -411,19 +451,92 @@ public class RolFunction {
             // Obtener los usuarios que tienen este rol
             List<Long> usuarios = rolDAO.getUsuarios(rolId);
             
-            return request.createResponseBuilder(HttpStatus.OK)
-                    .body(gson.toJson(Response.success("Usuarios del rol", usuarios)))
+            return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                            GsonConfig.toJson(request, Response.success("Usuarios del rol", usuarios)))
                     .header("Content-Type", "application/json")
                     .build();
             
         } catch (NumberFormatException e) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                    .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
                     .header("Content-Type", "application/json")
                     .build();
         } catch (Exception e) {
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(gson.toJson(Response.error("Error", e.getMessage())))
+                    .body(GsonConfig.toJson(request, Response.error("Error", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+    }
+
+    /**
+     * Asigna y quita un rol a varios usuarios en una sola transacción.
+     * Cuerpo: {"asignar": [idUsuario, ...], "quitar": [idUsuario, ...]}.
+     * 
+     * @param request Solicitud HTTP
+     * @param id ID del rol
+     * @param context Contexto de ejecución
+     * @return Roles de cada usuario afectado después de los cambios
+     */
+    @FunctionName("actualizarUsuariosRol")
+    public HttpResponseMessage actualizarUsuarios(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.POST},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "roles/{id}/usuarios/batch")
+                    HttpRequestMessage<Optional<String>> request,
+            @BindingName("id") String id,
+            final ExecutionContext context) {
+        
+        logger.info("Solicitud HTTP recibida para actualizar usuarios de un rol por lote");
+        
+        if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+        
+        try {
+            Long rolId = Long.parseLong(id);
+            List<AsignacionRol> cambios = CambiosRoles.leer(request.getBody().get(),
+                    (userId, asignar) -> new AsignacionRol(userId, rolId, asignar));
+            
+            List<AsignacionRol> realizados = CambiosRoles.aplicar(usuarioDAO, cambios);
+            
+            Set<Long> usuarios = new LinkedHashSet<>();
+            cambios.forEach(par -> usuarios.add(par.getIdUsuario()));
+            
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("idRol", rolId);
+            resultado.put("asignados", CambiosRoles.contar(realizados, true));
+            resultado.put("quitados", CambiosRoles.contar(realizados, false));
+            resultado.put("rolesPorUsuario", usuarioDAO.getRolesPorUsuario(usuarios));
+            
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .body(GsonConfig.toJson(request, Response.success("Usuarios del rol actualizados correctamente", resultado)))
+                    .header("Content-Type", "application/json")
+                    .build();
+            
+        } catch (NumberFormatException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (IllegalArgumentException | JsonParseException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (RecursoNoEncontradoException e) {
+            return request.createResponseBuilder(HttpStatus.NOT_FOUND)
+                    .body(GsonConfig.toJson(request, Response.error("No encontrado", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (RuntimeException e) {
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(GsonConfig.toJson(request, Response.error("Error al actualizar usuarios del rol", e.getMessage())))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -1,13 +1,27 @@
 package com.function.function;
 
+import com.function.dao.ConsultaListado;
+import com.function.dao.RecursoNoEncontradoException;
 import com.function.dao.UsuarioDAO;
+import com.function.event.RolAsignado;
+import com.function.event.UsuarioActualizado;
+import com.function.event.UsuarioCreado;
+import com.function.event.UsuarioDatos;
+import com.function.event.UsuarioEliminado;
+import com.function.model.AsignacionRol;
 import com.function.model.Response;
 import com.function.model.Usuario;
+import com.function.util.ConditionalRequests;
 import com.function.util.GsonConfig;
+import com.function.util.HttpCompression;
+import com.function.util.WarmUp;
 import com.function.util.EventGridPublisher;
-import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.microsoft.azure.functions.*;
 import com.microsoft.azure.functions.annotation.AuthorizationLevel;
 import com.microsoft.azure.functions.annotation.BindingName;
@@ -17,6 +31,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -25,7 +42,19 @@ import java.util.*;
 public class UsuarioFunction {
     private static final Logger logger = LoggerFactory.getLogger(UsuarioFunction.class);
     private final UsuarioDAO usuarioDAO = new UsuarioDAO();
-    private final Gson gson = GsonConfig.getGson();
+    
+    // Importación masiva: filas por transacción (máximo 1000, el límite de Oracle para una lista IN)
+    // y máximo de filas por solicitud
+    private static final int BULK_CHUNK = Math.min(1000, Math.max(1, getIntSetting("USUARIOS_BULK_CHUNK", 500)));
+    private static final int BULK_MAX_FILAS = getIntSetting("USUARIOS_BULK_MAX", 10000);
+    
+    // Búsqueda por lista de IDs (GET /usuarios?ids= y POST /usuarios/buscar): máximo de IDs por solicitud
+    private static final int MULTIGET_MAX_IDS = getIntSetting("USUARIOS_IDS_MAX", 5000);
+    
+    // Calentamiento en segundo plano al cargar la primera Funcion HTTP de la instancia
+    static {
+        WarmUp.startInBackground();
+    }
 
     /**
      * Este método se ejecuta cuando se recibe una solicitud HTTP en el endpoint /api/usuarios.
@@ -61,14 +90,14 @@ public class UsuarioFunction {
                     return handleDeleteRequest(request, id);
                 default:
                     return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                            .body(gson.toJson(Response.error("Metodo no soportado", "Este metodo HTTP no esta soportado")))
+                            .body(GsonConfig.toJson(request, Response.error("Metodo no soportado", "Este metodo HTTP no esta soportado")))
                             .header("Content-Type", "application/json")
                             .build();
             }
         } catch (Exception e) {
             logger.error("Error en la funcion de Usuarios", e);
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(gson.toJson(Response.error("Error interno del servidor", e.getMessage())))
+                    .body(GsonConfig.toJson(request, Response.error("Error interno del servidor", e.getMessage())))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -86,39 +115,72 @@ public class UsuarioFunction {
         if (id != null && !id.equals("none")) {
             try {
                 Long userId = Long.parseLong(id);
+                
+                // Solicitud condicional: solo se lee la versión y, si el cliente la tiene, se responde 304
+                if (ConditionalRequests.esCondicional(request)) {
+                    Optional<LocalDateTime> version = usuarioDAO.findVersion(userId);
+                    if (version.isPresent() && ConditionalRequests.noModificado(request, userId, version.get())) {
+                        return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.NOT_MODIFIED), userId, version.get())
+                                .build();
+                    }
+                }
+                
                 Optional<Usuario> usuario = usuarioDAO.findById(userId);
                 
                 if (usuario.isPresent()) {
                     // No devolver el hash de contraseña en la respuesta
                     usuario.get().setPasswordHash(null);
-                    return request.createResponseBuilder(HttpStatus.OK)
-                            .body(gson.toJson(Response.success("Usuario encontrado", usuario.get())))
+                    LocalDateTime version = ConditionalRequests.version(usuario.get().getFechaModificacion(), usuario.get().getFechaCreacion());
+                    return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.OK), userId, version)
+                            .body(GsonConfig.toJson(request, Response.success("Usuario encontrado", usuario.get())))
                             .header("Content-Type", "application/json")
                             .build();
                 } else {
                     return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                            .body(gson.toJson(Response.error("Usuario no encontrado", "No se encontro un usuario con el ID proporcionado")))
+                            .body(GsonConfig.toJson(request, Response.error("Usuario no encontrado", "No se encontro un usuario con el ID proporcionado")))
                             .header("Content-Type", "application/json")
                             .build();
                 }
             } catch (NumberFormatException e) {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                        .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
                         .header("Content-Type", "application/json")
                         .build();
             }
         } 
-        // Si no se proporciona un ID, devuelve todos los usuarios
+        // Si no se proporciona un ID, devuelve los usuarios (filtrados, proyectados y ordenados en la base de datos)
         else {
-            List<Usuario> usuarios = usuarioDAO.findAll();
-            
-            // No devolver el hash de contraseña en la respuesta
-            usuarios.forEach(u -> u.setPasswordHash(null));
-            
-            return request.createResponseBuilder(HttpStatus.OK)
-                    .body(gson.toJson(Response.success("Usuarios encontrados", usuarios)))
-                    .header("Content-Type", "application/json")
-                    .build();
+            try {
+                // ?ids=1,2,3: varios usuarios por ID en una sola consulta
+                String ids = request.getQueryParameters() != null ? request.getQueryParameters().get("ids") : null;
+                if (ids != null) {
+                    return responderPorIds(request, leerIds(ids));
+                }
+                
+                ConsultaListado consulta = ConsultaListado.desdeParametros(request.getQueryParameters());
+                if (consulta.tieneProyeccion()) {
+                    List<Map<String, Object>> usuarios = usuarioDAO.findCampos(consulta);
+                    return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                                    GsonConfig.toJson(request, Response.success("Usuarios encontrados", usuarios)))
+                            .header("Content-Type", "application/json")
+                            .build();
+                }
+                
+                List<Usuario> usuarios = usuarioDAO.findAll(consulta);
+                
+                // No devolver el hash de contraseña en la respuesta
+                usuarios.forEach(u -> u.setPasswordHash(null));
+                
+                return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                                GsonConfig.toJson(request, Response.success("Usuarios encontrados", usuarios)))
+                        .header("Content-Type", "application/json")
+                        .build();
+            } catch (IllegalArgumentException e) {
+                return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                        .body(GsonConfig.toJson(request, Response.error("Parametros invalidos", e.getMessage())))
+                        .header("Content-Type", "application/json")
+                        .build();
+            }
         }
     }
 
@@ -132,7 +194,7 @@ public class UsuarioFunction {
         // Verificar si el cuerpo de la solicitud esta presente
         if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -144,7 +206,7 @@ public class UsuarioFunction {
             // Validar campos obligatorios
             if (!jsonUsuario.has("username") || !jsonUsuario.has("email") || !jsonUsuario.has("password")) {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("Datos invalidos", "Los campos username, email y password son obligatorios")))
+                        .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "Los campos username, email y password son obligatorios")))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -171,37 +233,33 @@ public class UsuarioFunction {
             Usuario usuarioCreado = usuarioDAO.create(usuario);
             
             // Publicar evento de creación de usuario
-            Usuario usuarioParaEvento = new Usuario();
-            usuarioParaEvento.setIdUsuario(usuarioCreado.getIdUsuario());
-            usuarioParaEvento.setUsername(usuarioCreado.getUsername());
-            usuarioParaEvento.setEmail(usuarioCreado.getEmail());
-            usuarioParaEvento.setNombre(usuarioCreado.getNombre());
-            usuarioParaEvento.setApellido(usuarioCreado.getApellido());
-            usuarioParaEvento.setFechaCreacion(usuarioCreado.getFechaCreacion());
-
-            EventGridPublisher.publishEvent(
-                "/usuarios/created",
-                "user_created",
-                usuarioParaEvento
-            );
+            EventGridPublisher.publishEvent(new UsuarioCreado(
+                usuarioCreado.getIdUsuario(),
+                usuarioCreado.getUsername(),
+                usuarioCreado.getEmail(),
+                usuarioCreado.getNombre(),
+                usuarioCreado.getApellido(),
+                usuarioCreado.getFechaCreacion(),
+                false
+            ));
             
             // No devolver el hash de contraseña en la respuesta
             usuarioCreado.setPasswordHash(null);
             
             return request.createResponseBuilder(HttpStatus.CREATED)
-                    .body(gson.toJson(Response.success("Usuario creado correctamente", usuarioCreado)))
+                    .body(GsonConfig.toJson(request, Response.success("Usuario creado correctamente", usuarioCreado)))
                     .header("Content-Type", "application/json")
                     .build();
             
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Ya existe")) {
                 return request.createResponseBuilder(HttpStatus.CONFLICT)
-                        .body(gson.toJson(Response.error("Conflicto", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Conflicto", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("Error", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Error", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -219,7 +277,7 @@ public class UsuarioFunction {
         // Verificar si se proporciona un ID
         if (id == null || id.equals("none")) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID no proporcionado", "Debe proporcionar un ID de usuario para actualizar")))
+                    .body(GsonConfig.toJson(request, Response.error("ID no proporcionado", "Debe proporcionar un ID de usuario para actualizar")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -227,7 +285,7 @@ public class UsuarioFunction {
         // Verificar si el cuerpo de la solicitud esta presente
         if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -239,7 +297,16 @@ public class UsuarioFunction {
             Optional<Usuario> usuarioExistente = usuarioDAO.findById(userId);
             if (!usuarioExistente.isPresent()) {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Usuario no encontrado", "No se encontro un usuario con el ID proporcionado")))
+                        .body(GsonConfig.toJson(request, Response.error("Usuario no encontrado", "No se encontro un usuario con el ID proporcionado")))
+                        .header("Content-Type", "application/json")
+                        .build();
+            }
+            
+            // If-Match: solo se actualiza si el cliente tiene la versión actual
+            LocalDateTime version = ConditionalRequests.version(usuarioExistente.get().getFechaModificacion(), usuarioExistente.get().getFechaCreacion());
+            if (!ConditionalRequests.cumpleIfMatch(request, userId, version)) {
+                return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.PRECONDITION_FAILED), userId, version)
+                        .body(GsonConfig.toJson(request, Response.error("Version desactualizada", "El usuario fue modificado; vuelva a leerlo antes de actualizar")))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -276,57 +343,54 @@ public class UsuarioFunction {
             }
             
             // Actualizar el usuario en la base de datos
-            if (usuarioDAO.update(usuario)) {
-                // Publicar evento de actualización de usuario
-                JsonObject eventoData = new JsonObject();
-                eventoData.addProperty("idUsuario", usuario.getIdUsuario());
-                eventoData.addProperty("username", usuario.getUsername());
-                eventoData.addProperty("email", usuario.getEmail());
-                eventoData.addProperty("nombre", usuario.getNombre());
-                eventoData.addProperty("apellido", usuario.getApellido());
-                
-                // Agregar datos previos
-                JsonObject datosPreviosJson = gson.toJsonTree(datosAnteriores).getAsJsonObject();
-                eventoData.add("datosPrevios", datosPreviosJson);
-                
-                // Agregar datos nuevos
-                JsonObject datosNuevosJson = gson.toJsonTree(usuario).getAsJsonObject();
-                eventoData.add("datosNuevos", datosNuevosJson);
-
-                EventGridPublisher.publishEvent(
-                    "/usuarios/updated",
-                    "user_updated",
-                    eventoData
-                );
+            // Con If-Match el UPDATE verifica la versión en la misma sentencia (otra solicitud pudo modificarlo)
+            boolean conIfMatch = ConditionalRequests.tieneIfMatch(request);
+            if (usuarioDAO.update(usuario, conIfMatch ? version : null)) {
+                // Publicar evento de actualización de usuario (datos previos y nuevos sin el hash)
+                EventGridPublisher.publishEvent(new UsuarioActualizado(
+                    usuario.getIdUsuario(),
+                    usuario.getUsername(),
+                    usuario.getEmail(),
+                    usuario.getNombre(),
+                    usuario.getApellido(),
+                    UsuarioDatos.from(datosAnteriores),
+                    UsuarioDatos.from(usuario)
+                ));
                 
                 // No devolver el hash de contraseña en la respuesta
                 usuario.setPasswordHash(null);
                 
-                return request.createResponseBuilder(HttpStatus.OK)
-                        .body(gson.toJson(Response.success("Usuario actualizado correctamente", usuario)))
+                return ConditionalRequests.conVersion(request.createResponseBuilder(HttpStatus.OK), userId,
+                                ConditionalRequests.version(usuario.getFechaModificacion(), usuario.getFechaCreacion()))
+                        .body(GsonConfig.toJson(request, Response.success("Usuario actualizado correctamente", usuario)))
+                        .header("Content-Type", "application/json")
+                        .build();
+            } else if (conIfMatch) {
+                return request.createResponseBuilder(HttpStatus.PRECONDITION_FAILED)
+                        .body(GsonConfig.toJson(request, Response.error("Version desactualizada", "El usuario fue modificado; vuelva a leerlo antes de actualizar")))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Error al actualizar", "No se pudo actualizar el usuario")))
+                        .body(GsonConfig.toJson(request, Response.error("Error al actualizar", "No se pudo actualizar el usuario")))
                         .header("Content-Type", "application/json")
                         .build();
             }
             
         } catch (NumberFormatException e) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                    .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
                     .header("Content-Type", "application/json")
                     .build();
         } catch (RuntimeException e) {
             if (e.getMessage().contains("Ya existe")) {
                 return request.createResponseBuilder(HttpStatus.CONFLICT)
-                        .body(gson.toJson(Response.error("Conflicto", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Conflicto", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("Error", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Error", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -344,7 +408,7 @@ public class UsuarioFunction {
         // Verificar si se proporciona un ID
         if (id == null || id.equals("none")) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID no proporcionado", "Debe proporcionar un ID de usuario para eliminar")))
+                    .body(GsonConfig.toJson(request, Response.error("ID no proporcionado", "Debe proporcionar un ID de usuario para eliminar")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -356,7 +420,7 @@ public class UsuarioFunction {
             Optional<Usuario> usuarioExistente = usuarioDAO.findById(userId);
             if (!usuarioExistente.isPresent()) {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Usuario no encontrado", "No se encontro un usuario con el ID proporcionado")))
+                        .body(GsonConfig.toJson(request, Response.error("Usuario no encontrado", "No se encontro un usuario con el ID proporcionado")))
                         .header("Content-Type", "application/json")
                         .build();
             }
@@ -364,41 +428,32 @@ public class UsuarioFunction {
             // Eliminar el usuario (baja lógica)
             if (usuarioDAO.delete(userId)) {
                 // Publicar evento de eliminación de usuario
-                JsonObject eventoData = new JsonObject();
-                eventoData.addProperty("idUsuario", userId);
-                eventoData.addProperty("username", usuarioExistente.get().getUsername());
-                eventoData.addProperty("email", usuarioExistente.get().getEmail());
-                
-                // Agregar datos previos
-                JsonObject datosPreviosJson = gson.toJsonTree(usuarioExistente.get()).getAsJsonObject();
-                datosPreviosJson.remove("passwordHash"); // Eliminar datos sensibles
-                eventoData.add("datosPrevios", datosPreviosJson);
-
-                EventGridPublisher.publishEvent(
-                    "/usuarios/deleted",
-                    "user_deleted",
-                    eventoData
-                );
+                EventGridPublisher.publishEvent(new UsuarioEliminado(
+                    userId,
+                    usuarioExistente.get().getUsername(),
+                    usuarioExistente.get().getEmail(),
+                    UsuarioDatos.from(usuarioExistente.get())
+                ));
                 
                 return request.createResponseBuilder(HttpStatus.OK)
-                        .body(gson.toJson(Response.success("Usuario eliminado correctamente", null)))
+                        .body(GsonConfig.toJson(request, Response.success("Usuario eliminado correctamente", null)))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(gson.toJson(Response.error("Error al eliminar", "No se pudo eliminar el usuario")))
+                        .body(GsonConfig.toJson(request, Response.error("Error al eliminar", "No se pudo eliminar el usuario")))
                         .header("Content-Type", "application/json")
                         .build();
             }
             
         } catch (NumberFormatException e) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                    .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
                     .header("Content-Type", "application/json")
                     .build();
         } catch (Exception e) {
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(gson.toJson(Response.error("Error al eliminar", e.getMessage())))
+                    .body(GsonConfig.toJson(request, Response.error("Error al eliminar", e.getMessage())))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -427,7 +482,7 @@ public class UsuarioFunction {
         // Verificar si se proporciona un ID
         if (id == null) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("ID no proporcionado", "Debe proporcionar un ID de usuario")))
+                    .body(GsonConfig.toJson(request, Response.error("ID no proporcionado", "Debe proporcionar un ID de usuario")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -435,7 +490,7 @@ public class UsuarioFunction {
         // Verificar si el cuerpo de la solicitud esta presente
         if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body(gson.toJson(Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
                     .header("Content-Type", "application/json")
                     .build();
         }
@@ -449,63 +504,429 @@ public class UsuarioFunction {
             // Validar campos obligatorios
             if (!jsonRol.has("idRol")) {
                 return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(Response.error("Datos invalidos", "El campo idRol es obligatorio")))
+                        .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El campo idRol es obligatorio")))
                         .header("Content-Type", "application/json")
                         .build();
             }
             
             Long rolId = jsonRol.get("idRol").getAsLong();
             
-            // Asignar el rol al usuario
-            usuarioDAO.asignarRol(userId, rolId);
+            // Asignar el rol y obtener los roles, el nombre del rol y el username en una sola llamada
+            AsignacionRol asignacion = usuarioDAO.asignarRolConDetalle(userId, rolId);
+            List<Long> roles = asignacion.getRoles();
             
-            // Obtener todos los roles del usuario
-            List<Long> roles = usuarioDAO.getRoles(userId);
-            
-            // Obtener información del rol para el evento
-            Optional<com.function.model.Rol> rolInfo = new com.function.dao.RolDAO().findById(rolId);
-            String rolNombre = rolInfo.isPresent() ? rolInfo.get().getNombre() : "desconocido";
-
             // Publicar evento de asignación de rol
-            JsonObject dataEvento = new JsonObject();
-            dataEvento.addProperty("idUsuario", userId);
-            dataEvento.addProperty("idRol", rolId);
-            dataEvento.addProperty("rolNombre", rolNombre);
-
-            // Obtener nombre de usuario
-            Optional<Usuario> usuarioInfo = usuarioDAO.findById(userId);
-            if (usuarioInfo.isPresent()) {
-                dataEvento.addProperty("username", usuarioInfo.get().getUsername());
-            }
-
-            EventGridPublisher.publishEvent(
-                "/usuarios/roles/assigned",
-                "role_assigned",
-                dataEvento
-            );
+            EventGridPublisher.publishEvent(new RolAsignado(
+                userId,
+                rolId,
+                asignacion.getRolNombre(),
+                asignacion.getUsername()
+            ));
             
             return request.createResponseBuilder(HttpStatus.OK)
-                    .body(gson.toJson(Response.success("Rol asignado correctamente", roles)))
+                    .body(GsonConfig.toJson(request, Response.success("Rol asignado correctamente", roles)))
                     .header("Content-Type", "application/json")
                     .build();
             
         } catch (RuntimeException e) {
             if (e.getMessage().contains("El usuario no existe")) {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Usuario no encontrado", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Usuario no encontrado", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             } else if (e.getMessage().contains("El rol no existe")) {
                 return request.createResponseBuilder(HttpStatus.NOT_FOUND)
-                        .body(gson.toJson(Response.error("Rol no encontrado", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Rol no encontrado", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             } else {
                 return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(gson.toJson(Response.error("Error al asignar rol", e.getMessage())))
+                        .body(GsonConfig.toJson(request, Response.error("Error al asignar rol", e.getMessage())))
                         .header("Content-Type", "application/json")
                         .build();
             }
         }
     }
+
+    /**
+     * Asigna y quita varios roles a un usuario en una sola transacción.
+     * Cuerpo: {"asignar": [idRol, ...], "quitar": [idRol, ...]}.
+     * 
+     * @param request Solicitud HTTP
+     * @param id ID del usuario
+     * @param context Contexto de ejecución
+     * @return Roles del usuario después de los cambios
+     */
+    @FunctionName("actualizarRolesUsuario")
+    public HttpResponseMessage actualizarRoles(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.POST},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "usuarios/{id}/roles/batch")
+                    HttpRequestMessage<Optional<String>> request,
+            @BindingName("id") String id,
+            final ExecutionContext context) {
+        
+        logger.info("Solicitud HTTP recibida para actualizar roles de un usuario por lote");
+        
+        if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+        
+        try {
+            Long userId = Long.parseLong(id);
+            List<AsignacionRol> cambios = CambiosRoles.leer(request.getBody().get(),
+                    (rolId, asignar) -> new AsignacionRol(userId, rolId, asignar));
+            
+            List<AsignacionRol> realizados = CambiosRoles.aplicar(usuarioDAO, cambios);
+            
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("idUsuario", userId);
+            resultado.put("asignados", CambiosRoles.contar(realizados, true));
+            resultado.put("quitados", CambiosRoles.contar(realizados, false));
+            resultado.put("roles", usuarioDAO.getRoles(userId));
+            
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .body(GsonConfig.toJson(request, Response.success("Roles actualizados correctamente", resultado)))
+                    .header("Content-Type", "application/json")
+                    .build();
+            
+        } catch (NumberFormatException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("ID invalido", "El ID proporcionado no es un numero valido")))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (IllegalArgumentException | JsonParseException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (RecursoNoEncontradoException e) {
+            return request.createResponseBuilder(HttpStatus.NOT_FOUND)
+                    .body(GsonConfig.toJson(request, Response.error("No encontrado", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (RuntimeException e) {
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(GsonConfig.toJson(request, Response.error("Error al actualizar roles", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+    }
+    
+    /**
+     * Busca varios usuarios por ID (variante POST de GET /usuarios?ids= para listas largas).
+     * El cuerpo es un arreglo de IDs o {"ids": [...]}.
+     * 
+     * @param request Solicitud HTTP
+     * @param context Contexto de ejecución
+     * @return Usuarios encontrados y los IDs que no existen
+     */
+    @FunctionName("buscarUsuarios")
+    public HttpResponseMessage buscarUsuarios(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.POST},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "usuarios/buscar")
+                    HttpRequestMessage<Optional<String>> request,
+            final ExecutionContext context) {
+        
+        logger.info("Solicitud HTTP recibida para buscar usuarios por ID");
+        
+        if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+        
+        try {
+            JsonElement json = JsonParser.parseString(request.getBody().get());
+            if (json.isJsonObject() && json.getAsJsonObject().has("ids")) {
+                json = json.getAsJsonObject().get("ids");
+            }
+            if (!json.isJsonArray()) {
+                throw new IllegalArgumentException("El cuerpo debe ser una lista de IDs o {\"ids\": [...]}");
+            }
+            List<Long> ids = new ArrayList<>();
+            for (JsonElement id : json.getAsJsonArray()) {
+                try {
+                    ids.add(id.getAsLong());
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("ID invalido: " + id);
+                }
+            }
+            return responderPorIds(request, ids);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        } catch (Exception e) {
+            logger.error("Error al buscar usuarios por ID", e);
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(GsonConfig.toJson(request, Response.error("Error interno del servidor", e.getMessage())))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+    }
+    
+    /**
+     * Responde con los usuarios de la lista de IDs y los IDs que no se encontraron.
+     */
+    private HttpResponseMessage responderPorIds(HttpRequestMessage<Optional<String>> request, List<Long> ids) {
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un ID");
+        }
+        if (ids.size() > MULTIGET_MAX_IDS) {
+            throw new IllegalArgumentException("Se permiten como maximo " + MULTIGET_MAX_IDS + " IDs por solicitud");
+        }
+        
+        List<Usuario> usuarios = usuarioDAO.findByIds(ids);
+        
+        // No devolver el hash de contraseña en la respuesta
+        usuarios.forEach(u -> u.setPasswordHash(null));
+        
+        Set<Long> noEncontrados = new LinkedHashSet<>(ids);
+        usuarios.forEach(u -> noEncontrados.remove(u.getIdUsuario()));
+        
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("usuarios", usuarios);
+        resultado.put("noEncontrados", noEncontrados);
+        String mensaje = noEncontrados.isEmpty() ? "Usuarios encontrados" : "Algunos usuarios no fueron encontrados";
+        return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                        GsonConfig.toJson(request, Response.success(mensaje, resultado)))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+    
+    /**
+     * Lee la lista de IDs separados por comas del parámetro ids.
+     */
+    private static List<Long> leerIds(String valor) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : valor.split(",")) {
+            if (StringUtils.isBlank(id)) {
+                continue;
+            }
+            try {
+                ids.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ID invalido en ids: " + id.trim());
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Importa usuarios en masa desde un arreglo JSON o NDJSON (un objeto por línea).
+     * El cuerpo se recorre en una sola pasada validando cada fila; las filas válidas se crean
+     * por lotes de USUARIOS_BULK_CHUNK en una transacción que también asigna el rol por defecto,
+     * y los eventos user_created de cada lote se publican en una sola solicitud a Event Grid.
+     * 
+     * @param request Solicitud HTTP
+     * @param context Contexto de ejecución
+     * @return Resumen con los usuarios creados y el error de cada fila rechazada
+     */
+    @FunctionName("importarUsuarios")
+    public HttpResponseMessage importarUsuarios(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.POST},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "usuarios/bulk")
+                    HttpRequestMessage<Optional<String>> request,
+            final ExecutionContext context) {
+        
+        logger.info("Solicitud HTTP recibida para importar usuarios");
+        
+        if (!request.getBody().isPresent() || StringUtils.isBlank(request.getBody().get())) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(GsonConfig.toJson(request, Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio")))
+                    .header("Content-Type", "application/json")
+                    .build();
+        }
+        
+        ImportacionUsuarios importacion = new ImportacionUsuarios();
+        try (JsonReader reader = new JsonReader(new StringReader(request.getBody().get()))) {
+            // Lenient permite varios valores en el nivel superior (NDJSON)
+            reader.setLenient(true);
+            boolean esArreglo = reader.peek() == JsonToken.BEGIN_ARRAY;
+            if (esArreglo) {
+                reader.beginArray();
+            }
+            while (esArreglo ? reader.hasNext() : reader.peek() != JsonToken.END_DOCUMENT) {
+                int fila = importacion.filas + 1;
+                if (fila > BULK_MAX_FILAS) {
+                    importacion.agregarError(fila, null, "Se supera el maximo de " + BULK_MAX_FILAS + " filas por solicitud");
+                    break;
+                }
+                JsonElement elemento = JsonParser.parseReader(reader);
+                importacion.filas = fila;
+                importacion.agregarFila(fila, elemento);
+                if (importacion.lote.size() >= BULK_CHUNK) {
+                    importacion.crearLote(usuarioDAO);
+                }
+            }
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            importacion.agregarError(importacion.filas + 1, null, "JSON invalido: " + e.getMessage());
+        }
+        importacion.crearLote(usuarioDAO);
+        
+        logger.info("Importacion de usuarios terminada: " + importacion.creados.size() + " creados, "
+                + importacion.errores.size() + " errores");
+        
+        HttpStatus status;
+        String mensaje;
+        if (importacion.errores.isEmpty()) {
+            status = HttpStatus.CREATED;
+            mensaje = "Usuarios importados correctamente";
+        } else if (!importacion.creados.isEmpty()) {
+            status = HttpStatus.MULTI_STATUS;
+            mensaje = "Usuarios importados con errores";
+        } else {
+            status = HttpStatus.BAD_REQUEST;
+            mensaje = "No se importo ningun usuario";
+        }
+        return HttpCompression.body(request, request.createResponseBuilder(status),
+                        GsonConfig.toJson(request,
+                                new Response<>(!importacion.creados.isEmpty(), mensaje, importacion.resumen())))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+    
+    /**
+     * Estado de una importación masiva: lote pendiente, usuarios creados y errores por fila.
+     */
+    private static class ImportacionUsuarios {
+        private final List<Usuario> lote = new ArrayList<>();
+        private final List<Integer> filasLote = new ArrayList<>();
+        private final Set<String> usernames = new HashSet<>();
+        private final Set<String> emails = new HashSet<>();
+        private final List<Map<String, Object>> creados = new ArrayList<>();
+        private final List<Map<String, Object>> errores = new ArrayList<>();
+        private int filas;
+        private int eventosPublicados;
+        
+        /**
+         * Valida una fila y, si es correcta, la agrega al lote pendiente.
+         */
+        void agregarFila(int fila, JsonElement elemento) {
+            if (!elemento.isJsonObject()) {
+                agregarError(fila, null, "La fila no es un objeto JSON");
+                return;
+            }
+            JsonObject json = elemento.getAsJsonObject();
+            String username = texto(json, "username");
+            String email = texto(json, "email");
+            String password = texto(json, "password");
+            
+            String error = null;
+            if (StringUtils.isAnyBlank(username, email, password)) {
+                error = "Los campos username, email y password son obligatorios";
+            } else if (username.length() > 50 || email.length() > 100 || password.length() > 100
+                    || StringUtils.length(texto(json, "nombre")) > 100
+                    || StringUtils.length(texto(json, "apellido")) > 100) {
+                error = "Un campo supera el largo maximo";
+            } else if (!usernames.add(username) || !emails.add(email)) {
+                error = "El username o email esta repetido en la importacion";
+            }
+            if (error != null) {
+                agregarError(fila, username, error);
+                return;
+            }
+            
+            Usuario usuario = new Usuario();
+            usuario.setUsername(username);
+            usuario.setEmail(email);
+            // En producción, aquí iría el código para hashear la contraseña
+            usuario.setPasswordHash(password);
+            usuario.setNombre(texto(json, "nombre"));
+            usuario.setApellido(texto(json, "apellido"));
+            lote.add(usuario);
+            filasLote.add(fila);
+        }
+        
+        /**
+         * Crea el lote pendiente en la base de datos y publica sus eventos user_created.
+         */
+        void crearLote(UsuarioDAO usuarioDAO) {
+            if (lote.isEmpty()) {
+                return;
+            }
+            List<String> resultado;
+            try {
+                resultado = usuarioDAO.createBatch(lote, RolAutomaticoFunction.ROL_POR_DEFECTO);
+            } catch (RuntimeException e) {
+                resultado = Collections.nCopies(lote.size(), e.getMessage());
+            }
+            
+            List<UsuarioCreado> eventos = new ArrayList<>();
+            for (int i = 0; i < lote.size(); i++) {
+                Usuario usuario = lote.get(i);
+                if (resultado.get(i) != null) {
+                    agregarError(filasLote.get(i), usuario.getUsername(), resultado.get(i));
+                    continue;
+                }
+                Map<String, Object> creado = new LinkedHashMap<>();
+                creado.put("fila", filasLote.get(i));
+                creado.put("idUsuario", usuario.getIdUsuario());
+                creado.put("username", usuario.getUsername());
+                creados.add(creado);
+                eventos.add(new UsuarioCreado(usuario.getIdUsuario(), usuario.getUsername(), usuario.getEmail(),
+                        usuario.getNombre(), usuario.getApellido(), usuario.getFechaCreacion(), true));
+            }
+            eventosPublicados += EventGridPublisher.publishEvents(eventos);
+            lote.clear();
+            filasLote.clear();
+        }
+        
+        void agregarError(int fila, String username, String error) {
+            Map<String, Object> detalle = new LinkedHashMap<>();
+            detalle.put("fila", fila);
+            detalle.put("username", username);
+            detalle.put("error", error);
+            errores.add(detalle);
+        }
+        
+        Map<String, Object> resumen() {
+            // Los errores de la base de datos llegan al crear cada lote, después de los de validación
+            errores.sort(Comparator.comparingInt(detalle -> (Integer) detalle.get("fila")));
+            Map<String, Object> resumen = new LinkedHashMap<>();
+            resumen.put("filas", filas);
+            resumen.put("creados", creados.size());
+            resumen.put("rechazados", errores.size());
+            resumen.put("eventosPublicados", eventosPublicados);
+            resumen.put("usuarios", creados);
+            resumen.put("errores", errores);
+            return resumen;
+        }
+        
+        // Valor de texto de un campo, o null si no viene o no es un valor simple
+        private static String texto(JsonObject json, String campo) {
+            JsonElement valor = json.get(campo);
+            return valor != null && valor.isJsonPrimitive() ? valor.getAsString() : null;
+        }
+    }
+    
+    /**
+     * Lee un valor entero de la configuración de la aplicación, con valor por defecto.
+     */
+    private static int getIntSetting(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valor invalido para " + name + ": " + value + ", se usa " + defaultValue);
+            return defaultValue;
+        }
+    }
 }
\ No newline at end of file
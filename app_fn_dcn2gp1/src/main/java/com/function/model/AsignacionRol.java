@@ -0,0 +1,93 @@
+package com.function.model;
+
+import java.util.List;
+
+/**
+ * Clase que representa la asignación (o el retiro) de un rol a un usuario.
+ */
+public class AsignacionRol {
+    private Long idUsuario;
+    private Long idRol;
+    private String username;
+    private String rolNombre;
+    private boolean asignar;
+    private List<Long> roles;
+
+    // Constructor vacío
+    public AsignacionRol() {
+    }
+
+    // Constructor con parámetros esenciales
+    public AsignacionRol(Long idUsuario, Long idRol, boolean asignar) {
+        this.idUsuario = idUsuario;
+        this.idRol = idRol;
+        this.asignar = asignar;
+    }
+
+    // Getters y Setters
+    public Long getIdUsuario() {
+        return idUsuario;
+    }
+
+    public void setIdUsuario(Long idUsuario) {
+        this.idUsuario = idUsuario;
+    }
+
+    public Long getIdRol() {
+        return idRol;
+    }
+
+    public void setIdRol(Long idRol) {
+        this.idRol = idRol;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getRolNombre() {
+        return rolNombre;
+    }
+
+    public void setRolNombre(String rolNombre) {
+        this.rolNombre = rolNombre;
+    }
+
+    /**
+     * @return true si se asigna el rol, false si se quita
+     */
+    public boolean isAsignar() {
+        return asignar;
+    }
+
+    public void setAsignar(boolean asignar) {
+        this.asignar = asignar;
+    }
+
+    /**
+     * @return Roles del usuario después del cambio (si se consultaron)
+     */
+    public List<Long> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<Long> roles) {
+        this.roles = roles;
+    }
+
+    @Override
+    public String toString() {
+        return "AsignacionRol{" +
+                "idUsuario=" + idUsuario +
+                ", idRol=" + idRol +
+                ", username='" + username + '\'' +
+                ", rolNombre='" + rolNombre + '\'' +
+                ", asignar=" + asignar +
+                ", roles=" + roles +
+                '}';
+    }
+}
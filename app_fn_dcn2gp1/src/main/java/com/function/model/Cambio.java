@@ -0,0 +1,92 @@
+package com.function.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Clase que representa un cambio (creación, actualización o eliminación) de un usuario,
+ * de un rol o de la asignación de un rol a un usuario, leído del registro de auditoría
+ * para el feed de cambios.
+ */
+public class Cambio {
+    private String cursor;
+    private String entidad;
+    private String operacion;
+    private Long id;
+    private LocalDateTime fecha;
+    private Object datos;
+    private List<Long> roles;
+
+    // Constructor vacío
+    public Cambio() {
+    }
+
+    // Constructor con parámetros
+    public Cambio(String cursor, String entidad, String operacion, Long id, LocalDateTime fecha) {
+        this.cursor = cursor;
+        this.entidad = entidad;
+        this.operacion = operacion;
+        this.id = id;
+        this.fecha = fecha;
+    }
+
+    // Getters y Setters
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public void setEntidad(String entidad) {
+        this.entidad = entidad;
+    }
+
+    public String getOperacion() {
+        return operacion;
+    }
+
+    public void setOperacion(String operacion) {
+        this.operacion = operacion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+
+    public Object getDatos() {
+        return datos;
+    }
+
+    public void setDatos(Object datos) {
+        this.datos = datos;
+    }
+
+    /**
+     * @return Roles actuales del usuario (en usuarios creados y en asignaciones de roles)
+     */
+    public List<Long> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<Long> roles) {
+        this.roles = roles;
+    }
+}
@@ -0,0 +1,157 @@
+package com.function.util;
+
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * Solicitudes condicionales sobre usuarios y roles.
+ * La versión de un recurso es COALESCE(fecha_modificacion, fecha_creacion), que los triggers
+ * actualizan en cada UPDATE. De ella se derivan un ETag fuerte (hash del ID y la versión) y
+ * Last-Modified; If-None-Match / If-Modified-Since permiten responder 304 leyendo solo la
+ * columna de versión, e If-Match permite actualizar solo si nadie modificó el recurso.
+ */
+public final class ConditionalRequests {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * @return Versión del recurso: fecha de modificación, o de creación si nunca se modificó
+     */
+    public static LocalDateTime version(LocalDateTime fechaModificacion, LocalDateTime fechaCreacion) {
+        return fechaModificacion != null ? fechaModificacion : fechaCreacion;
+    }
+
+    /**
+     * @return true si la solicitud trae If-None-Match o If-Modified-Since
+     */
+    public static boolean esCondicional(HttpRequestMessage<?> request) {
+        return header(request, "If-None-Match") != null || header(request, "If-Modified-Since") != null;
+    }
+
+    /**
+     * Evalúa If-None-Match (o If-Modified-Since si no viene el primero) contra la versión actual.
+     * @return true si el cliente ya tiene esta versión y se puede responder 304
+     */
+    public static boolean noModificado(HttpRequestMessage<?> request, Long id, LocalDateTime version) {
+        if (version == null) {
+            return false;
+        }
+        String ifNoneMatch = header(request, "If-None-Match");
+        if (ifNoneMatch != null) {
+            return coincide(ifNoneMatch, etag(id, version), true);
+        }
+        String ifModifiedSince = header(request, "If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                ZonedDateTime desde = ZonedDateTime.parse(ifModifiedSince.trim(), HTTP_DATE);
+                ZonedDateTime modificado = version.atZone(GsonConfig.getDateZone()).truncatedTo(ChronoUnit.SECONDS);
+                return !modificado.isAfter(desde);
+            } catch (DateTimeParseException e) {
+                // Fecha inválida: se ignora el encabezado
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evalúa If-Match con comparación fuerte; sin el encabezado la condición se cumple.
+     * @return true si se puede modificar el recurso
+     */
+    public static boolean cumpleIfMatch(HttpRequestMessage<?> request, Long id, LocalDateTime version) {
+        String ifMatch = header(request, "If-Match");
+        if (ifMatch == null) {
+            return true;
+        }
+        return version != null && coincide(ifMatch, etag(id, version), false);
+    }
+
+    /**
+     * @return true si la solicitud trae If-Match (la actualización debe ser condicional)
+     */
+    public static boolean tieneIfMatch(HttpRequestMessage<?> request) {
+        return header(request, "If-Match") != null;
+    }
+
+    /**
+     * Agrega ETag y Last-Modified a la respuesta (si el recurso tiene versión).
+     */
+    public static HttpResponseMessage.Builder conVersion(HttpResponseMessage.Builder builder, Long id, LocalDateTime version) {
+        if (version == null) {
+            return builder;
+        }
+        return builder
+                .header("ETag", etag(id, version))
+                .header("Last-Modified", HTTP_DATE.format(version.atZone(GsonConfig.getDateZone())
+                        .withZoneSameInstant(ZoneOffset.UTC)));
+    }
+
+    /**
+     * ETag fuerte: primeros 16 bytes del SHA-256 de "id:version" en hexadecimal, entre comillas.
+     */
+    public static String etag(Long id, LocalDateTime version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((id + ":" + version).getBytes(StandardCharsets.UTF_8));
+            char[] etag = new char[34];
+            etag[0] = '"';
+            for (int i = 0; i < 16; i++) {
+                etag[1 + i * 2] = HEX[(hash[i] >> 4) & 0xF];
+                etag[2 + i * 2] = HEX[hash[i] & 0xF];
+            }
+            etag[33] = '"';
+            return new String(etag);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // Lista de ETags del encabezado ("*" coincide con cualquiera); la comparación débil ignora W/
+    private static boolean coincide(String encabezado, String etag, boolean debil) {
+        for (String candidato : encabezado.split(",")) {
+            candidato = candidato.trim();
+            if (candidato.equals("*")) {
+                return true;
+            }
+            if (candidato.startsWith("W/")) {
+                if (!debil) {
+                    continue;
+                }
+                candidato = candidato.substring(2);
+            }
+            if (candidato.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Los nombres de encabezado no distinguen mayúsculas
+    private static String header(HttpRequestMessage<?> request, String nombre) {
+        Map<String, String> headers = request.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(nombre) && entry.getValue() != null && !entry.getValue().isBlank()) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -2,16 +2,36 @@ package com.function.util;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Administrador de conexiones a la base de datos utilizando HikariCP.
+ * Los parámetros del pool se leen de la configuración de la aplicación (DB_POOL_*)
+ * y sus métricas se publican en {@link MetricsRegistry}.
+ * El pool se crea en segundo plano al cargar la clase y se reintenta con backoff
+ * si Oracle no responde; getConnection() espera a que esté listo con un tiempo acotado.
  */
 public class DBConnectionManager {
     private static final Logger logger = LoggerFactory.getLogger(DBConnectionManager.class);
@@ -19,143 +39,217 @@ public class DBConnectionManager {
     // Verificamos si estamos en entorno de prueba
     private static final boolean IS_TEST_ENV = System.getProperty("test.environment") != null;
     
-    private static HikariDataSource dataSource;
+    private static final String POOL_NAME = "sum-oracle-pool";
     
-    // Inicialización del pool de conexiones
+    // Filas por viaje de red en las consultas que devuelven listas (el driver usa 10 por defecto)
+    private static final int LIST_FETCH_SIZE = getIntSetting("DB_LIST_FETCH_SIZE", 200);
+    
+    // Espera máxima de getConnection() mientras el pool se inicializa en segundo plano
+    private static final long INIT_WAIT_MS = getLongSetting("DB_INIT_WAIT_MS", 10000);
+    private static final long INIT_BACKOFF_INITIAL_MS = getLongSetting("DB_INIT_BACKOFF_INITIAL_MS", 1000);
+    private static final long INIT_BACKOFF_MAX_MS = getLongSetting("DB_INIT_BACKOFF_MAX_MS", 30000);
+    // Conexiones que se abren al terminar la inicialización para que las primeras solicitudes no las creen
+    private static final int PREWARM_CONNECTIONS = getIntSetting("DB_POOL_PREWARM", 1);
+    
+    private static final ScheduledExecutorService initExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "db-pool-init");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private static final AtomicReference<CompletableFuture<HikariDataSource>> readiness = new AtomicReference<>();
+    private static final AtomicInteger initAttempts = new AtomicInteger();
+    
+    private static volatile HikariDataSource dataSource;
+    
+    // La inicialización del pool comienza al cargar la clase, sin bloquear al hilo que la carga
     static {
+        startInitialization();
+    }
+    
+    /**
+     * Inicia la inicialización en segundo plano, salvo que ya esté en curso o terminada con éxito.
+     * Si un intento anterior terminó con error de configuración, se vuelve a intentar.
+     * @return Future que se completa con el datasource listo
+     */
+    public static CompletableFuture<HikariDataSource> startInitialization() {
+        CompletableFuture<HikariDataSource> current = readiness.get();
+        if (current != null && !current.isCompletedExceptionally()) {
+            return current;
+        }
+        CompletableFuture<HikariDataSource> next = new CompletableFuture<>();
+        if (!readiness.compareAndSet(current, next)) {
+            return readiness.get();
+        }
+        initExecutor.execute(() -> attemptInitialization(next, INIT_BACKOFF_INITIAL_MS));
+        return next;
+    }
+    
+    /**
+     * Intenta crear el pool; ante un error de conexión reprograma el intento con backoff exponencial.
+     * Los errores de configuración (variables de entorno o wallet) no se reintentan.
+     */
+    private static void attemptInitialization(CompletableFuture<HikariDataSource> future, long backoffMs) {
+        int attempt = initAttempts.incrementAndGet();
+        long start = System.nanoTime();
+        HikariDataSource created = null;
         try {
-            if (IS_TEST_ENV) {
-                initTestDataSource();
-            } else {
-                initOracleDataSource();
-            }
+            created = IS_TEST_ENV ? createTestDataSource() : createOracleDataSource();
+            prewarm(created);
+            dataSource = created;
+            future.complete(created);
+            logger.info("Pool de conexiones listo en {} ms (intento {})",
+                       TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), attempt);
+        } catch (IllegalStateException e) {
+            logger.error("Configuracion de base de datos invalida: {}", e.getMessage());
+            cerrar(created);
+            future.completeExceptionally(e);
         } catch (Exception e) {
-            logger.error("Error al inicializar el pool de conexiones", e);
-            // No lanzamos excepción para permitir que la aplicación continúe funcionando
-            // Las funciones que no requieren base de datos seguirán operando
+            // Si el pool se creó pero el precalentamiento falló, se cierra antes de reintentar
+            cerrar(created);
+            logger.warn("Intento {} de inicializar el pool fallo: {}. Reintentando en {} ms",
+                       attempt, e.getMessage(), backoffMs);
+            initExecutor.schedule(() -> attemptInitialization(future, Math.min(backoffMs * 2, INIT_BACKOFF_MAX_MS)),
+                    backoffMs, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Cierra un pool que no llegó a publicarse (sin esto sus conexiones y hilos quedarían abiertos).
+     */
+    private static void cerrar(HikariDataSource created) {
+        if (created != null) {
+            try {
+                created.close();
+            } catch (Exception e) {
+                logger.warn("No se pudo cerrar el pool fallido: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Abre una tras otra las conexiones configuradas y las devuelve al pool, donde quedan
+     * inactivas para las primeras solicitudes.
+     */
+    private static void prewarm(HikariDataSource created) throws SQLException {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(PREWARM_CONNECTIONS, created.getMaximumPoolSize()); i++) {
+                connections.add(created.getConnection());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
         }
     }
     
     /**
-     * Inicializa un datasource para pruebas con H2
+     * Crea un datasource para pruebas con H2
      */
-    private static void initTestDataSource() {
+    private static HikariDataSource createTestDataSource() {
         logger.info("Iniciando datasource para entorno de pruebas con H2");
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1");
         config.setUsername("sa");
         config.setPassword("");
         config.setDriverClassName("org.h2.Driver");
+        config.setPoolName(POOL_NAME);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(MetricsRegistry.get()));
         
-        dataSource = new HikariDataSource(config);
-        logger.info("Pool de conexiones para pruebas inicializado correctamente");
+        return new HikariDataSource(config);
     }
     
     /**
-     * Inicializa un datasource para Oracle Cloud
+     * Crea un datasource para Oracle Cloud. El constructor del pool abre la primera
+     * conexión, por lo que un error de red o de credenciales se lanza aquí.
+     * @throws IllegalStateException si faltan variables de entorno o el wallet
      */
-    private static void initOracleDataSource() {
+    private static HikariDataSource createOracleDataSource() {
         logger.info("Iniciando datasource para Oracle Cloud con Wallet");
         
-        try {
-            // Obtener credenciales desde variables de entorno
-            String dbUser = System.getenv("ORACLE_USERNAME");
-            String dbPassword = System.getenv("ORACLE_PASSWORD");
-            String tnsName = System.getenv("ORACLE_TNS_NAME");
-            String walletPath = System.getenv("ORACLE_WALLET_PATH");
-            
-            if (dbUser == null || dbPassword == null || tnsName == null || walletPath == null) {
-                logger.error("Error: Variables de entorno para Oracle no estan definidas correctamente");
-                logger.error("ORACLE_USERNAME: {}, ORACLE_TNS_NAME: {}, ORACLE_WALLET_PATH: {}", 
-                           dbUser != null ? "definido" : "no definido",
-                           tnsName != null ? "definido" : "no definido", 
-                           walletPath != null ? "definido" : "no definido");
-                return;
-            }
-            
-            // Verificar si existe el wallet
-            File walletDir = new File(walletPath);
-            
-            if (!walletDir.exists()) {
-                logger.error("Error: Directorio del Wallet no encontrado en: {}", walletPath);
-                logger.error("Directorio actual: {}", new File(".").getAbsolutePath());
-                // Listar archivos en el directorio actual para debugging
-                File[] files = new File(".").listFiles();
-                if (files != null) {
-                    logger.info("Archivos en el directorio actual:");
-                    for (File file : files) {
-                        logger.info(file.getName() + (file.isDirectory() ? " (directorio)" : ""));
-                    }
-                }
-                return;
-            }
-            
-            logger.info("Wallet encontrado en: {}", walletPath);
-            // Listar archivos en el directorio del wallet para debugging
+        // Obtener credenciales desde variables de entorno
+        String dbUser = System.getenv("ORACLE_USERNAME");
+        String dbPassword = System.getenv("ORACLE_PASSWORD");
+        String tnsName = System.getenv("ORACLE_TNS_NAME");
+        String walletPath = System.getenv("ORACLE_WALLET_PATH");
+        
+        if (dbUser == null || dbPassword == null || tnsName == null || walletPath == null) {
+            logger.error("ORACLE_USERNAME: {}, ORACLE_TNS_NAME: {}, ORACLE_WALLET_PATH: {}", 
+                       dbUser != null ? "definido" : "no definido",
+                       tnsName != null ? "definido" : "no definido", 
+                       walletPath != null ? "definido" : "no definido");
+            throw new IllegalStateException("Variables de entorno para Oracle no estan definidas correctamente");
+        }
+        
+        // Verificar si existe el wallet
+        File walletDir = new File(walletPath);
+        if (!walletDir.exists()) {
+            logger.error("Directorio actual: {}", new File(".").getAbsolutePath());
+            throw new IllegalStateException("Directorio del Wallet no encontrado en: " + walletPath);
+        }
+        
+        if (logger.isDebugEnabled()) {
             File[] walletFiles = walletDir.listFiles();
             if (walletFiles != null) {
-                logger.info("Archivos en el wallet:");
                 for (File file : walletFiles) {
-                    logger.info(file.getName());
+                    logger.debug("Archivo en el wallet: {}", file.getName());
                 }
             }
-            
-            // JDBC URL usando el wallet
-            String jdbcUrl = "jdbc:oracle:thin:@" + tnsName + "?TNS_ADMIN=" + walletPath;
-            
-            logger.info("Configuracion de conexión con Wallet: URL={}, Usuario={}", jdbcUrl, dbUser);
-            
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(jdbcUrl);
-            config.setUsername(dbUser);
-            config.setPassword(dbPassword);
-            config.setDriverClassName("oracle.jdbc.driver.OracleDriver");
-            
-            // Propiedades adicionales para la conexión TLS
-            Properties props = new Properties();
-            props.setProperty("oracle.net.ssl_version", "1.2");
-            props.setProperty("oracle.net.ssl_server_dn_match", "true");
-            config.setDataSourceProperties(props);
-            
-            // Configuración avanzada
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
-            config.setMinimumIdle(1);
-            config.setMaximumPoolSize(5);
-            
-            dataSource = new HikariDataSource(config);
-            logger.info("Pool de conexiones inicializado correctamente");
-            
-            // Validar conexión inmediatamente
-            try (Connection conn = dataSource.getConnection()) {
-                logger.info("¡Conexion a Oracle validada correctamente!");
-            }
-        } catch (Exception e) {
-            logger.error("Error al configurar la conexion Oracle", e);
-            logger.error("Mensaje de error: {}", e.getMessage());
-            if (e.getCause() != null) {
-                logger.error("Causa: {}", e.getCause().getMessage());
-            }
-            if (dataSource != null && !dataSource.isClosed()) {
-                dataSource.close();
-            }
-            dataSource = null;
         }
+        
+        // JDBC URL usando el wallet
+        String jdbcUrl = "jdbc:oracle:thin:@" + tnsName + "?TNS_ADMIN=" + walletPath;
+        
+        logger.info("Configuracion de conexión con Wallet: URL={}, Usuario={}", jdbcUrl, dbUser);
+        
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(dbUser);
+        config.setPassword(dbPassword);
+        config.setDriverClassName("oracle.jdbc.driver.OracleDriver");
+        
+        // Propiedades adicionales para la conexión TLS
+        Properties props = new Properties();
+        props.setProperty("oracle.net.ssl_version", "1.2");
+        props.setProperty("oracle.net.ssl_server_dn_match", "true");
+        // Cache implícito de sentencias por conexión y filas por viaje de red por defecto
+        props.setProperty("oracle.jdbc.implicitStatementCacheSize",
+                String.valueOf(getIntSetting("DB_STATEMENT_CACHE_SIZE", 50)));
+        props.setProperty("defaultRowPrefetch", String.valueOf(getIntSetting("DB_ROW_PREFETCH", 50)));
+        config.setDataSourceProperties(props);
+        
+        // Configuración del pool desde la configuración de la aplicación
+        config.setPoolName(POOL_NAME);
+        config.setMaximumPoolSize(getIntSetting("DB_POOL_MAX_SIZE", 5));
+        config.setMinimumIdle(getIntSetting("DB_POOL_MIN_IDLE", 1));
+        config.setConnectionTimeout(getLongSetting("DB_POOL_CONNECTION_TIMEOUT_MS", 30000));
+        config.setValidationTimeout(getLongSetting("DB_POOL_VALIDATION_TIMEOUT_MS", 5000));
+        config.setIdleTimeout(getLongSetting("DB_POOL_IDLE_TIMEOUT_MS", 600000));
+        config.setMaxLifetime(getLongSetting("DB_POOL_MAX_LIFETIME_MS", 1800000));
+        config.setKeepaliveTime(getLongSetting("DB_POOL_KEEPALIVE_MS", 0));
+        // Avisa en el log si una conexión se mantiene tomada más de este tiempo (0 = desactivado)
+        config.setLeakDetectionThreshold(getLongSetting("DB_POOL_LEAK_DETECTION_MS", 20000));
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(MetricsRegistry.get()));
+        
+        logger.info("Pool de conexiones: maximo={}, minimoInactivas={}, timeoutConexion={} ms, deteccionFugas={} ms",
+                   config.getMaximumPoolSize(), config.getMinimumIdle(),
+                   config.getConnectionTimeout(), config.getLeakDetectionThreshold());
+        
+        return new HikariDataSource(config);
     }
     
     /**
-     * Obtiene una conexión del pool de conexiones.
+     * Obtiene una conexión del pool de conexiones. Si el pool aún se está inicializando,
+     * espera como máximo DB_INIT_WAIT_MS.
      * @return Conexión a la base de datos
-     * @throws SQLException si ocurre un error al obtener la conexión
+     * @throws SQLException si el pool no está listo o ocurre un error al obtener la conexión
      */
     public static Connection getConnection() throws SQLException {
-        if (dataSource == null) {
-            throw new SQLException("El pool de conexiones no ha sido inicializado correctamente");
-        }
+        HikariDataSource ready = awaitDataSource();
         
         try {
-            Connection connection = dataSource.getConnection();
+            Connection connection = ready.getConnection();
             logger.debug("Conexion obtenida del pool correctamente");
             return connection;
         } catch (SQLException e) {
@@ -164,16 +258,109 @@ public class DBConnectionManager {
         }
     }
     
+    private static HikariDataSource awaitDataSource() throws SQLException {
+        HikariDataSource ready = dataSource;
+        if (ready != null) {
+            return ready;
+        }
+        
+        try {
+            return startInitialization().get(INIT_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SQLException("El pool de conexiones aun se esta inicializando (espera de " + INIT_WAIT_MS + " ms agotada)");
+        } catch (ExecutionException e) {
+            throw new SQLException("El pool de conexiones no ha sido inicializado correctamente", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba el pool de conexiones", e);
+        }
+    }
+    
     /**
-     * Comprueba si la base de datos está disponible.
-     * @return true si está disponible, false en caso contrario
+     * Obtiene el estado actual del pool de conexiones y los tiempos de espera por conexión.
+     * @return Mapa con las estadísticas del pool (vacío si el pool no está inicializado)
      */
-    public static boolean isDatabaseAvailable() {
+    public static Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        CompletableFuture<HikariDataSource> current = readiness.get();
+        stats.put("state", dataSource != null ? "READY"
+                : current != null && current.isCompletedExceptionally() ? "FAILED" : "INITIALIZING");
+        stats.put("initAttempts", initAttempts.get());
         if (dataSource == null) {
-            return false;
+            return stats;
+        }
+        
+        stats.put("name", dataSource.getPoolName());
+        stats.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+        stats.put("minimumIdle", dataSource.getMinimumIdle());
+        
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            stats.put("active", pool.getActiveConnections());
+            stats.put("idle", pool.getIdleConnections());
+            stats.put("total", pool.getTotalConnections());
+            stats.put("pending", pool.getThreadsAwaitingConnection());
+        }
+        
+        Timer acquire = MetricsRegistry.get().find("hikaricp.connections.acquire")
+                .tag("pool", POOL_NAME)
+                .timer();
+        if (acquire != null) {
+            Map<String, Object> acquireStats = new LinkedHashMap<>();
+            acquireStats.put("count", acquire.count());
+            acquireStats.put("meanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            acquireStats.put("maxMs", acquire.max(TimeUnit.MILLISECONDS));
+            for (var percentile : acquire.takeSnapshot().percentileValues()) {
+                acquireStats.put("p" + Math.round(percentile.percentile() * 100) + "Ms",
+                        percentile.value(TimeUnit.MILLISECONDS));
+            }
+            stats.put("acquire", acquireStats);
         }
         
-        try (Connection conn = dataSource.getConnection()) {
+        Counter timeouts = MetricsRegistry.get().find("hikaricp.connections.timeout")
+                .tag("pool", POOL_NAME)
+                .counter();
+        stats.put("timeouts", timeouts != null ? timeouts.count() : 0);
+        return stats;
+    }
+    
+    /**
+     * Cantidad de filas a traer por viaje de red en las consultas que devuelven listas.
+     * @return Tamaño de fetch configurado (DB_LIST_FETCH_SIZE)
+     */
+    public static int getListFetchSize() {
+        return LIST_FETCH_SIZE;
+    }
+    
+    /**
+     * Lee un valor entero de la configuración de la aplicación, con valor por defecto.
+     */
+    private static int getIntSetting(String name, int defaultValue) {
+        return (int) getLongSetting(name, defaultValue);
+    }
+    
+    /**
+     * Lee un valor numérico de la configuración de la aplicación, con valor por defecto.
+     */
+    private static long getLongSetting(String name, long defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valor invalido para {}: '{}', se usa {}", name, value, defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Comprueba si la base de datos está disponible.
+     * @return true si está disponible, false en caso contrario
+     */
+    public static boolean isDatabaseAvailable() {
+        try (Connection conn = getConnection()) {
             return true;
         } catch (SQLException e) {
             logger.error("Base de datos no disponible", e);
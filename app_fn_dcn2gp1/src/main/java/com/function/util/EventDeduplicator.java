@@ -0,0 +1,227 @@
+package com.function.util;
+
+import io.micrometer.core.instrument.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Capa de idempotencia para las funciones que consumen eventos de Event Grid.
+ * Event Grid entrega cada evento al menos una vez, así que un reintento puede traer un ID ya
+ * procesado. Cada consumidor revisa primero un conjunto acotado de IDs recientes en memoria
+ * (LRU, sin ir a la base de datos) y luego registra el ID en SUM_EVENTOS_PROCESADOS, cuya
+ * clave primaria (ID_EVENTO, CONSUMIDOR) rechaza las reentregas que llegan a otra instancia.
+ * Los eventos omitidos se cuentan en {@link MetricsRegistry} y se informan en el endpoint de salud.
+ */
+public final class EventDeduplicator {
+    private static final Logger logger = LoggerFactory.getLogger(EventDeduplicator.class);
+
+    // IDs recientes que se recuerdan por consumidor (EVENT_DEDUP_CACHE_SIZE)
+    private static final int CACHE_SIZE = getCacheSize(System.getenv("EVENT_DEDUP_CACHE_SIZE"));
+
+    private static final String METRIC = "eventgrid.eventos";
+    private static final String INSERT_SQL =
+            "INSERT INTO SUM_EVENTOS_PROCESADOS (ID_EVENTO, CONSUMIDOR) VALUES (?, ?)";
+    private static final String DELETE_SQL =
+            "DELETE FROM SUM_EVENTOS_PROCESADOS WHERE ID_EVENTO = ? AND CONSUMIDOR = ?";
+    private static final String PURGA_SQL =
+            "DELETE FROM SUM_EVENTOS_PROCESADOS WHERE FECHA_PROCESO < CURRENT_TIMESTAMP - NUMTODSINTERVAL(?, 'DAY')";
+
+    public static final EventDeduplicator AUDITORIA = new EventDeduplicator("auditoria");
+    public static final EventDeduplicator NOTIFICACIONES = new EventDeduplicator("notificaciones");
+    public static final EventDeduplicator ROL_AUTOMATICO = new EventDeduplicator("rol_automatico");
+
+    private static final EventDeduplicator[] CONSUMIDORES = {AUDITORIA, NOTIFICACIONES, ROL_AUTOMATICO};
+
+    private final String consumidor;
+    private final Map<String, Boolean> recientes;
+    private final Counter procesados;
+    private final Counter duplicadosMemoria;
+    private final Counter duplicadosBd;
+
+    private EventDeduplicator(String consumidor) {
+        this.consumidor = consumidor;
+        this.recientes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        this.procesados = counter("procesado");
+        this.duplicadosMemoria = counter("duplicado_memoria");
+        this.duplicadosBd = counter("duplicado_bd");
+    }
+
+    /**
+     * Indica si el evento ya fue procesado por esta instancia, sin consultar la base de datos.
+     * @param idEvento ID del evento (null si no trae uno)
+     * @return true si el ID está entre los recientes; el duplicado queda contado
+     */
+    public boolean esDuplicadoReciente(String idEvento) {
+        if (idEvento == null) {
+            return false;
+        }
+        boolean duplicado;
+        synchronized (recientes) {
+            duplicado = recientes.get(idEvento) != null;
+        }
+        if (duplicado) {
+            duplicadosMemoria.increment();
+        }
+        return duplicado;
+    }
+
+    /**
+     * Registra el evento como procesado dentro de la transacción del llamador, para que el
+     * registro y el trabajo del evento se confirmen (o se deshagan) juntos.
+     * @param conn Conexión con la transacción en curso
+     * @param idEvento ID del evento (si es null no se registra y se procesa igual)
+     * @return true si el evento es nuevo; false si otra entrega ya lo registró
+     * @throws SQLException Si ocurre un error distinto de la clave duplicada
+     */
+    public boolean registrar(Connection conn, String idEvento) throws SQLException {
+        if (idEvento == null) {
+            procesados.increment();
+            return true;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            stmt.setString(1, idEvento);
+            stmt.setString(2, consumidor);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            if (!esClaveDuplicada(e)) {
+                throw e;
+            }
+            recordar(idEvento);
+            duplicadosBd.increment();
+            return false;
+        }
+        procesados.increment();
+        return true;
+    }
+
+    /**
+     * Revisa la memoria y registra el evento en su propia transacción (consumidores cuyo
+     * trabajo no usa una conexión propia). Si la base de datos no está disponible el evento
+     * se procesa igual: es preferible repetir un efecto a perderlo. Por lo mismo, si el trabajo
+     * falla el llamador debe {@link #liberar(String)} el evento antes de informar el error.
+     * @param idEvento ID del evento
+     * @return true si se debe procesar el evento
+     */
+    public boolean reclamar(String idEvento) {
+        if (esDuplicadoReciente(idEvento)) {
+            return false;
+        }
+        boolean nuevo;
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            nuevo = registrar(conn, idEvento);
+        } catch (SQLException e) {
+            logger.warn("No se pudo registrar el evento {} de {}: {}", idEvento, consumidor, e.getMessage());
+            procesados.increment();
+            return true;
+        }
+        if (nuevo) {
+            recordar(idEvento);
+        }
+        return nuevo;
+    }
+
+    /**
+     * Deshace {@link #reclamar(String)} cuando el trabajo del evento falló: borra el registro y
+     * lo quita de los recientes, para que la reentrega de Event Grid lo vuelva a procesar.
+     * @param idEvento ID del evento (si es null no hay nada que liberar)
+     */
+    public void liberar(String idEvento) {
+        if (idEvento == null) {
+            return;
+        }
+        synchronized (recientes) {
+            recientes.remove(idEvento);
+        }
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+            stmt.setString(1, idEvento);
+            stmt.setString(2, consumidor);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("No se pudo liberar el evento {} de {}; su reentrega se omitira: {}",
+                    idEvento, consumidor, e.getMessage());
+        }
+    }
+
+    /**
+     * Borra los registros más antiguos que la retención indicada (Event Grid reintenta como
+     * máximo 24 horas, así que pasado ese plazo ya no llegan reentregas).
+     * @param diasRetencion Días que se conservan los registros
+     * @return Filas borradas
+     * @throws SQLException Si ocurre un error en la base de datos
+     */
+    public static int purgar(int diasRetencion) throws SQLException {
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(PURGA_SQL)) {
+            stmt.setInt(1, diasRetencion);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Agrega el evento a los recientes de la instancia (después de confirmar su registro).
+     */
+    public void recordar(String idEvento) {
+        if (idEvento == null) {
+            return;
+        }
+        synchronized (recientes) {
+            recientes.put(idEvento, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Contadores por consumidor para el endpoint de salud.
+     */
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheSize", CACHE_SIZE);
+        for (EventDeduplicator dedup : CONSUMIDORES) {
+            Map<String, Object> consumidorStats = new LinkedHashMap<>();
+            consumidorStats.put("procesados", (long) dedup.procesados.count());
+            consumidorStats.put("duplicadosMemoria", (long) dedup.duplicadosMemoria.count());
+            consumidorStats.put("duplicadosBd", (long) dedup.duplicadosBd.count());
+            synchronized (dedup.recientes) {
+                consumidorStats.put("recientes", dedup.recientes.size());
+            }
+            stats.put(dedup.consumidor, consumidorStats);
+        }
+        return stats;
+    }
+
+    private Counter counter(String resultado) {
+        return Counter.builder(METRIC)
+                .tag("consumidor", consumidor)
+                .tag("resultado", resultado)
+                .register(MetricsRegistry.get());
+    }
+
+    // ORA-00001: restricción única violada
+    private static boolean esClaveDuplicada(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException || e.getErrorCode() == 1;
+    }
+
+    private static int getCacheSize(String value) {
+        if (value == null || value.isBlank()) {
+            return 10000;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            logger.warn("EVENT_DEDUP_CACHE_SIZE invalido ({}), se usa 10000", value);
+            return 10000;
+        }
+    }
+}
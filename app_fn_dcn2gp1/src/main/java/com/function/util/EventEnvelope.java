@@ -0,0 +1,135 @@
+package com.function.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Sobre (envelope) de un evento de Event Grid recibido por un trigger.
+ * Se lee en una sola pasada con JsonReader: los campos del sobre se leen como valores
+ * simples y solo el subárbol "data" se materializa como JsonObject, que luego usan
+ * directamente las funciones (sin volver a serializarlo ni parsearlo).
+ */
+public final class EventEnvelope {
+    private final String id;
+    private final String eventType;
+    private final String subject;
+    private final String eventTime;
+    private final String dataVersion;
+    private final JsonObject data;
+
+    private EventEnvelope(String id, String eventType, String subject, String eventTime,
+                          String dataVersion, JsonObject data) {
+        this.id = id;
+        this.eventType = eventType;
+        this.subject = subject;
+        this.eventTime = eventTime;
+        this.dataVersion = dataVersion;
+        this.data = data;
+    }
+
+    /**
+     * Lee el evento recibido por el trigger.
+     * @param content JSON del evento (esquema Event Grid; también acepta "type" de CloudEvents)
+     * @return Evento con su data como JsonObject (vacío si no trae data)
+     * @throws JsonParseException Si el contenido no es un evento válido
+     */
+    public static EventEnvelope parse(String content) {
+        String id = null;
+        String eventType = null;
+        String subject = null;
+        String eventTime = null;
+        String dataVersion = null;
+        JsonObject data = null;
+
+        try (JsonReader reader = new JsonReader(new StringReader(content))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id": id = readString(reader); break;
+                    case "eventType":
+                    case "type": eventType = readString(reader); break;
+                    case "subject": subject = readString(reader); break;
+                    case "eventTime":
+                    case "time": eventTime = readString(reader); break;
+                    case "dataVersion": dataVersion = readString(reader); break;
+                    case "data": data = readData(reader); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonParseException("Evento de Event Grid invalido: " + e.getMessage(), e);
+        }
+
+        if (eventType == null) {
+            throw new JsonParseException("El evento no contiene eventType");
+        }
+        return new EventEnvelope(id, eventType, subject, eventTime, dataVersion,
+                data != null ? data : new JsonObject());
+    }
+
+    // Solo el subárbol data se convierte en árbol; si llega como texto JSON se parsea una vez
+    private static JsonObject readData(JsonReader reader) throws IOException {
+        JsonElement element = reader.peek() == JsonToken.STRING
+                ? JsonParser.parseString(reader.nextString())
+                : JsonParser.parseReader(reader);
+        if (!element.isJsonObject()) {
+            throw new JsonParseException("El campo data del evento no es un objeto JSON");
+        }
+        return element.getAsJsonObject();
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BEGIN_OBJECT || reader.peek() == JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getEventTime() {
+        return eventTime;
+    }
+
+    public String getDataVersion() {
+        return dataVersion;
+    }
+
+    public JsonObject getData() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "EventEnvelope{" +
+                "id='" + id + '\'' +
+                ", eventType='" + eventType + '\'' +
+                ", subject='" + subject + '\'' +
+                ", eventTime='" + eventTime + '\'' +
+                '}';
+    }
+}
@@ -5,10 +5,15 @@ import com.azure.core.util.BinaryData;
 import com.azure.messaging.eventgrid.EventGridEvent;
 import com.azure.messaging.eventgrid.EventGridPublisherClient;
 import com.azure.messaging.eventgrid.EventGridPublisherClientBuilder;
+import com.function.event.EventSchema;
+import com.function.event.EventoDominio;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Clase utilitaria para publicar eventos en Azure Event Grid.
  */
@@ -18,6 +23,9 @@ public class EventGridPublisher {
     private static final String EVENT_GRID_ENDPOINT = "https://usuarios-roles-event.eastus2-1.eventgrid.azure.net/api/events";
     private static final String EVENT_GRID_KEY = "2bcFnyqZYfYUVTk5qrvT7AnAxejCPjKuJ42OD8xePbQrlTbGcxU2JQQJ99BDACHYHv6XJ3w3AAABAZEGTwCq";
     
+    // Event Grid acepta hasta 1 MB por solicitud; los eventos de dominio pesan menos de 1 KB
+    private static final int MAX_EVENTS_PER_REQUEST = 500;
+    
     private static EventGridPublisherClient<EventGridEvent> client;
     
     // Inicializar el cliente
@@ -35,14 +43,14 @@ public class EventGridPublisher {
     }
     
     /**
-     * Publica un evento en Azure Event Grid.
+     * Publica un evento de dominio en Azure Event Grid.
+     * La data se serializa con Gson como JSON compacto según el record del evento y se
+     * publica con la versión de esquema {@link EventSchema#VERSION}.
      * 
-     * @param source Origen del evento (ej. "/usuarios/created")
-     * @param eventType Tipo de evento (ej. "user_created")
-     * @param data Datos del evento
+     * @param evento Evento a publicar (su tipo y subject salen del record)
      * @return true si se publicó correctamente, false en caso contrario
      */
-    public static boolean publishEvent(String source, String eventType, Object data) {
+    public static boolean publishEvent(EventoDominio evento) {
         try {
             if (client == null) {
                 logger.error("Cliente de Event Grid no inicializado");
@@ -51,16 +59,16 @@ public class EventGridPublisher {
             
             // Crear evento
             EventGridEvent event = new EventGridEvent(
-                source,                  // Source
-                eventType,               // Event Type 
-                BinaryData.fromObject(data), // Datos del evento
-                "1.0"                    // Version
+                evento.origen(),                                    // Subject
+                evento.tipo(),                                      // Event Type
+                BinaryData.fromString(EventSchema.toJson(evento)),  // Datos del evento
+                EventSchema.VERSION                                 // Version del esquema
             );
             
             // Publicar evento
             client.sendEvent(event);
             
-            logger.info("Evento publicado correctamente: " + eventType);
+            logger.info("Evento publicado correctamente: " + evento.tipo());
             return true;
             
         } catch (Exception e) {
@@ -68,4 +76,45 @@ public class EventGridPublisher {
             return false;
         }
     }
+    
+    /**
+     * Publica varios eventos de dominio con una solicitud a Event Grid por cada grupo de
+     * {@link #MAX_EVENTS_PER_REQUEST} eventos (en lugar de una solicitud por evento).
+     * 
+     * @param eventos Eventos a publicar
+     * @return Cantidad de eventos publicados correctamente
+     */
+    public static int publishEvents(List<? extends EventoDominio> eventos) {
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+        if (client == null) {
+            logger.error("Cliente de Event Grid no inicializado");
+            return 0;
+        }
+        
+        int publicados = 0;
+        for (int inicio = 0; inicio < eventos.size(); inicio += MAX_EVENTS_PER_REQUEST) {
+            List<? extends EventoDominio> grupo =
+                    eventos.subList(inicio, Math.min(inicio + MAX_EVENTS_PER_REQUEST, eventos.size()));
+            List<EventGridEvent> events = new ArrayList<>(grupo.size());
+            for (EventoDominio evento : grupo) {
+                events.add(new EventGridEvent(
+                    evento.origen(),
+                    evento.tipo(),
+                    BinaryData.fromString(EventSchema.toJson(evento)),
+                    EventSchema.VERSION
+                ));
+            }
+            try {
+                client.sendEvents(events);
+                publicados += events.size();
+            } catch (Exception e) {
+                logger.error("Error al publicar " + events.size() + " eventos en Event Grid", e);
+            }
+        }
+        
+        logger.info("Eventos publicados correctamente: " + publicados + " de " + eventos.size());
+        return publicados;
+    }
 }
\ No newline at end of file
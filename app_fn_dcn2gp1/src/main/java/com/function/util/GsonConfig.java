@@ -1,10 +1,18 @@
 package com.function.util;
 
 import com.google.gson.*;
-import java.lang.reflect.Type;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 public class GsonConfig {
     
@@ -12,47 +20,207 @@ public class GsonConfig {
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
     
+    // Fechas como epoch millis en lugar de texto ISO (JSON_DATE_FORMAT=epoch-millis)
+    private static final boolean EPOCH_MILLIS = "epoch-millis".equalsIgnoreCase(System.getenv("JSON_DATE_FORMAT"));
+    private static final ZoneId DATE_ZONE = parseZone(System.getenv("JSON_DATE_ZONE"));
+    
+    // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn ocupa 29 caracteres
+    private static final ThreadLocal<char[]> ISO_BUFFER = ThreadLocal.withInitial(() -> new char[29]);
+    
+    // Gson es inmutable y seguro entre hilos: se crean una sola vez por instancia
+    private static final Gson GSON = createGson(false);
+    private static final Gson PRETTY_GSON = createGson(true);
+    
     /**
-     * Configura un Gson con adaptadores para tipos de fecha y hora de Java 8+
+     * Gson compartido con salida compacta y adaptadores para fechas y modelos
      * @return Instancia de Gson configurada
      */
     public static Gson getGson() {
-        return new GsonBuilder()
-            .setPrettyPrinting()
+        return GSON;
+    }
+    
+    /**
+     * Gson compartido con salida indentada (solo para depuración)
+     * @return Instancia de Gson configurada con pretty printing
+     */
+    public static Gson getPrettyGson() {
+        return PRETTY_GSON;
+    }
+    
+    /**
+     * Zona en la que se interpretan las fechas de la base de datos (JSON_DATE_ZONE)
+     * @return Zona configurada, o la del sistema
+     */
+    public static ZoneId getDateZone() {
+        return DATE_ZONE;
+    }
+    
+    /**
+     * Serializa el cuerpo de una respuesta HTTP: compacto por defecto e indentado
+     * si la solicitud incluye ?pretty=true.
+     * @param request Solicitud HTTP recibida
+     * @param src Objeto a serializar
+     * @return JSON del objeto
+     */
+    public static String toJson(HttpRequestMessage<?> request, Object src) {
+        return isPretty(request) ? PRETTY_GSON.toJson(src) : GSON.toJson(src);
+    }
+    
+    private static boolean isPretty(HttpRequestMessage<?> request) {
+        return request != null && request.getQueryParameters() != null
+                && "true".equalsIgnoreCase(request.getQueryParameters().get("pretty"));
+    }
+    
+    private static Gson createGson(boolean pretty) {
+        GsonBuilder builder = new GsonBuilder()
             .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
             .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .create();
+            .registerTypeAdapterFactory(new ModelTypeAdapterFactory());
+        if (pretty) {
+            builder.setPrettyPrinting();
+        }
+        return builder.create();
     }
     
     /**
-     * Adaptador para serializar/deserializar LocalDateTime
+     * Adaptador de streaming para LocalDateTime. Escribe la fecha directo en el JsonWriter
+     * con el mismo formato que ISO_LOCAL_DATE_TIME (sin JsonPrimitive ni DateTimeFormatter),
+     * o como epoch millis si JSON_DATE_FORMAT=epoch-millis (zona JSON_DATE_ZONE, por defecto
+     * la del sistema). Al leer acepta ambos formatos.
      */
-    public static class LocalDateTimeAdapter implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
+    public static class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
+        
+        private final boolean epochMillis;
+        private final ZoneId zone;
+        
+        public LocalDateTimeAdapter() {
+            this(EPOCH_MILLIS, DATE_ZONE);
+        }
+        
+        // Formato y zona explícitos, para las pruebas de ambos modos
+        LocalDateTimeAdapter(boolean epochMillis, ZoneId zone) {
+            this.epochMillis = epochMillis;
+            this.zone = zone;
+        }
         
         @Override
-        public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext context) {
-            return new JsonPrimitive(src.format(DATE_TIME_FORMATTER));
+        public void write(JsonWriter out, LocalDateTime src) throws IOException {
+            if (src == null) {
+                out.nullValue();
+            } else if (epochMillis) {
+                out.value(src.atZone(zone).toInstant().toEpochMilli());
+            } else {
+                out.value(formatIsoDateTime(src));
+            }
         }
         
         @Override
-        public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            return LocalDateTime.parse(json.getAsString(), DATE_TIME_FORMATTER);
+        public LocalDateTime read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.NUMBER) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(in.nextLong()), zone);
+            }
+            String value = in.nextString();
+            try {
+                return LocalDateTime.parse(value, DATE_TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new JsonParseException("Fecha y hora invalida: " + value, e);
+            }
         }
     }
     
     /**
-     * Adaptador para serializar/deserializar LocalDate
+     * Adaptador de streaming para LocalDate (formato ISO_LOCAL_DATE)
      */
-    public static class LocalDateAdapter implements JsonSerializer<LocalDate>, JsonDeserializer<LocalDate> {
+    public static class LocalDateAdapter extends TypeAdapter<LocalDate> {
         
         @Override
-        public JsonElement serialize(LocalDate src, Type typeOfSrc, JsonSerializationContext context) {
-            return new JsonPrimitive(src.format(DATE_FORMATTER));
+        public void write(JsonWriter out, LocalDate src) throws IOException {
+            if (src == null) {
+                out.nullValue();
+            } else {
+                char[] buffer = ISO_BUFFER.get();
+                int length = writeIsoDate(buffer, src.getYear(), src.getMonthValue(), src.getDayOfMonth());
+                out.value(length < 0 ? src.format(DATE_FORMATTER) : new String(buffer, 0, length));
+            }
         }
         
         @Override
-        public LocalDate deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            return LocalDate.parse(json.getAsString(), DATE_FORMATTER);
+        public LocalDate read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String value = in.nextString();
+            try {
+                return LocalDate.parse(value, DATE_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new JsonParseException("Fecha invalida: " + value, e);
+            }
+        }
+    }
+    
+    /**
+     * Formatea igual que ISO_LOCAL_DATE_TIME (segundos siempre presentes y fracción sin
+     * ceros finales) usando un buffer por hilo. Los años fuera de 0000-9999 usan el formatter.
+     */
+    static String formatIsoDateTime(LocalDateTime src) {
+        char[] buffer = ISO_BUFFER.get();
+        int pos = writeIsoDate(buffer, src.getYear(), src.getMonthValue(), src.getDayOfMonth());
+        if (pos < 0) {
+            return src.format(DATE_TIME_FORMATTER);
+        }
+        buffer[pos++] = 'T';
+        pos = writeTwoDigits(buffer, pos, src.getHour());
+        buffer[pos++] = ':';
+        pos = writeTwoDigits(buffer, pos, src.getMinute());
+        buffer[pos++] = ':';
+        pos = writeTwoDigits(buffer, pos, src.getSecond());
+        int nano = src.getNano();
+        if (nano > 0) {
+            buffer[pos++] = '.';
+            int divisor = 100_000_000;
+            while (nano > 0) {
+                int digit = nano / divisor;
+                buffer[pos++] = (char) ('0' + digit);
+                nano -= digit * divisor;
+                divisor /= 10;
+            }
+        }
+        return new String(buffer, 0, pos);
+    }
+    
+    // Escribe yyyy-MM-dd al inicio del buffer; -1 si el año no tiene 4 dígitos
+    private static int writeIsoDate(char[] buffer, int year, int month, int day) {
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        buffer[0] = (char) ('0' + year / 1000);
+        buffer[1] = (char) ('0' + year / 100 % 10);
+        buffer[2] = (char) ('0' + year / 10 % 10);
+        buffer[3] = (char) ('0' + year % 10);
+        buffer[4] = '-';
+        writeTwoDigits(buffer, 5, month);
+        buffer[7] = '-';
+        writeTwoDigits(buffer, 8, day);
+        return 10;
+    }
+    
+    private static int writeTwoDigits(char[] buffer, int pos, int value) {
+        buffer[pos] = (char) ('0' + value / 10);
+        buffer[pos + 1] = (char) ('0' + value % 10);
+        return pos + 2;
+    }
+    
+    private static ZoneId parseZone(String value) {
+        try {
+            return value == null || value.isBlank() ? ZoneId.systemDefault() : ZoneId.of(value.trim());
+        } catch (DateTimeException e) {
+            return ZoneId.systemDefault();
         }
     }
 }
\ No newline at end of file
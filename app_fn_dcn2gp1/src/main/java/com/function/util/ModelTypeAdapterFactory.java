@@ -0,0 +1,223 @@
+package com.function.util;
+
+import com.function.model.Response;
+import com.function.model.Rol;
+import com.function.model.Usuario;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+
+/**
+ * Adaptadores de Gson escritos a mano para los modelos de la API.
+ * Leen y escriben directamente sobre el stream (sin reflexión ni árbol JsonElement) y
+ * producen el mismo JSON que la serialización por reflexión: campos en orden de
+ * declaración y sin los valores nulos.
+ */
+public class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Usuario.class) {
+            return (TypeAdapter<T>) new UsuarioAdapter(gson.getAdapter(LocalDateTime.class)).nullSafe();
+        }
+        if (rawType == Rol.class) {
+            return (TypeAdapter<T>) new RolAdapter(gson.getAdapter(LocalDateTime.class)).nullSafe();
+        }
+        if (rawType == Response.class) {
+            return (TypeAdapter<T>) new ResponseAdapter(gson, dataType(type.getType())).nullSafe();
+        }
+        return null;
+    }
+
+    // Tipo declarado de "data" en Response<T>; Object si se usa el tipo crudo
+    private static Type dataType(Type responseType) {
+        if (responseType instanceof ParameterizedType) {
+            return ((ParameterizedType) responseType).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    private static class UsuarioAdapter extends TypeAdapter<Usuario> {
+        private final TypeAdapter<LocalDateTime> dateTimeAdapter;
+
+        UsuarioAdapter(TypeAdapter<LocalDateTime> dateTimeAdapter) {
+            this.dateTimeAdapter = dateTimeAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Usuario usuario) throws IOException {
+            out.beginObject();
+            writeLong(out, "idUsuario", usuario.getIdUsuario());
+            writeString(out, "username", usuario.getUsername());
+            writeString(out, "email", usuario.getEmail());
+            writeString(out, "nombre", usuario.getNombre());
+            writeString(out, "apellido", usuario.getApellido());
+            writeString(out, "passwordHash", usuario.getPasswordHash());
+            writeDateTime(out, dateTimeAdapter, "fechaCreacion", usuario.getFechaCreacion());
+            writeDateTime(out, dateTimeAdapter, "fechaModificacion", usuario.getFechaModificacion());
+            writeDateTime(out, dateTimeAdapter, "ultimoLogin", usuario.getUltimoLogin());
+            out.name("activo").value(usuario.isActivo());
+            out.endObject();
+        }
+
+        @Override
+        public Usuario read(JsonReader in) throws IOException {
+            Usuario usuario = new Usuario();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "idUsuario": usuario.setIdUsuario(in.nextLong()); break;
+                    case "username": usuario.setUsername(in.nextString()); break;
+                    case "email": usuario.setEmail(in.nextString()); break;
+                    case "nombre": usuario.setNombre(in.nextString()); break;
+                    case "apellido": usuario.setApellido(in.nextString()); break;
+                    case "passwordHash": usuario.setPasswordHash(in.nextString()); break;
+                    case "fechaCreacion": usuario.setFechaCreacion(dateTimeAdapter.read(in)); break;
+                    case "fechaModificacion": usuario.setFechaModificacion(dateTimeAdapter.read(in)); break;
+                    case "ultimoLogin": usuario.setUltimoLogin(dateTimeAdapter.read(in)); break;
+                    case "activo": usuario.setActivo(readBoolean(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return usuario;
+        }
+    }
+
+    private static class RolAdapter extends TypeAdapter<Rol> {
+        private final TypeAdapter<LocalDateTime> dateTimeAdapter;
+
+        RolAdapter(TypeAdapter<LocalDateTime> dateTimeAdapter) {
+            this.dateTimeAdapter = dateTimeAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Rol rol) throws IOException {
+            out.beginObject();
+            writeLong(out, "idRol", rol.getIdRol());
+            writeString(out, "nombre", rol.getNombre());
+            writeString(out, "descripcion", rol.getDescripcion());
+            writeDateTime(out, dateTimeAdapter, "fechaCreacion", rol.getFechaCreacion());
+            writeDateTime(out, dateTimeAdapter, "fechaModificacion", rol.getFechaModificacion());
+            out.name("activo").value(rol.isActivo());
+            out.endObject();
+        }
+
+        @Override
+        public Rol read(JsonReader in) throws IOException {
+            Rol rol = new Rol();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "idRol": rol.setIdRol(in.nextLong()); break;
+                    case "nombre": rol.setNombre(in.nextString()); break;
+                    case "descripcion": rol.setDescripcion(in.nextString()); break;
+                    case "fechaCreacion": rol.setFechaCreacion(dateTimeAdapter.read(in)); break;
+                    case "fechaModificacion": rol.setFechaModificacion(dateTimeAdapter.read(in)); break;
+                    case "activo": rol.setActivo(readBoolean(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return rol;
+        }
+    }
+
+    private static class ResponseAdapter extends TypeAdapter<Response<?>> {
+        private final Gson gson;
+        private final Type dataType;
+
+        ResponseAdapter(Gson gson, Type dataType) {
+            this.gson = gson;
+            this.dataType = dataType;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void write(JsonWriter out, Response<?> response) throws IOException {
+            out.beginObject();
+            out.name("success").value(response.isSuccess());
+            writeString(out, "message", response.getMessage());
+            Object data = response.getData();
+            if (data != null) {
+                // Igual que Gson por reflexión: se usa el tipo real del valor
+                TypeAdapter<Object> adapter = (TypeAdapter<Object>) gson.getAdapter(data.getClass());
+                out.name("data");
+                adapter.write(out, data);
+            }
+            writeString(out, "error", response.getError());
+            out.endObject();
+        }
+
+        @Override
+        public Response<?> read(JsonReader in) throws IOException {
+            Response<Object> response = new Response<>(false, null, (Object) null);
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "success": response.setSuccess(readBoolean(in)); break;
+                    case "message": response.setMessage(in.nextString()); break;
+                    case "data": response.setData(gson.getAdapter(TypeToken.get(dataType)).read(in)); break;
+                    case "error": response.setError(in.nextString()); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return response;
+        }
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeLong(JsonWriter out, String name, Long value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.longValue());
+        }
+    }
+
+    private static void writeDateTime(JsonWriter out, TypeAdapter<LocalDateTime> adapter,
+                                      String name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            out.name(name);
+            adapter.write(out, value);
+        }
+    }
+
+    // Acepta true/false y también "true"/"false", como el adaptador de Gson para boolean
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+}
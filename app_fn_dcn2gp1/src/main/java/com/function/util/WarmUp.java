@@ -0,0 +1,120 @@
+package com.function.util;
+
+import com.function.dao.DaoWarmUp;
+import com.function.model.Response;
+import com.function.model.Rol;
+import com.function.model.Usuario;
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Calentamiento de la instancia: carga y ejercita la serialización con Gson, el mapeo
+ * de los DAO y el SDK de Event Grid antes de recibir tráfico real, para que la primera
+ * solicitud no pague la carga de clases ni se ejecute en modo interpretado.
+ * Se desactiva con WARMUP_ENABLED=false (útil para comparar el tiempo de la primera respuesta).
+ */
+public final class WarmUp {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+    
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getenv("WARMUP_ENABLED"));
+    private static final int ITERATIONS = parseIterations(System.getenv("WARMUP_ITERATIONS"));
+    
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static volatile long elapsedMs = -1;
+    private static volatile long completedAtUptimeMs = -1;
+    
+    private WarmUp() {
+    }
+    
+    /**
+     * Inicia el calentamiento en un hilo de fondo la primera vez que se invoca.
+     */
+    public static void startInBackground() {
+        if (!ENABLED || !started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(WarmUp::execute, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Ejecuta el calentamiento en el hilo actual (o espera a que termine el que está en curso).
+     * @return Duración del calentamiento en milisegundos, o -1 si está desactivado
+     */
+    public static long run() {
+        if (!ENABLED) {
+            return -1;
+        }
+        started.set(true);
+        execute();
+        return elapsedMs;
+    }
+    
+    /**
+     * Estado del calentamiento para el endpoint de salud.
+     */
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ENABLED);
+        stats.put("iterations", ITERATIONS);
+        stats.put("elapsedMs", elapsedMs);
+        stats.put("completedAtUptimeMs", completedAtUptimeMs);
+        return stats;
+    }
+    
+    private static synchronized void execute() {
+        if (elapsedMs >= 0) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            // El pool se crea en paralelo mientras se calienta el resto
+            DBConnectionManager.startInitialization();
+            
+            Gson gson = GsonConfig.getGson();
+            Usuario usuario = new Usuario(1L, "warmup", "warmup@example.com", "Warm", "Up", null,
+                    LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now(), true);
+            Rol rol = new Rol("WARMUP", "Rol de calentamiento");
+            rol.setIdRol(1L);
+            rol.setFechaCreacion(LocalDateTime.now());
+            
+            for (int i = 0; i < ITERATIONS; i++) {
+                gson.toJson(Response.success("warmup", List.of(usuario)));
+                gson.fromJson(gson.toJson(usuario), Usuario.class);
+                gson.fromJson(gson.toJson(rol), Rol.class);
+                gson.toJson(Response.error("warmup", "warmup"));
+            }
+            
+            DaoWarmUp.run(ITERATIONS);
+            
+            // Carga del SDK de Event Grid y del driver de Oracle
+            Class.forName(EventGridPublisher.class.getName(), true, WarmUp.class.getClassLoader());
+            Class.forName("oracle.jdbc.OracleDriver", true, WarmUp.class.getClassLoader());
+        } catch (Throwable e) {
+            logger.warn("Calentamiento incompleto: {}", e.toString());
+        } finally {
+            elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            completedAtUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+            logger.info("Calentamiento terminado en {} ms ({} iteraciones, uptime {} ms)",
+                       elapsedMs, ITERATIONS, completedAtUptimeMs);
+        }
+    }
+    
+    private static int parseIterations(String value) {
+        try {
+            return value == null ? 2000 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 2000;
+        }
+    }
+}
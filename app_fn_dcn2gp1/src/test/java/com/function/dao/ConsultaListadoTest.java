@@ -0,0 +1,144 @@
+package com.function.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SQL generado por ConsultaListado: campos validados contra las columnas, desempate por la
+ * clave primaria en el ORDER BY y escape de los comodines de LIKE en q.
+ */
+public class ConsultaListadoTest {
+
+    private static final Map<String, ConsultaListado.Columna> COLUMNAS = columnas();
+    private static final List<String> BUSQUEDA = List.of("username", "email");
+
+    @Test
+    public void rechazaCamposFueraDeLasColumnas() {
+        ConsultaListado fields = consulta("fields", "idUsuario,password");
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> fields.select(COLUMNAS));
+        assertEquals("Campo desconocido en fields: password", error.getMessage());
+
+        // El nombre de la columna SQL no es un campo JSON
+        ConsultaListado columnaSql = consulta("fields", "id_usuario");
+        assertThrows(IllegalArgumentException.class, () -> columnaSql.select(COLUMNAS));
+
+        ConsultaListado inyeccion = consulta("sort", "username;DROP TABLE sum_usuarios");
+        error = assertThrows(IllegalArgumentException.class, () -> inyeccion.orderBy(COLUMNAS, "idUsuario"));
+        assertEquals("No se puede ordenar por el campo: username;DROP TABLE sum_usuarios", error.getMessage());
+    }
+
+    @Test
+    public void selectRespetaElOrdenPedidoSinRepetidos() {
+        assertEquals("email, id_usuario", consulta("fields", "email, idUsuario,,email").select(COLUMNAS));
+    }
+
+    @Test
+    public void orderByTerminaEnLaClavePrimaria() {
+        assertEquals(" ORDER BY id_usuario ASC", consulta("sort", null).orderBy(COLUMNAS, "idUsuario"));
+        assertEquals(" ORDER BY username DESC, id_usuario ASC",
+                consulta("sort", "-username").orderBy(COLUMNAS, "idUsuario"));
+        assertEquals(" ORDER BY activo ASC, fecha_creacion DESC, id_usuario ASC",
+                consulta("sort", "activo,-fechaCreacion").orderBy(COLUMNAS, "idUsuario"));
+    }
+
+    @Test
+    public void orderByNoRepiteLaClavePrimariaSiYaEstaEnElOrden() {
+        assertEquals(" ORDER BY id_usuario DESC", consulta("sort", "-idUsuario").orderBy(COLUMNAS, "idUsuario"));
+        assertEquals(" ORDER BY email ASC, id_usuario ASC",
+                consulta("sort", "email,idUsuario").orderBy(COLUMNAS, "idUsuario"));
+    }
+
+    @Test
+    public void whereEscapaLosComodinesDeLike() {
+        List<Object> valores = new ArrayList<>();
+        String where = consulta("q", "Ana_50%\\x").where(COLUMNAS, BUSQUEDA, valores);
+
+        assertEquals(" WHERE (LOWER(username) LIKE ? ESCAPE '\\' OR LOWER(email) LIKE ? ESCAPE '\\')", where);
+        assertEquals(List.of("ana\\_50\\%\\\\x%", "ana\\_50\\%\\\\x%"), valores);
+    }
+
+    @Test
+    public void likeEscapadoSoloCoincideConElTextoLiteral() throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:consulta_listado");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE sum_usuarios (id_usuario BIGINT PRIMARY KEY, username VARCHAR(50))");
+            stmt.execute("INSERT INTO sum_usuarios VALUES (1, 'ana_50%'), (2, 'anax50abc'), (3, 'ana\\b'), (4, 'anab')");
+
+            assertEquals(List.of(1L), buscar(conn, "ANA_50%"));
+            assertEquals(List.of(3L), buscar(conn, "ana\\"));
+            assertEquals(List.of(1L, 2L, 3L, 4L), buscar(conn, "ana"));
+        }
+    }
+
+    @Test
+    public void whereEnlazaLosFiltrosEnOrden() {
+        List<Object> valores = new ArrayList<>();
+        ConsultaListado consulta = ConsultaListado.desdeParametros(Map.of(
+                "activo", "TRUE", "dominio", "@Duoc.CL", "createdAfter", "2024-01-01"));
+
+        assertEquals(" WHERE activo = ? AND LOWER(SUBSTR(email, INSTR(email, '@') + 1)) = ? AND fecha_creacion > ?",
+                consulta.where(COLUMNAS, BUSQUEDA, valores));
+        assertEquals(List.of(1, "duoc.cl", Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0))), valores);
+    }
+
+    @Test
+    public void rechazaValoresConFormatoInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> consulta("activo", "si"));
+        assertThrows(IllegalArgumentException.class, () -> consulta("createdAfter", "01-01-2024"));
+
+        // dominio solo aplica a entidades con email
+        Map<String, ConsultaListado.Columna> roles = new LinkedHashMap<>();
+        roles.put("idRol", new ConsultaListado.Columna("id_rol", Long.class));
+        roles.put("nombre", new ConsultaListado.Columna("nombre", String.class));
+        ConsultaListado dominio = consulta("dominio", "duoc.cl");
+        assertThrows(IllegalArgumentException.class, () -> dominio.where(roles, List.of("nombre"), new ArrayList<>()));
+    }
+
+    private static List<Long> buscar(Connection conn, String q) throws SQLException {
+        List<Object> valores = new ArrayList<>();
+        ConsultaListado consulta = consulta("q", q);
+        String sql = "SELECT id_usuario FROM sum_usuarios" + consulta.where(COLUMNAS, List.of("username"), valores)
+                + consulta.orderBy(COLUMNAS, "idUsuario");
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ConsultaListado.enlazar(stmt, valores);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static ConsultaListado consulta(String parametro, String valor) {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        parametros.put(parametro, valor);
+        return ConsultaListado.desdeParametros(parametros);
+    }
+
+    private static Map<String, ConsultaListado.Columna> columnas() {
+        Map<String, ConsultaListado.Columna> columnas = new LinkedHashMap<>();
+        columnas.put("idUsuario", new ConsultaListado.Columna("id_usuario", Long.class));
+        columnas.put("username", new ConsultaListado.Columna("username", String.class));
+        columnas.put("email", new ConsultaListado.Columna("email", String.class));
+        columnas.put("fechaCreacion", new ConsultaListado.Columna("fecha_creacion", LocalDateTime.class));
+        columnas.put("activo", new ConsultaListado.Columna("activo", Boolean.class));
+        return columnas;
+    }
+}
@@ -0,0 +1,111 @@
+package com.function.util;
+
+import com.function.HttpResponseMessageMock;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Evaluación de If-None-Match, If-Match e If-Modified-Since de ConditionalRequests.
+ */
+public class ConditionalRequestsTest {
+
+    private static final Long ID = 7L;
+    // Con fracción de segundo: Last-Modified solo tiene precisión de segundos
+    private static final LocalDateTime VERSION = LocalDateTime.of(2026, 1, 15, 8, 30, 5, 750_000_000);
+    private static final String ETAG = ConditionalRequests.etag(ID, VERSION);
+
+    @Test
+    public void etagCambiaConLaVersion() {
+        assertEquals(34, ETAG.length());
+        assertTrue(ETAG.startsWith("\"") && ETAG.endsWith("\""));
+        assertEquals(ETAG, ConditionalRequests.etag(ID, VERSION));
+        assertFalse(ETAG.equals(ConditionalRequests.etag(ID, VERSION.plusNanos(1000))));
+        assertFalse(ETAG.equals(ConditionalRequests.etag(8L, VERSION)));
+    }
+
+    @Test
+    public void ifNoneMatchUsaComparacionDebil() {
+        assertTrue(ConditionalRequests.noModificado(request("If-None-Match", ETAG), ID, VERSION));
+        assertTrue(ConditionalRequests.noModificado(request("If-None-Match", "W/" + ETAG), ID, VERSION));
+        assertTrue(ConditionalRequests.noModificado(request("if-none-match", "\"otro\", W/" + ETAG), ID, VERSION));
+        assertFalse(ConditionalRequests.noModificado(request("If-None-Match", "\"otro\""), ID, VERSION));
+        // Sin comillas no es el mismo ETag
+        assertFalse(ConditionalRequests.noModificado(request("If-None-Match", ETAG.replace("\"", "")), ID, VERSION));
+    }
+
+    @Test
+    public void ifMatchUsaComparacionFuerte() {
+        assertTrue(ConditionalRequests.cumpleIfMatch(request("If-Match", ETAG), ID, VERSION));
+        assertTrue(ConditionalRequests.cumpleIfMatch(request("If-Match", "\"otro\" , " + ETAG), ID, VERSION));
+        assertFalse(ConditionalRequests.cumpleIfMatch(request("If-Match", "W/" + ETAG), ID, VERSION));
+        assertFalse(ConditionalRequests.cumpleIfMatch(request("If-Match", ConditionalRequests.etag(ID, VERSION.minusSeconds(1))),
+                ID, VERSION));
+        // Sin If-Match la actualización no es condicional
+        assertTrue(ConditionalRequests.cumpleIfMatch(request(null, null), ID, VERSION));
+    }
+
+    @Test
+    public void asteriscoCoincideSoloSiElRecursoExiste() {
+        assertTrue(ConditionalRequests.noModificado(request("If-None-Match", "*"), ID, VERSION));
+        assertTrue(ConditionalRequests.cumpleIfMatch(request("If-Match", "*"), ID, VERSION));
+        assertFalse(ConditionalRequests.noModificado(request("If-None-Match", "*"), ID, null));
+        assertFalse(ConditionalRequests.cumpleIfMatch(request("If-Match", "*"), ID, null));
+    }
+
+    @Test
+    public void ifModifiedSinceTruncaLaVersionASegundos() {
+        HttpResponseMessage respuesta = ConditionalRequests.conVersion(
+                new HttpResponseMessageMock.HttpResponseMessageBuilderMock().status(HttpStatus.OK), ID, VERSION).build();
+        String lastModified = respuesta.getHeader("Last-Modified");
+        assertEquals(ETAG, respuesta.getHeader("ETag"));
+
+        // El mismo Last-Modified que se envió: la fracción de segundo no cuenta como modificación
+        assertTrue(ConditionalRequests.noModificado(request("If-Modified-Since", lastModified), ID, VERSION));
+        assertTrue(ConditionalRequests.noModificado(request("If-Modified-Since", fechaHttp(VERSION.plusSeconds(1))), ID, VERSION));
+        assertFalse(ConditionalRequests.noModificado(request("If-Modified-Since", fechaHttp(VERSION.minusSeconds(1))), ID, VERSION));
+        assertFalse(ConditionalRequests.noModificado(request("If-Modified-Since", "ayer"), ID, VERSION));
+    }
+
+    @Test
+    public void ifNoneMatchTienePrioridadSobreIfModifiedSince() {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("If-None-Match", "\"otro\"");
+        headers.put("If-Modified-Since", fechaHttp(VERSION.plusDays(1)));
+        assertFalse(ConditionalRequests.noModificado(request(headers), ID, VERSION));
+    }
+
+    private static String fechaHttp(LocalDateTime fecha) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                fecha.atZone(GsonConfig.getDateZone()).withZoneSameInstant(ZoneOffset.UTC));
+    }
+
+    private static HttpRequestMessage<Optional<String>> request(String nombre, String valor) {
+        Map<String, String> headers = new HashMap<>();
+        if (nombre != null) {
+            headers.put(nombre, valor);
+        }
+        return request(headers);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpRequestMessage<Optional<String>> request(Map<String, String> headers) {
+        HttpRequestMessage<Optional<String>> request = mock(HttpRequestMessage.class);
+        when(request.getHeaders()).thenReturn(headers);
+        return request;
+    }
+}
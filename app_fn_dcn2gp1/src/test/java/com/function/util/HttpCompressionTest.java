@@ -0,0 +1,102 @@
+package com.function.util;
+
+import com.function.HttpResponseMessageMock;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Negociación de Accept-Encoding y compresión del cuerpo en HttpCompression.
+ */
+public class HttpCompressionTest {
+
+    @Test
+    public void aceptaGzipConQMayorQueCero() {
+        assertTrue(HttpCompression.aceptaGzip(request("gzip")));
+        assertTrue(HttpCompression.aceptaGzip(request("deflate, GZIP")));
+        assertTrue(HttpCompression.aceptaGzip(request("br;q=1.0, gzip;q=0.5")));
+        assertTrue(HttpCompression.aceptaGzip(request("x-gzip")));
+        assertTrue(HttpCompression.aceptaGzip(request("gzip ; Q=0.001")));
+        // q inválido cuenta como 1
+        assertTrue(HttpCompression.aceptaGzip(request("gzip;q=abc")));
+    }
+
+    @Test
+    public void rechazaGzipConQCero() {
+        assertFalse(HttpCompression.aceptaGzip(request("gzip;q=0")));
+        assertFalse(HttpCompression.aceptaGzip(request("gzip;q=0.0, deflate")));
+        // Si gzip aparece dos veces vale el mayor q
+        assertTrue(HttpCompression.aceptaGzip(request("gzip;q=0, x-gzip;q=0.8")));
+    }
+
+    @Test
+    public void comodinSoloAplicaSiGzipNoSeNombra() {
+        assertTrue(HttpCompression.aceptaGzip(request("*")));
+        assertTrue(HttpCompression.aceptaGzip(request("br, *;q=0.1")));
+        assertFalse(HttpCompression.aceptaGzip(request("*;q=0")));
+        assertFalse(HttpCompression.aceptaGzip(request("gzip;q=0, *")));
+        assertTrue(HttpCompression.aceptaGzip(request("gzip, *;q=0")));
+    }
+
+    @Test
+    public void sinEncabezadoNoComprime() {
+        assertFalse(HttpCompression.aceptaGzip(request(null)));
+        assertFalse(HttpCompression.aceptaGzip(request("identity")));
+        assertFalse(HttpCompression.aceptaGzip(request("br, deflate")));
+    }
+
+    @Test
+    public void bodyComprimeSoloCuerposGrandes() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"idUsuario\":").append(i).append(",\"username\":\"usuario").append(i).append("\"}");
+        }
+        String grande = json.append(']').toString();
+
+        HttpResponseMessage comprimida = HttpCompression.body(request("gzip"), builder(), grande).build();
+        assertEquals("gzip", comprimida.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", comprimida.getHeader("Vary"));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream((byte[]) comprimida.getBody()))) {
+            assertEquals(grande, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        HttpResponseMessage sinGzip = HttpCompression.body(request("gzip;q=0"), builder(), grande).build();
+        assertNull(sinGzip.getHeader("Content-Encoding"));
+        assertEquals(grande, sinGzip.getBody());
+
+        HttpResponseMessage chica = HttpCompression.body(request("gzip"), builder(), "{\"ok\":true}").build();
+        assertNull(chica.getHeader("Content-Encoding"));
+        assertEquals("{\"ok\":true}", chica.getBody());
+    }
+
+    private static HttpResponseMessage.Builder builder() {
+        return new HttpResponseMessageMock.HttpResponseMessageBuilderMock().status(HttpStatus.OK);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpRequestMessage<Optional<String>> request(String acceptEncoding) {
+        Map<String, String> headers = new HashMap<>();
+        if (acceptEncoding != null) {
+            headers.put("accept-encoding", acceptEncoding);
+        }
+        HttpRequestMessage<Optional<String>> request = mock(HttpRequestMessage.class);
+        when(request.getHeaders()).thenReturn(headers);
+        return request;
+    }
+}
@@ -0,0 +1,196 @@
+package com.function.util;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Viajes de red de un listado de usuarios (1000 filas) y de una búsqueda por ID contra H2 en modo servidor TCP, con el
+ * fetch size por defecto del driver de Oracle (10), DB_ROW_PREFETCH (50) y DB_LIST_FETCH_SIZE (200),
+ * sin y con cache de sentencias. Entre el cliente y H2 hay un proxy que cuenta los viajes (cada
+ * vez que el cliente vuelve a enviar después de recibir) y agrega 1 ms por viaje, como una red real.
+ * El cache se reproduce reutilizando la sentencia preparada, como hace el cache implícito de Oracle
+ * al cerrarla (DB_STATEMENT_CACHE_SIZE): sin cache cada llamada vuelve a preparar la consulta.
+ * El cliente de H2 fija el tamaño del primer lote al preparar la sentencia (h2.serverResultSetFetchSize,
+ * aquí 10 como el driver de Oracle) y aplica el fetch size a los lotes siguientes desde el ResultSet.
+ *
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main JdbcRoundTripBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dh2.serverResultSetFetchSize=10")
+public class JdbcRoundTripBenchmark {
+
+    private static final int FILAS = 1000;
+    private static final long LATENCIA_MS = 1;
+    private static final String LISTADO = "SELECT id_usuario, username, email, nombre, apellido, fecha_creacion, "
+            + "fecha_modificacion, ultimo_login, activo FROM sum_usuarios ORDER BY id_usuario ASC";
+    private static final String POR_ID = "SELECT id_usuario, username, email, nombre, apellido, fecha_creacion, "
+            + "fecha_modificacion, ultimo_login, activo FROM sum_usuarios WHERE id_usuario = ?";
+
+    @Param({"10", "50", "200"})
+    private int fetchSize;
+
+    @Param({"false", "true"})
+    private boolean cacheSentencias;
+
+    private Server servidor;
+    private ServerSocket proxy;
+    private final AtomicLong viajes = new AtomicLong();
+    private final AtomicLong consultas = new AtomicLong();
+    private Connection conexion;
+    private final Map<String, PreparedStatement> enCache = new HashMap<>();
+
+    @Setup
+    public void preparar() throws Exception {
+        servidor = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        try (Connection local = DriverManager.getConnection("jdbc:h2:mem:roundtrip;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement stmt = local.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS sum_usuarios (id_usuario BIGINT PRIMARY KEY, "
+                    + "username VARCHAR(50), email VARCHAR(100), nombre VARCHAR(100), apellido VARCHAR(100), "
+                    + "fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP, fecha_modificacion TIMESTAMP, "
+                    + "ultimo_login TIMESTAMP, activo SMALLINT DEFAULT 1)");
+            stmt.execute("DELETE FROM sum_usuarios");
+            stmt.execute("INSERT INTO sum_usuarios (id_usuario, username, email, nombre, apellido) "
+                    + "SELECT X, 'usuario' || X, 'usuario' || X || '@duoc.cl', 'Nombre' || X, 'Apellido' || X "
+                    + "FROM SYSTEM_RANGE(1, " + FILAS + ")");
+        }
+
+        proxy = new ServerSocket(0);
+        Thread aceptar = new Thread(this::aceptar, "proxy-h2");
+        aceptar.setDaemon(true);
+        aceptar.start();
+        conexion = DriverManager.getConnection(
+                "jdbc:h2:tcp://localhost:" + proxy.getLocalPort() + "/mem:roundtrip", "sa", "");
+    }
+
+    @TearDown
+    public void terminar(BenchmarkParams parametros) throws Exception {
+        System.out.printf("%n%s fetchSize=%d cacheSentencias=%b: %.1f viajes por consulta%n",
+                parametros.getBenchmark(), fetchSize, cacheSentencias,
+                (double) viajes.get() / Math.max(1, consultas.get()));
+        for (PreparedStatement stmt : enCache.values()) {
+            stmt.close();
+        }
+        conexion.close();
+        proxy.close();
+        servidor.stop();
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciarContadores() {
+        viajes.set(0);
+        consultas.set(0);
+    }
+
+    @Benchmark
+    public long listado() throws SQLException {
+        consultas.incrementAndGet();
+        PreparedStatement stmt = sentencia(LISTADO);
+        try {
+            stmt.setFetchSize(fetchSize);
+            long suma = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.setFetchSize(fetchSize);
+                while (rs.next()) {
+                    suma += rs.getLong("id_usuario") + rs.getString("username").length();
+                }
+            }
+            return suma;
+        } finally {
+            if (!cacheSentencias) {
+                stmt.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public String porId() throws SQLException {
+        long id = consultas.incrementAndGet() % FILAS + 1;
+        PreparedStatement stmt = sentencia(POR_ID);
+        try {
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("username") : null;
+            }
+        } finally {
+            if (!cacheSentencias) {
+                stmt.close();
+            }
+        }
+    }
+
+    private PreparedStatement sentencia(String sql) throws SQLException {
+        if (!cacheSentencias) {
+            return conexion.prepareStatement(sql);
+        }
+        PreparedStatement stmt = enCache.get(sql);
+        if (stmt == null) {
+            stmt = conexion.prepareStatement(sql);
+            enCache.put(sql, stmt);
+        }
+        return stmt;
+    }
+
+    private void aceptar() {
+        try {
+            while (true) {
+                Socket cliente = proxy.accept();
+                Socket h2 = new Socket("localhost", servidor.getPort());
+                cliente.setTcpNoDelay(true);
+                h2.setTcpNoDelay(true);
+                // true mientras el último envío fue del cliente
+                AtomicBoolean turnoCliente = new AtomicBoolean(false);
+                copiar(cliente, h2, turnoCliente, true);
+                copiar(h2, cliente, turnoCliente, false);
+            }
+        } catch (IOException e) {
+            // Proxy cerrado al terminar
+        }
+    }
+
+    private void copiar(Socket origen, Socket destino, AtomicBoolean turnoCliente, boolean desdeCliente) {
+        Thread hilo = new Thread(() -> {
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = origen.getInputStream(); OutputStream out = destino.getOutputStream()) {
+                int leidos;
+                while ((leidos = in.read(buffer)) != -1) {
+                    // Un viaje empieza cuando el cliente envía después de haber recibido
+                    if (desdeCliente && turnoCliente.compareAndSet(false, true)) {
+                        viajes.incrementAndGet();
+                        Thread.sleep(LATENCIA_MS);
+                    } else if (!desdeCliente) {
+                        turnoCliente.set(false);
+                    }
+                    out.write(buffer, 0, leidos);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Conexión cerrada
+            }
+        }, "proxy-h2-" + (desdeCliente ? "cliente" : "servidor"));
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+}
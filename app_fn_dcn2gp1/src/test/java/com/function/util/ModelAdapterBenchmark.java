@@ -0,0 +1,106 @@
+package com.function.util;
+
+import com.function.model.Response;
+import com.function.model.Usuario;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Respuesta de GET /api/usuarios (Response con la lista de usuarios) y lectura de la misma lista
+ * con tres configuraciones:
+ * - comoAntes: Gson creado en cada llamada, pretty printing y fechas como JsonPrimitive
+ *   (GsonConfig.getGson antes del Gson compartido)
+ * - reflexion: Gson compartido y compacto con los adaptadores de fechas de streaming
+ * - adaptadores: GsonConfig.getGson, con los adaptadores escritos a mano de ModelTypeAdapterFactory
+ *   (mismo JSON que reflexion, ver ModelTypeAdapterFactoryTest)
+ *
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main ModelAdapterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelAdapterBenchmark {
+
+    private static final Type LISTA_USUARIOS = new TypeToken<List<Usuario>>() { }.getType();
+
+    @Param({"100", "1000"})
+    private int usuarios;
+
+    private Gson reflexion;
+    private Response<List<Usuario>> respuesta;
+    private String json;
+
+    @Setup
+    public void preparar() {
+        reflexion = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new GsonConfig.LocalDateTimeAdapter())
+                .registerTypeAdapter(LocalDate.class, new GsonConfig.LocalDateAdapter())
+                .create();
+        List<Usuario> lista = new ArrayList<>(usuarios);
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 15, 8, 30, 0, 123_000_000);
+        for (int i = 0; i < usuarios; i++) {
+            lista.add(new Usuario((long) i + 1, "usuario" + i, "usuario" + i + "@duoc.cl", "Nombre" + i,
+                    "Apellido" + i, null, fecha.plusMinutes(i), i % 2 == 0 ? fecha.plusDays(1) : null,
+                    fecha.plusDays(2), i % 10 != 0));
+        }
+        respuesta = Response.success("Usuarios obtenidos correctamente", lista);
+        json = reflexion.toJson(lista);
+    }
+
+    @Benchmark
+    public String escribirComoAntes() {
+        return gsonComoAntes().toJson(respuesta);
+    }
+
+    @Benchmark
+    public String escribirReflexion() {
+        return reflexion.toJson(respuesta);
+    }
+
+    @Benchmark
+    public String escribirAdaptadores() {
+        return GsonConfig.getGson().toJson(respuesta);
+    }
+
+    @Benchmark
+    public List<Usuario> leerComoAntes() {
+        return gsonComoAntes().fromJson(json, LISTA_USUARIOS);
+    }
+
+    @Benchmark
+    public List<Usuario> leerReflexion() {
+        return reflexion.fromJson(json, LISTA_USUARIOS);
+    }
+
+    @Benchmark
+    public List<Usuario> leerAdaptadores() {
+        return GsonConfig.getGson().fromJson(json, LISTA_USUARIOS);
+    }
+
+    private static Gson gsonComoAntes() {
+        return new GsonBuilder()
+                .setPrettyPrinting()
+                .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (src, tipo, contexto) ->
+                        new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
+                .registerTypeAdapter(LocalDateTime.class, (JsonDeserializer<LocalDateTime>) (json, tipo, contexto) ->
+                        LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .create();
+    }
+}
@@ -0,0 +1,124 @@
+package com.function.util;
+
+import com.function.model.Response;
+import com.function.model.Rol;
+import com.function.model.Usuario;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Los adaptadores de ModelTypeAdapterFactory deben producir exactamente el mismo JSON que
+ * Gson por reflexión (con los mismos adaptadores de fechas) y leer lo que este escribe.
+ */
+public class ModelTypeAdapterFactoryTest {
+
+    private static final Gson REFLEXION = reflexion(false);
+    private static final Gson REFLEXION_PRETTY = reflexion(true);
+
+    @Test
+    public void usuarioCoincideConReflexion() {
+        for (Usuario usuario : usuarios()) {
+            assertMismoJson(usuario);
+        }
+    }
+
+    @Test
+    public void rolCoincideConReflexion() {
+        for (Rol rol : roles()) {
+            assertMismoJson(rol);
+        }
+    }
+
+    @Test
+    public void responseCoincideConReflexion() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("idUsuario", 7L);
+        resultado.put("asignados", 2L);
+        resultado.put("roles", roles());
+
+        assertMismoJson(Response.success("Usuarios obtenidos correctamente", usuarios()));
+        assertMismoJson(Response.success("Rol obtenido correctamente", roles().get(0)));
+        assertMismoJson(Response.success("Roles actualizados correctamente", resultado));
+        assertMismoJson(Response.success("Sin datos", null));
+        assertMismoJson(Response.error("Datos invalidos", "El cuerpo de la solicitud esta vacio"));
+        assertMismoJson(Response.error("Error \"interno\"", null));
+    }
+
+    @Test
+    public void leeLoQueEscribeReflexion() {
+        for (Usuario usuario : usuarios()) {
+            String json = REFLEXION.toJson(usuario);
+            assertEquals(json, REFLEXION.toJson(GsonConfig.getGson().fromJson(json, Usuario.class)));
+        }
+        for (Rol rol : roles()) {
+            String json = REFLEXION.toJson(rol);
+            assertEquals(json, REFLEXION.toJson(GsonConfig.getGson().fromJson(json, Rol.class)));
+        }
+
+        String json = REFLEXION.toJson(Response.success("ok", usuarios()));
+        Response<List<Usuario>> leida = GsonConfig.getGson().fromJson(json,
+                new TypeToken<Response<List<Usuario>>>() { }.getType());
+        assertEquals(json, REFLEXION.toJson(leida));
+        assertEquals(Usuario.class, leida.getData().get(0).getClass());
+    }
+
+    @Test
+    public void lecturaToleraNulosCamposDesconocidosYBooleanosComoTexto() {
+        Usuario usuario = GsonConfig.getGson().fromJson(
+                "{\"username\":\"ana\",\"email\":null,\"extra\":{\"a\":[1,2]},\"activo\":\"true\"}", Usuario.class);
+        assertEquals("ana", usuario.getUsername());
+        assertNull(usuario.getEmail());
+        assertTrue(usuario.isActivo());
+
+        Rol rol = GsonConfig.getGson().fromJson("{\"nombre\":\"ADMIN\",\"activo\":false,\"otro\":1}", Rol.class);
+        assertEquals("ADMIN", rol.getNombre());
+        assertFalse(rol.isActivo());
+    }
+
+    private static void assertMismoJson(Object valor) {
+        assertEquals(REFLEXION.toJson(valor), GsonConfig.getGson().toJson(valor));
+        assertEquals(REFLEXION_PRETTY.toJson(valor), GsonConfig.getPrettyGson().toJson(valor));
+    }
+
+    private static List<Usuario> usuarios() {
+        Usuario completo = new Usuario(15L, "jperez", "j.perez@duoc.cl", "Juan", "Pérez", "$2a$10$hash",
+                LocalDateTime.of(2026, 1, 15, 8, 30, 0, 123_000_000), LocalDateTime.of(2026, 2, 1, 10, 0),
+                LocalDateTime.of(2026, 2, 3, 18, 45, 12), true);
+        // Caracteres que Gson escapa (comillas, HTML y control)
+        Usuario escapes = new Usuario(16L, "o'neil", "\"raro\"@duoc.cl", "<script>", "Ñandú\n\t\u0001", null,
+                LocalDateTime.of(2026, 1, 15, 8, 30), null, null, false);
+        Usuario minimo = new Usuario();
+        return Arrays.asList(completo, escapes, minimo);
+    }
+
+    private static List<Rol> roles() {
+        Rol completo = new Rol(3L, "ADMIN", "Administrador del sistema",
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 3, 1, 12, 0, 0, 1), true);
+        Rol minimo = new Rol("INVITADO", null);
+        return Arrays.asList(completo, minimo);
+    }
+
+    private static Gson reflexion(boolean pretty) {
+        GsonBuilder builder = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new GsonConfig.LocalDateTimeAdapter())
+                .registerTypeAdapter(LocalDate.class, new GsonConfig.LocalDateAdapter());
+        if (pretty) {
+            builder.setPrettyPrinting();
+        }
+        return builder.create();
+    }
+}
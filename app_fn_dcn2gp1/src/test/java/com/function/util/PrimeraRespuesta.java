@@ -0,0 +1,133 @@
+package com.function.util;
+
+import com.function.HttpResponseMessageMock;
+import com.function.function.UsuarioFunction;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.HttpStatusType;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Tiempo de la primera respuesta de GET /api/usuarios en una JVM nueva, con y sin calentamiento.
+ * Simula una instancia recién asignada: si WARMUP_ENABLED no es false ejecuta primero WarmUp.run()
+ * (lo que hace el warmup trigger antes de enviarle tráfico) y luego invoca UsuarioFunction como el
+ * worker, con una solicitud y un contexto escritos a mano (sin Mockito, para no sumar su carga de clases).
+ * La base es H2 en memoria (-Dtest.environment) con 200 usuarios; la tabla se crea con una conexión
+ * directa para que el pool y el DAO se carguen dentro de lo medido, igual que en producción.
+ * Imprime una línea "calentamiento=... primera=... segunda=... uptime=..." (ms).
+ *
+ * Uso: scripts/first-response-benchmark.sh [repeticiones]
+ */
+public final class PrimeraRespuesta {
+
+    private static final int USUARIOS = 200;
+
+    private PrimeraRespuesta() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("test.environment") == null) {
+            throw new IllegalStateException("Ejecutar con -Dtest.environment=true (base H2 en memoria)");
+        }
+        crearTabla();
+
+        long calentamiento = WarmUp.run();
+
+        long inicio = System.nanoTime();
+        HttpResponseMessage primera = new UsuarioFunction().run(new Solicitud(), "none", new Contexto());
+        long primeraMs = (System.nanoTime() - inicio) / 1_000_000;
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        inicio = System.nanoTime();
+        HttpResponseMessage segunda = new UsuarioFunction().run(new Solicitud(), "none", new Contexto());
+        long segundaMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        if (primera.getStatusCode() != 200 || segunda.getStatusCode() != 200) {
+            throw new IllegalStateException("Respuesta inesperada: " + primera.getStatusCode() + " " + primera.getBody());
+        }
+        System.out.printf("calentamiento=%d primera=%d segunda=%d uptime=%d%n", calentamiento, primeraMs, segundaMs, uptime);
+        System.exit(0);
+    }
+
+    private static void crearTabla() throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1", "sa", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE sum_usuarios (id_usuario BIGINT PRIMARY KEY, username VARCHAR(50), "
+                    + "email VARCHAR(100), nombre VARCHAR(100), apellido VARCHAR(100), password_hash VARCHAR(255), "
+                    + "fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP, fecha_modificacion TIMESTAMP, "
+                    + "ultimo_login TIMESTAMP, activo SMALLINT DEFAULT 1)");
+            stmt.execute("INSERT INTO sum_usuarios (id_usuario, username, email, nombre, apellido, password_hash) "
+                    + "SELECT X, 'usuario' || X, 'usuario' || X || '@duoc.cl', 'Nombre' || X, 'Apellido' || X, 'hash' "
+                    + "FROM SYSTEM_RANGE(1, " + USUARIOS + ")");
+        }
+    }
+
+    /**
+     * GET /api/usuarios sin parámetros ni encabezados.
+     */
+    private static final class Solicitud implements HttpRequestMessage<Optional<String>> {
+        @Override
+        public URI getUri() {
+            return URI.create("http://localhost:7071/api/usuarios");
+        }
+
+        @Override
+        public HttpMethod getHttpMethod() {
+            return HttpMethod.GET;
+        }
+
+        @Override
+        public Map<String, String> getHeaders() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, String> getQueryParameters() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Optional<String> getBody() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpResponseMessage.Builder createResponseBuilder(HttpStatus status) {
+            return new HttpResponseMessageMock.HttpResponseMessageBuilderMock().status(status);
+        }
+
+        @Override
+        public HttpResponseMessage.Builder createResponseBuilder(HttpStatusType status) {
+            return new HttpResponseMessageMock.HttpResponseMessageBuilderMock().status(status);
+        }
+    }
+
+    private static final class Contexto implements ExecutionContext {
+        @Override
+        public Logger getLogger() {
+            return Logger.getLogger("usuarios");
+        }
+
+        @Override
+        public String getInvocationId() {
+            return "primera-respuesta";
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "usuarios";
+        }
+    }
+}
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Tiempo de la primera respuesta de POST /api/usuariosByRole con WARMUP_ENABLED=false y true.
+#
+# Uso (desde la carpeta del modulo):
+#   scripts/first-response-benchmark.sh [repeticiones]
+#
+# Cada repeticion arranca una JVM nueva con PrimeraRespuesta (src/test): base H2 en memoria,
+# WarmUp.run() como el warmup trigger si esta activado y luego dos invocaciones de UsuariosByRoleFunction.
+# Muestra la media del calentamiento, de la primera y la segunda respuesta y del uptime de la JVM
+# al terminar la primera respuesta.
+set -euo pipefail
+
+RUNS="${1:-5}"
+MODULE_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="$MODULE_DIR/target/test-classpath.txt"
+
+cd "$MODULE_DIR"
+mvn -B -q test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile="$CLASSPATH_FILE"
+CP="$MODULE_DIR/target/test-classes:$MODULE_DIR/target/classes:$(cat "$CLASSPATH_FILE")"
+
+printf '%-22s %14s %10s %10s %10s\n' "WARMUP_ENABLED" "calentamiento" "primera" "segunda" "uptime"
+for enabled in false true; do
+    total_c=0 total_p=0 total_s=0 total_u=0
+    for ((i = 1; i <= RUNS; i++)); do
+        linea=$(WARMUP_ENABLED="$enabled" java -Dtest.environment=true -cp "$CP" \
+            com.function.util.PrimeraRespuesta 2>/dev/null | grep '^calentamiento=')
+        read -r c p s u <<< "$(sed -E 's/[a-z]+=//g' <<< "$linea")"
+        # Sin calentamiento WarmUp.run() devuelve -1
+        total_c=$(( total_c + (c > 0 ? c : 0) ))
+        total_p=$(( total_p + p ))
+        total_s=$(( total_s + s ))
+        total_u=$(( total_u + u ))
+    done
+    printf '%-22s %11d ms %7d ms %7d ms %7d ms (media de %d)\n' "$enabled" \
+        $(( total_c / RUNS )) $(( total_p / RUNS )) $(( total_s / RUNS )) $(( total_u / RUNS )) "$RUNS"
+done
@@ -2,13 +2,16 @@ package com.function.dao;
 
 import com.function.model.LogEvento;
 import com.function.util.DBConnectionManager;
+import com.function.util.ExportadorLogs;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -113,6 +116,8 @@ public class LogEventoDAO {
             stmt.setTimestamp(1, java.sql.Timestamp.valueOf(fechaInicio));
             stmt.setTimestamp(2, java.sql.Timestamp.valueOf(fechaFin));
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     logs.add(mapearLogEvento(rs));
@@ -157,6 +162,8 @@ public class LogEventoDAO {
                 stmt.setInt(1, (Integer) parametro);
             }
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     logs.add(mapearLogEvento(rs));
@@ -243,6 +250,8 @@ public class LogEventoDAO {
                 }
             }
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     logs.add(mapearLogEvento(rs));
@@ -255,10 +264,143 @@ public class LogEventoDAO {
         return logs;
     }
     
+    /**
+     * Obtiene los logs posteriores a un ID, en orden ascendente de id_log (consulta por rango
+     * sobre la clave primaria). Permite seguir la tabla de auditoría de forma incremental:
+     * cada llamada continúa desde el último idLog recibido.
+     *
+     * ID_LOG sale de una secuencia al insertar, por lo que una fila con ID menor puede confirmarse
+     * después que otra con ID mayor. Para no saltarse esas filas solo se devuelven los logs
+     * registrados hace al menos {@code retrasoSegundos} (igual que el feed de cambios).
+     *
+     * @param idLog Último ID ya recibido; si es null se devuelven los últimos logs registrados
+     * @param limite Cantidad máxima de logs
+     * @param retrasoSegundos Antigüedad mínima de los logs devueltos
+     * @param idUsuario ID del usuario (opcional)
+     * @param tipoEvento Tipo de evento (opcional)
+     * @param modulo Módulo (opcional)
+     * @param entidad Entidad (opcional)
+     * @param nivel Nivel (opcional)
+     * @return Lista de logs ordenada por id_log
+     */
+    public List<LogEvento> obtenerLogsDesde(
+            Long idLog, int limite, int retrasoSegundos, Long idUsuario, String tipoEvento,
+            String modulo, String entidad, String nivel) {
+        
+        List<LogEvento> logs = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM sum_log_eventos WHERE 1=1");
+        List<Object> parametros = new ArrayList<>();
+        
+        // También al ubicar el cursor (sin idLog), para no dejar atrás filas aún sin confirmar
+        sql.append(" AND fecha_evento <= SYSTIMESTAMP - NUMTODSINTERVAL(?, 'SECOND')");
+        parametros.add(retrasoSegundos);
+        if (idLog != null) {
+            sql.append(" AND id_log > ?");
+            parametros.add(idLog);
+        }
+        if (idUsuario != null) {
+            sql.append(" AND id_usuario = ?");
+            parametros.add(idUsuario);
+        }
+        if (tipoEvento != null && !tipoEvento.isEmpty()) {
+            sql.append(" AND tipo_evento = ?");
+            parametros.add(tipoEvento);
+        }
+        if (modulo != null && !modulo.isEmpty()) {
+            sql.append(" AND modulo = ?");
+            parametros.add(modulo);
+        }
+        if (entidad != null && !entidad.isEmpty()) {
+            sql.append(" AND entidad = ?");
+            parametros.add(entidad);
+        }
+        if (nivel != null && !nivel.isEmpty()) {
+            sql.append(" AND nivel = ?");
+            parametros.add(nivel);
+        }
+        
+        // Sin ID de inicio se leen los últimos logs (recorriendo la clave primaria desde el final)
+        sql.append(idLog != null ? " ORDER BY id_log" : " ORDER BY id_log DESC");
+        sql.append(" FETCH FIRST ? ROWS ONLY");
+        
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int indice = 1;
+            for (Object param : parametros) {
+                if (param instanceof String) {
+                    stmt.setString(indice++, (String) param);
+                } else if (param instanceof Integer) {
+                    stmt.setInt(indice++, (Integer) param);
+                } else {
+                    stmt.setLong(indice++, (Long) param);
+                }
+            }
+            stmt.setInt(indice, limite);
+            
+            stmt.setFetchSize(Math.min(limite, DBConnectionManager.getListFetchSize()));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    logs.add(mapearLogEvento(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error al obtener logs desde el ID: " + idLog, e);
+        }
+        
+        if (idLog == null) {
+            Collections.reverse(logs);
+        }
+        return logs;
+    }
+    
+    /**
+     * Exporta los logs de un rango de fechas en orden de id_log, escribiendo cada fila en el
+     * exportador a medida que se lee (ResultSet de solo avance con un fetch size grande).
+     * La exportación se pide por páginas: cada llamada continúa después de idLogDesde.
+     *
+     * @param fechaInicio Fecha inicio (inclusive)
+     * @param fechaFin Fecha fin (exclusive)
+     * @param idLogDesde Último ID exportado en la página anterior (0 en la primera)
+     * @param limite Cantidad máxima de filas de la página
+     * @param fetchSize Filas por viaje de red
+     * @param exportador Destino de las filas
+     * @return ID del último log exportado, o idLogDesde si no hubo filas
+     * @throws SQLException Si falla la consulta
+     * @throws IOException Si falla la escritura
+     */
+    public long exportarLogs(LocalDateTime fechaInicio, LocalDateTime fechaFin, long idLogDesde,
+                             int limite, int fetchSize, ExportadorLogs exportador) throws SQLException, IOException {
+        String sql = "SELECT " + ExportadorLogs.SELECT_COLUMNAS + " FROM sum_log_eventos " +
+                    "WHERE fecha_evento >= ? AND fecha_evento < ? AND id_log > ? " +
+                    "ORDER BY id_log FETCH FIRST ? ROWS ONLY";
+        long ultimo = idLogDesde;
+        
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setTimestamp(1, java.sql.Timestamp.valueOf(fechaInicio));
+            stmt.setTimestamp(2, java.sql.Timestamp.valueOf(fechaFin));
+            stmt.setLong(3, idLogDesde);
+            stmt.setInt(4, limite);
+            stmt.setFetchSize(fetchSize);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    exportador.escribir(rs);
+                    ultimo = rs.getLong(1);
+                }
+            }
+        }
+        
+        return ultimo;
+    }
+    
     /**
      * Mapea un ResultSet a un objeto LogEvento.
      */
-    private LogEvento mapearLogEvento(ResultSet rs) throws SQLException {
+    LogEvento mapearLogEvento(ResultSet rs) throws SQLException {
         LogEvento log = new LogEvento();
         log.setIdLog(rs.getLong("id_log"));
         
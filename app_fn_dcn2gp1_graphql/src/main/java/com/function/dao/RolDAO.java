@@ -82,11 +82,14 @@ public class RolDAO {
         String sql = "SELECT * FROM sum_roles";
         
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
             
-            while (rs.next()) {
-                roles.add(mapearRol(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    roles.add(mapearRol(rs));
+                }
             }
         } catch (SQLException e) {
             logger.error("Error al obtener todos los roles", e);
@@ -112,6 +115,8 @@ public class RolDAO {
             
             stmt.setLong(1, idRol);
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     usuarios.add(mapearUsuario(rs));
@@ -85,11 +85,14 @@ public class UsuarioDAO {
         String sql = "SELECT * FROM sum_usuarios";
         
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
             
-            while (rs.next()) {
-                usuarios.add(mapearUsuario(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    usuarios.add(mapearUsuario(rs));
+                }
             }
         } catch (SQLException e) {
             logger.error("Error al obtener todos los usuarios", e);
@@ -115,6 +118,8 @@ public class UsuarioDAO {
             
             stmt.setLong(1, idRol);
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     usuarios.add(mapearUsuario(rs));
@@ -144,6 +149,8 @@ public class UsuarioDAO {
             
             stmt.setLong(1, idUsuario);
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     roles.add(mapearRol(rs));
@@ -171,6 +178,8 @@ public class UsuarioDAO {
             
             stmt.setLong(1, idUsuario);
             
+            stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+            
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     logs.add(mapearLogEvento(rs));
@@ -235,6 +244,8 @@ public class UsuarioDAO {
                     stmt.setLong(index++, u.getIdUsuario());
                 }
                 
+                stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+                
                 try (ResultSet rs = stmt.executeQuery()) {
                     while (rs.next()) {
                         Long idUsuario = rs.getLong("id_usuario");
@@ -260,6 +271,8 @@ public class UsuarioDAO {
                         stmt.setLong(index++, u.getIdUsuario());
                     }
                     
+                    stmt.setFetchSize(DBConnectionManager.getListFetchSize());
+                    
                     try (ResultSet rs = stmt.executeQuery()) {
                         while (rs.next()) {
                             Long idUsuario = rs.getLong("id_usuario");
@@ -283,7 +296,7 @@ public class UsuarioDAO {
     /**
      * Mapea un ResultSet a un objeto Usuario.
      */
-    private Usuario mapearUsuario(ResultSet rs) throws SQLException {
+    Usuario mapearUsuario(ResultSet rs) throws SQLException {
         Usuario usuario = new Usuario();
         usuario.setIdUsuario(rs.getLong("id_usuario"));
         usuario.setUsername(rs.getString("username"));
@@ -310,7 +323,7 @@ public class UsuarioDAO {
     /**
      * Mapea un ResultSet a un objeto Rol.
      */
-    private Rol mapearRol(ResultSet rs) throws SQLException {
+    Rol mapearRol(ResultSet rs) throws SQLException {
         Rol rol = new Rol();
         rol.setIdRol(rs.getLong("id_rol"));
         rol.setNombre(rs.getString("nombre"));
@@ -4,6 +4,8 @@ import com.microsoft.azure.functions.*;
 import com.microsoft.azure.functions.annotation.*;
 import com.function.graphql.GraphQLProvider;
 import com.function.util.GsonConfig;
+import com.function.util.HttpCompression;
+import com.function.util.WarmUp;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -21,6 +23,11 @@ public class AuditoriaFunction {
     private static final Logger logger = LoggerFactory.getLogger(AuditoriaFunction.class);
     private static final Gson gson = GsonConfig.getGson();
     
+    // Calentamiento en segundo plano al cargar la primera Funcion HTTP de la instancia
+    static {
+        WarmUp.startInBackground();
+    }
+    
     private final GraphQLProvider graphQLProvider;
     
     public AuditoriaFunction() {
@@ -82,9 +89,9 @@ public class AuditoriaFunction {
             
             responseJson.add("data", gson.toJsonTree(executionResult.getData()));
             
-            return request.createResponseBuilder(HttpStatus.OK)
+            return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                            GsonConfig.toJson(request, responseJson))
                     .header("Content-Type", "application/json")
-                    .body(responseJson.toString())
                     .build();
             
         } catch (Exception e) {
@@ -0,0 +1,134 @@
+package com.function.function;
+
+import com.microsoft.azure.functions.*;
+import com.microsoft.azure.functions.annotation.*;
+import com.function.dao.LogEventoDAO;
+import com.function.util.ExportadorLogs;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exportación de SUM_LOG_EVENTOS en NDJSON o CSV comprimido con gzip (GET /api/auditoria/export).
+ * Las filas se escriben comprimidas directo desde el ResultSet, sin armar la lista de logs ni
+ * un árbol JSON. Como una Function devuelve la respuesta completa, la exportación se entrega
+ * por páginas de hasta EXPORT_PAGE_ROWS filas: el cliente repite la solicitud con el cursor del
+ * encabezado X-Export-Cursor hasta que X-Export-Completo sea true. Cada página es un bloque
+ * gzip; concatenados forman un único archivo .gz válido (el CSV solo lleva encabezado en la primera).
+ *
+ * Parámetros: fechaInicio y fechaFin (yyyy-MM-dd o yyyy-MM-ddTHH:mm:ss; fechaFin excluida),
+ * formato=ndjson|csv (por defecto ndjson) y cursor (0 o sin valor en la primera página).
+ */
+public class ExportarAuditoriaFunction {
+    private static final Logger logger = LoggerFactory.getLogger(ExportarAuditoriaFunction.class);
+
+    // Filas por página y filas por viaje de red de la exportación
+    private static final int PAGE_ROWS = Math.max(1, getIntSetting("EXPORT_PAGE_ROWS", 20000));
+    private static final int FETCH_SIZE = Math.max(1, getIntSetting("EXPORT_FETCH_SIZE", 5000));
+
+    private final LogEventoDAO logEventoDAO = new LogEventoDAO();
+
+    @FunctionName("exportarAuditoria")
+    public HttpResponseMessage run(
+            @HttpTrigger(name = "req", methods = {HttpMethod.GET}, authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "auditoria/export")
+            HttpRequestMessage<Optional<String>> request,
+            final ExecutionContext context) {
+
+        Map<String, String> parametros = request.getQueryParameters() != null
+                ? request.getQueryParameters() : Collections.emptyMap();
+
+        LocalDateTime fechaInicio;
+        LocalDateTime fechaFin;
+        ExportadorLogs.Formato formato;
+        long cursor;
+        try {
+            fechaInicio = leerFecha(parametros.get("fechaInicio"), "fechaInicio");
+            fechaFin = leerFecha(parametros.get("fechaFin"), "fechaFin");
+            if (!fechaFin.isAfter(fechaInicio)) {
+                throw new IllegalArgumentException("fechaFin debe ser posterior a fechaInicio");
+            }
+            formato = ExportadorLogs.Formato.desde(parametros.get("formato"));
+            cursor = leerCursor(parametros.get("cursor"));
+        } catch (IllegalArgumentException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage())
+                    .build();
+        }
+
+        try {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(64 * 1024);
+            long ultimo;
+            long filas;
+            try (ExportadorLogs exportador = new ExportadorLogs(salida, formato, cursor == 0)) {
+                ultimo = logEventoDAO.exportarLogs(fechaInicio, fechaFin, cursor, PAGE_ROWS, FETCH_SIZE, exportador);
+                filas = exportador.getFilas();
+            }
+            logger.info("Exportacion de auditoria: {} filas desde el cursor {}, {} bytes", filas, cursor, salida.size());
+
+            // El cuerpo ya es un archivo gzip: no se declara Content-Encoding para que nadie lo descomprima
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .body(salida.toByteArray())
+                    .header("Content-Type", "application/gzip")
+                    .header("Content-Disposition", "attachment; filename=\"auditoria." + formato.getExtension() + ".gz\"")
+                    .header("X-Export-Formato", formato.getContentType())
+                    .header("X-Export-Filas", String.valueOf(filas))
+                    .header("X-Export-Cursor", String.valueOf(ultimo))
+                    .header("X-Export-Completo", String.valueOf(filas < PAGE_ROWS))
+                    .build();
+        } catch (Exception e) {
+            logger.error("Error al exportar la auditoria desde el cursor " + cursor, e);
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error al exportar la auditoria: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    private static LocalDateTime leerFecha(String valor, String nombre) {
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("El parametro " + nombre + " es requerido");
+        }
+        try {
+            String texto = valor.trim();
+            return texto.length() == 10 ? LocalDate.parse(texto).atStartOfDay() : LocalDateTime.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha invalida en " + nombre + ": " + valor.trim());
+        }
+    }
+
+    private static long leerCursor(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return 0L;
+        }
+        try {
+            long cursor = Long.parseLong(valor.trim());
+            if (cursor >= 0) {
+                return cursor;
+            }
+        } catch (NumberFormatException e) {
+            // Se informa abajo
+        }
+        throw new IllegalArgumentException("Cursor invalido: " + valor.trim());
+    }
+
+    private static int getIntSetting(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valor invalido para " + name + ": " + value + ", se usa " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.function.function;
+
+import com.function.util.DBConnectionManager;
+import com.function.util.GsonConfig;
+import com.function.util.WarmUp;
+import com.microsoft.azure.functions.*;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Funcion de Azure que informa el estado de la base de datos, del pool de conexiones
+ * y del calentamiento de la instancia.
+ */
+public class HealthFunction {
+
+    @FunctionName("health")
+    public HttpResponseMessage run(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.GET},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "health")
+                    HttpRequestMessage<Optional<String>> request,
+            final ExecutionContext context) {
+
+        boolean dbAvailable = DBConnectionManager.isDatabaseAvailable();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", dbAvailable ? "UP" : "DOWN");
+        body.put("database", dbAvailable ? "UP" : "DOWN");
+        body.put("pool", DBConnectionManager.getPoolStats());
+        body.put("warmup", WarmUp.getStats());
+
+        return request.createResponseBuilder(dbAvailable ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Content-Type", "application/json")
+                .body(GsonConfig.toJson(request, body))
+                .build();
+    }
+}
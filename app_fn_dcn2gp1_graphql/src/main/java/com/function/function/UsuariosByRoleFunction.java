@@ -5,6 +5,8 @@ import com.microsoft.azure.functions.annotation.*;
 import com.function.graphql.GraphQLProvider;
 import com.function.graphql.GraphQLQueries;
 import com.function.util.GsonConfig;
+import com.function.util.HttpCompression;
+import com.function.util.WarmUp;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -22,6 +24,14 @@ public class UsuariosByRoleFunction {
     private static final Logger logger = LoggerFactory.getLogger(UsuariosByRoleFunction.class);
     private static final Gson gson = GsonConfig.getGson();
     
+    // El proveedor instala el esquema con sus resolvers: sin él (por ejemplo con WARMUP_ENABLED=false y
+    // sin una llamada previa a /auditoria) getGraphQL devuelve el esquema por defecto, que no trae datos.
+    // Calentamiento en segundo plano al cargar la primera Funcion HTTP de la instancia
+    static {
+        new GraphQLProvider();
+        WarmUp.startInBackground();
+    }
+    
     @FunctionName("usuariosByRole")
     public HttpResponseMessage run(
             @HttpTrigger(name = "req", methods = {HttpMethod.POST}, authLevel = AuthorizationLevel.ANONYMOUS) 
@@ -120,9 +130,9 @@ public class UsuariosByRoleFunction {
             
             responseJson.add("data", gson.toJsonTree(executionResult.getData()));
             
-            return request.createResponseBuilder(HttpStatus.OK)
+            return HttpCompression.body(request, request.createResponseBuilder(HttpStatus.OK),
+                            GsonConfig.toJson(request, responseJson))
                     .header("Content-Type", "application/json")
-                    .body(responseJson.toString())
                     .build();
             
         } catch (Exception e) {
@@ -0,0 +1,23 @@
+package com.function.function;
+
+import com.function.util.WarmUp;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.WarmupTrigger;
+
+/**
+ * Funcion de Azure que se ejecuta cuando la plataforma agrega una instancia nueva,
+ * antes de enviarle tráfico.
+ */
+public class WarmUpFunction {
+
+    @FunctionName("warmup")
+    public void run(
+            @WarmupTrigger(name = "warmupContext") Object warmupContext,
+            final ExecutionContext context) {
+        
+        context.getLogger().info("Calentando instancia nueva");
+        long elapsedMs = WarmUp.run();
+        context.getLogger().info("Calentamiento de instancia terminado en " + elapsedMs + " ms");
+    }
+}
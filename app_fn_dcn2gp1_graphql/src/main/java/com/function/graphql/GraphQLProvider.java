@@ -29,6 +29,10 @@ public class GraphQLProvider {
     private static final Logger logger = LoggerFactory.getLogger(GraphQLProvider.class);
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     
+    // Cantidad de logs por defecto y máxima de logsDesde
+    private static final int LOGS_DESDE_LIMITE = 100;
+    private static final int LOGS_DESDE_LIMITE_MAXIMO = 1000;
+    
     // Schema GraphQL embebido como respaldo en caso de que no se pueda cargar del archivo
     private static final String EMBEDDED_SCHEMA = 
             "type Usuario {\n" +
@@ -105,6 +109,17 @@ public class GraphQLProvider {
             "        fechaFin: String\n" +
             "    ): [LogEvento!]\n" +
             "    \n" +
+            "    # Logs posteriores a idLog en orden ascendente (sin idLog, los últimos registrados)\n" +
+            "    logsDesde(\n" +
+            "        idLog: ID\n" +
+            "        limite: Int\n" +
+            "        idUsuario: ID\n" +
+            "        tipoEvento: String\n" +
+            "        modulo: String\n" +
+            "        entidad: String\n" +
+            "        nivel: String\n" +
+            "    ): [LogEvento!]\n" +
+            "    \n" +
             "    # Estadísticas\n" +
             "    estadisticasUsuarios: [Usuario!]\n" +
             "}";
@@ -297,6 +312,20 @@ public class GraphQLProvider {
                             idUsuario, tipoEvento, modulo, entidad, nivel, fechaInicio, fechaFin);
                 })
                 
+                // Seguimiento incremental de la auditoría
+                .dataFetcher("logsDesde", environment -> {
+                    Map<String, Object> arguments = environment.getArguments();
+                    
+                    Long idLog = arguments.get("idLog") != null ? Long.parseLong((String) arguments.get("idLog")) : null;
+                    Long idUsuario = arguments.get("idUsuario") != null ? Long.parseLong((String) arguments.get("idUsuario")) : null;
+                    Integer limite = (Integer) arguments.get("limite");
+                    limite = limite == null ? LOGS_DESDE_LIMITE : Math.max(1, Math.min(limite, LOGS_DESDE_LIMITE_MAXIMO));
+                    
+                    return auditoriaService.obtenerLogsDesde(idLog, limite, idUsuario,
+                            (String) arguments.get("tipoEvento"), (String) arguments.get("modulo"),
+                            (String) arguments.get("entidad"), (String) arguments.get("nivel"));
+                })
+                
                 // Estadísticas
                 .dataFetcher("estadisticasUsuarios", environment -> {
                     return auditoriaService.obtenerEstadisticasLogsPorUsuario();
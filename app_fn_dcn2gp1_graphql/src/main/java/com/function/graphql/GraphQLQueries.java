@@ -124,6 +124,26 @@ public final class GraphQLQueries {
             "  } " +
             "}";
     
+    //Consulta para seguir la auditoría: logs posteriores a un ID (la usa el stream de auditoría del BFF).
+    public static final String LOGS_DESDE = 
+            "query LogsDesde($idLog: ID, $limite: Int) { " +
+            "  logsDesde(idLog: $idLog, limite: $limite) { " +
+            "    idLog " +
+            "    fechaEvento " +
+            "    idUsuario " +
+            "    username " +
+            "    tipoEvento " +
+            "    modulo " +
+            "    accion " +
+            "    entidad " +
+            "    idAfectado " +
+            "    datosPrevios " +
+            "    datosNuevos " +
+            "    ipOrigen " +
+            "    nivel " +
+            "  } " +
+            "}";
+    
     //Constructor privado para evitar instanciación
     private GraphQLQueries() {
         throw new AssertionError("La clase GraphQLQueries no debe ser instanciada");
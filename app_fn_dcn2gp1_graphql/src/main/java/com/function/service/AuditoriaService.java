@@ -21,6 +21,9 @@ import org.slf4j.LoggerFactory;
 public class AuditoriaService {
     private static final Logger logger = LoggerFactory.getLogger(AuditoriaService.class);
     
+    // Antigüedad mínima de los logs de logsDesde (ver LogEventoDAO.obtenerLogsDesde)
+    private static final int LOGS_DESDE_RETRASO_SEGUNDOS = Math.max(0, getIntSetting("LOGS_DESDE_RETRASO_SEGUNDOS", 5));
+    
     private final UsuarioDAO usuarioDAO;
     private final RolDAO rolDAO;
     private final LogEventoDAO logEventoDAO;
@@ -140,6 +143,22 @@ public class AuditoriaService {
                 idUsuario, tipoEvento, modulo, entidad, nivel, fechaInicio, fechaFin);
     }
     
+    /**
+     * Obtiene los logs posteriores a un ID, en orden, para seguir la auditoría de forma incremental.
+     * Los logs de los últimos LOGS_DESDE_RETRASO_SEGUNDOS se entregan en la llamada siguiente.
+     *
+     * @param idLog Último ID ya recibido (null para los últimos logs registrados)
+     * @param limite Cantidad máxima de logs
+     * @return Lista de logs ordenada por idLog
+     */
+    public List<LogEvento> obtenerLogsDesde(
+            Long idLog, int limite, Long idUsuario, String tipoEvento,
+            String modulo, String entidad, String nivel) {
+        
+        return logEventoDAO.obtenerLogsDesde(idLog, limite, LOGS_DESDE_RETRASO_SEGUNDOS,
+                idUsuario, tipoEvento, modulo, entidad, nivel);
+    }
+    
     /**
      * Obtiene estadísticas de logs por usuario.
      * 
@@ -198,4 +217,17 @@ public class AuditoriaService {
     public List<LogEvento> obtenerLogsPorRangoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
         return logEventoDAO.obtenerLogsPorRangoFechas(fechaInicio, fechaFin);
     }
-}
\ No newline at end of file
+
+    private static int getIntSetting(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Valor invalido para " + name + ": " + value + ", se usa " + defaultValue);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.function.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ejecución de entrenamiento y medición para el archivo dinámico de Class Data Sharing (AppCDS).
+ * Ejecuta el calentamiento y carga (sin inicializar) todas las clases de la aplicación.
+ *
+ * El worker de Java de Functions arranca con su propio classpath y carga el jar de la función y
+ * lib/ con un class loader propio, así que un archivo volcado con {@code -cp <jar>:lib/*} no le
+ * sirve. Con {@code --worker <carpeta>} se reproduce ese arranque: solo este jar queda en el
+ * classpath y la aplicación se carga desde la carpeta de la función con un URLClassLoader, como
+ * lo hace el worker. El perfil appcds lo ejecuta en el build con -XX:ArchiveClassesAtExit para
+ * generar el archivo que se despliega con el paquete, y scripts/startup-benchmark.sh lo usa con
+ * -XX:SharedArchiveFile para medirlo (ver README).
+ */
+public final class CdsTraining {
+
+    private CdsTraining() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        int loaded;
+        if (args.length == 2 && "--worker".equals(args[0])) {
+            try (URLClassLoader loader = new URLClassLoader(functionUrls(Paths.get(args[1])),
+                    ClassLoader.getPlatformClassLoader())) {
+                Thread.currentThread().setContextClassLoader(loader);
+                loaded = (int) Class.forName(CdsTraining.class.getName(), true, loader)
+                        .getMethod("train").invoke(null);
+            }
+        } else {
+            loaded = train();
+        }
+
+        System.out.println("Entrenamiento CDS terminado: " + loaded + " clases de la aplicación en "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        // Los hilos de fondo (pool, calentamiento) no deben retrasar el volcado del archivo
+        System.exit(0);
+    }
+
+    /**
+     * Ejecuta el calentamiento y carga las clases de la aplicación con el class loader de esta clase.
+     * @return Clases de la aplicación cargadas
+     */
+    public static int train() throws IOException, URISyntaxException {
+        WarmUp.run();
+
+        int loaded = 0;
+        ClassLoader loader = CdsTraining.class.getClassLoader();
+        for (String className : listApplicationClasses()) {
+            try {
+                Class.forName(className, false, loader);
+                loaded++;
+            } catch (Throwable e) {
+                System.err.println("No se pudo cargar " + className + ": " + e);
+            }
+        }
+        return loaded;
+    }
+
+    // Jar de la función y sus dependencias de lib/, como las carga el worker
+    private static URL[] functionUrls(Path functionDir) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(functionDir, "*.jar")) {
+            for (Path jar : jars) {
+                urls.add(toUrl(jar));
+            }
+        }
+        Path lib = functionDir.resolve("lib");
+        if (Files.isDirectory(lib)) {
+            try (DirectoryStream<Path> jars = Files.newDirectoryStream(lib, "*.jar")) {
+                for (Path jar : jars) {
+                    urls.add(toUrl(jar));
+                }
+            }
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    private static URL toUrl(Path path) throws MalformedURLException {
+        return path.toAbsolutePath().toUri().toURL();
+    }
+
+    private static List<String> listApplicationClasses() throws IOException, URISyntaxException {
+        File source = new File(CdsTraining.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        if (source.isDirectory()) {
+            Path root = source.toPath();
+            try (Stream<Path> files = Files.walk(root.resolve(Paths.get("com", "function")))) {
+                return files.map(path -> root.relativize(path).toString().replace(File.separatorChar, '/'))
+                        .filter(CdsTraining::isClassFile)
+                        .map(CdsTraining::toClassName)
+                        .collect(Collectors.toList());
+            }
+        }
+
+        try (JarFile jar = new JarFile(source)) {
+            Enumeration<JarEntry> entries = jar.entries();
+            List<String> classes = new ArrayList<>();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith("com/function/") && isClassFile(name)) {
+                    classes.add(toClassName(name));
+                }
+            }
+            return classes;
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class");
+    }
+
+    private static String toClassName(String name) {
+        return name.substring(0, name.length() - ".class".length()).replace('/', '.');
+    }
+}
@@ -0,0 +1,184 @@
+package com.function.util;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escribe filas de SUM_LOG_EVENTOS en NDJSON o CSV comprimido con gzip a medida que se leen
+ * del ResultSet, sin crear objetos LogEvento ni árboles JSON: la memoria usada no depende de
+ * la cantidad de filas exportadas.
+ * Las fechas van en ISO (yyyy-MM-ddTHH:mm:ss) independiente de JSON_DATE_FORMAT.
+ */
+public final class ExportadorLogs implements AutoCloseable {
+
+    /**
+     * Formato de la exportación.
+     */
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException Si el formato no es ndjson ni csv
+         */
+        public static Formato desde(String valor) {
+            if (valor == null || valor.isBlank() || valor.trim().equalsIgnoreCase("ndjson")) {
+                return NDJSON;
+            }
+            if (valor.trim().equalsIgnoreCase("csv")) {
+                return CSV;
+            }
+            throw new IllegalArgumentException("Formato no soportado: " + valor.trim() + " (ndjson o csv)");
+        }
+    }
+
+    // Columnas exportadas: nombre en la tabla y campo en el JSON / encabezado CSV
+    private static final String[] COLUMNAS = {"id_log", "fecha_evento", "id_usuario", "username", "tipo_evento",
+            "modulo", "accion", "entidad", "id_afectado", "datos_previos", "datos_nuevos", "ip_origen",
+            "user_agent", "nivel"};
+    private static final String[] CAMPOS = {"idLog", "fechaEvento", "idUsuario", "username", "tipoEvento",
+            "modulo", "accion", "entidad", "idAfectado", "datosPrevios", "datosNuevos", "ipOrigen",
+            "userAgent", "nivel"};
+
+    /**
+     * Lista de columnas para el SELECT de la exportación, en el orden que espera {@link #escribir(ResultSet)}.
+     */
+    public static final String SELECT_COLUMNAS = String.join(", ", COLUMNAS);
+
+    private final Formato formato;
+    private final Writer writer;
+    private long filas;
+
+    /**
+     * @param salida Destino de los bytes comprimidos
+     * @param formato Formato de las filas
+     * @param encabezado true para escribir la fila de encabezado del CSV (solo en la primera página)
+     */
+    public ExportadorLogs(OutputStream salida, Formato formato, boolean encabezado) throws IOException {
+        this.formato = formato;
+        this.writer = new OutputStreamWriter(new GZIPOutputStream(salida, 65536), StandardCharsets.UTF_8);
+        if (formato == Formato.CSV && encabezado) {
+            writer.write(String.join(",", CAMPOS));
+            writer.write("\r\n");
+        }
+    }
+
+    /**
+     * Escribe la fila actual del ResultSet (columnas de {@link #SELECT_COLUMNAS}).
+     */
+    public void escribir(ResultSet rs) throws SQLException, IOException {
+        if (formato == Formato.NDJSON) {
+            escribirJson(rs);
+        } else {
+            escribirCsv(rs);
+        }
+        filas++;
+    }
+
+    /**
+     * @return Filas escritas
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * Termina el bloque gzip y cierra la salida.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void escribirJson(ResultSet rs) throws SQLException, IOException {
+        // Sin close(): cerraría el writer compartido por todas las filas
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        for (int i = 0; i < COLUMNAS.length; i++) {
+            json.name(CAMPOS[i]);
+            Object valor = valor(rs, i + 1);
+            if (valor == null) {
+                json.nullValue();
+            } else if (valor instanceof Long) {
+                json.value((long) (Long) valor);
+            } else {
+                json.value((String) valor);
+            }
+        }
+        json.endObject();
+        json.flush();
+        writer.write('\n');
+    }
+
+    private void escribirCsv(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < COLUMNAS.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object valor = valor(rs, i + 1);
+            if (valor != null) {
+                escaparCsv(valor.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Valor de la columna: Long para IDs, texto ISO para fechas y String para el resto
+    private static Object valor(ResultSet rs, int columna) throws SQLException {
+        switch (COLUMNAS[columna - 1]) {
+            case "id_log":
+            case "id_usuario":
+            case "id_afectado": {
+                long id = rs.getLong(columna);
+                return rs.wasNull() ? null : id;
+            }
+            case "fecha_evento": {
+                Timestamp fecha = rs.getTimestamp(columna);
+                return fecha != null ? GsonConfig.formatIsoDateTime(fecha.toLocalDateTime()) : null;
+            }
+            default:
+                return rs.getString(columna);
+        }
+    }
+
+    // RFC 4180: entre comillas si contiene separador, comillas o saltos de línea
+    private void escaparCsv(String valor) throws IOException {
+        boolean comillas = false;
+        for (int i = 0; i < valor.length() && !comillas; i++) {
+            char c = valor.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
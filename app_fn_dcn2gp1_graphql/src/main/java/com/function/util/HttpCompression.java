@@ -0,0 +1,122 @@
+package com.function.util;
+
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresión gzip de los cuerpos JSON grandes (resultados de GraphQL), negociada con
+ * el encabezado Accept-Encoding del cliente. Los cuerpos menores que HTTP_COMPRESSION_MIN_BYTES
+ * se envían sin comprimir: en respuestas chicas el costo de CPU no compensa los bytes ahorrados.
+ */
+public final class HttpCompression {
+    private static final Logger logger = LoggerFactory.getLogger(HttpCompression.class);
+
+    // Tamaño mínimo del cuerpo (bytes UTF-8) para comprimir; un valor negativo desactiva la compresión
+    private static final int MIN_BYTES = getMinBytes(System.getenv("HTTP_COMPRESSION_MIN_BYTES"));
+
+    private HttpCompression() {
+    }
+
+    /**
+     * Asigna el cuerpo de la respuesta, comprimido con gzip si el cliente lo acepta y supera el mínimo.
+     * @param request Solicitud HTTP (para leer Accept-Encoding)
+     * @param builder Respuesta en construcción
+     * @param json Cuerpo JSON
+     * @return El mismo builder, con el cuerpo y los encabezados Content-Encoding / Vary
+     */
+    public static HttpResponseMessage.Builder body(HttpRequestMessage<?> request, HttpResponseMessage.Builder builder, String json) {
+        if (json == null || MIN_BYTES < 0) {
+            return builder.body(json);
+        }
+        builder.header("Vary", "Accept-Encoding");
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_BYTES || !aceptaGzip(request)) {
+            return builder.body(json);
+        }
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido, 8192)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            // No ocurre con un ByteArrayOutputStream; por si acaso se envía sin comprimir
+            logger.warn("No se pudo comprimir la respuesta: {}", e.getMessage());
+            return builder.body(json);
+        }
+        return builder
+                .body(comprimido.toByteArray())
+                .header("Content-Encoding", "gzip");
+    }
+
+    /**
+     * Indica si Accept-Encoding admite gzip (gzip, x-gzip o * con q mayor que 0).
+     */
+    static boolean aceptaGzip(HttpRequestMessage<?> request) {
+        String acceptEncoding = header(request, "Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double comodin = null;
+        for (String parte : acceptEncoding.split(",")) {
+            String[] elementos = parte.trim().split(";");
+            String codificacion = elementos[0].trim().toLowerCase(Locale.ROOT);
+            double q = calidad(elementos);
+            if (codificacion.equals("gzip") || codificacion.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (codificacion.equals("*")) {
+                comodin = q;
+            }
+        }
+        Double q = gzip != null ? gzip : comodin;
+        return q != null && q > 0;
+    }
+
+    // Valor q de una codificación ("gzip;q=0.5"); 1 si no se indica o no es válido
+    private static double calidad(String[] elementos) {
+        for (int i = 1; i < elementos.length; i++) {
+            String parametro = elementos[i].trim();
+            if (parametro.startsWith("q=") || parametro.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parametro.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Los nombres de encabezado no distinguen mayúsculas
+    private static String header(HttpRequestMessage<?> request, String nombre) {
+        Map<String, String> headers = request != null ? request.getHeaders() : null;
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(nombre)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static int getMinBytes(String value) {
+        if (value == null || value.isBlank()) {
+            return 1024;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("HTTP_COMPRESSION_MIN_BYTES invalido ({}), se usa 1024", value);
+            return 1024;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.function.util;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Registro de métricas compartido por la instancia de la Function App.
+ * Las métricas se consultan desde el endpoint de salud.
+ */
+public final class MetricsRegistry {
+
+    private static final MeterRegistry REGISTRY = createRegistry();
+
+    private MetricsRegistry() {
+    }
+
+    public static MeterRegistry get() {
+        return REGISTRY;
+    }
+
+    private static MeterRegistry createRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Percentiles para los tiempos del pool (espera por conexión, uso, creación)
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().startsWith("hikaricp.connections.")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentiles(0.5, 0.95, 0.99)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        });
+        return registry;
+    }
+}
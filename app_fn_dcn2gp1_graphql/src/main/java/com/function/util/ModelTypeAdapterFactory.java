@@ -0,0 +1,278 @@
+package com.function.util;
+
+import com.function.model.LogEvento;
+import com.function.model.Rol;
+import com.function.model.Usuario;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptadores de Gson escritos a mano para los modelos de la API.
+ * Leen y escriben directamente sobre el stream (sin reflexión ni árbol JsonElement) y
+ * producen el mismo JSON que la serialización por reflexión: campos en orden de
+ * declaración y sin los valores nulos.
+ */
+public class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Usuario.class) {
+            return (TypeAdapter<T>) new UsuarioAdapter(gson).nullSafe();
+        }
+        if (rawType == Rol.class) {
+            return (TypeAdapter<T>) new RolAdapter(gson).nullSafe();
+        }
+        if (rawType == LogEvento.class) {
+            return (TypeAdapter<T>) new LogEventoAdapter(gson).nullSafe();
+        }
+        return null;
+    }
+
+    private static class UsuarioAdapter extends TypeAdapter<Usuario> {
+        private final TypeAdapter<LocalDateTime> dateTimeAdapter;
+        private final TypeAdapter<Rol> rolAdapter;
+        private final TypeAdapter<LogEvento> logAdapter;
+
+        UsuarioAdapter(Gson gson) {
+            this.dateTimeAdapter = gson.getAdapter(LocalDateTime.class);
+            this.rolAdapter = gson.getAdapter(Rol.class);
+            this.logAdapter = gson.getAdapter(LogEvento.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Usuario usuario) throws IOException {
+            out.beginObject();
+            writeLong(out, "idUsuario", usuario.getIdUsuario());
+            writeString(out, "username", usuario.getUsername());
+            writeString(out, "email", usuario.getEmail());
+            writeString(out, "nombre", usuario.getNombre());
+            writeString(out, "apellido", usuario.getApellido());
+            writeDateTime(out, dateTimeAdapter, "fechaCreacion", usuario.getFechaCreacion());
+            writeDateTime(out, dateTimeAdapter, "fechaModificacion", usuario.getFechaModificacion());
+            writeDateTime(out, dateTimeAdapter, "ultimoLogin", usuario.getUltimoLogin());
+            writeBoolean(out, "activo", usuario.getActivo());
+            writeList(out, rolAdapter, "roles", usuario.getRoles());
+            writeList(out, logAdapter, "logs", usuario.getLogs());
+            out.endObject();
+        }
+
+        @Override
+        public Usuario read(JsonReader in) throws IOException {
+            Usuario usuario = new Usuario();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    if ("roles".equals(name)) {
+                        usuario.setRoles(null);
+                    } else if ("logs".equals(name)) {
+                        usuario.setLogs(null);
+                    }
+                    continue;
+                }
+                switch (name) {
+                    case "idUsuario": usuario.setIdUsuario(in.nextLong()); break;
+                    case "username": usuario.setUsername(in.nextString()); break;
+                    case "email": usuario.setEmail(in.nextString()); break;
+                    case "nombre": usuario.setNombre(in.nextString()); break;
+                    case "apellido": usuario.setApellido(in.nextString()); break;
+                    case "fechaCreacion": usuario.setFechaCreacion(dateTimeAdapter.read(in)); break;
+                    case "fechaModificacion": usuario.setFechaModificacion(dateTimeAdapter.read(in)); break;
+                    case "ultimoLogin": usuario.setUltimoLogin(dateTimeAdapter.read(in)); break;
+                    case "activo": usuario.setActivo(readBoolean(in)); break;
+                    case "roles": usuario.setRoles(readList(in, rolAdapter)); break;
+                    case "logs": usuario.setLogs(readList(in, logAdapter)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return usuario;
+        }
+    }
+
+    private static class RolAdapter extends TypeAdapter<Rol> {
+        private final TypeAdapter<LocalDateTime> dateTimeAdapter;
+        private final TypeAdapter<Usuario> usuarioAdapter;
+
+        RolAdapter(Gson gson) {
+            this.dateTimeAdapter = gson.getAdapter(LocalDateTime.class);
+            this.usuarioAdapter = gson.getAdapter(Usuario.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Rol rol) throws IOException {
+            out.beginObject();
+            writeLong(out, "idRol", rol.getIdRol());
+            writeString(out, "nombre", rol.getNombre());
+            writeString(out, "descripcion", rol.getDescripcion());
+            writeDateTime(out, dateTimeAdapter, "fechaCreacion", rol.getFechaCreacion());
+            writeDateTime(out, dateTimeAdapter, "fechaModificacion", rol.getFechaModificacion());
+            writeBoolean(out, "activo", rol.getActivo());
+            writeList(out, usuarioAdapter, "usuarios", rol.getUsuarios());
+            out.endObject();
+        }
+
+        @Override
+        public Rol read(JsonReader in) throws IOException {
+            Rol rol = new Rol();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    if ("usuarios".equals(name)) {
+                        rol.setUsuarios(null);
+                    }
+                    continue;
+                }
+                switch (name) {
+                    case "idRol": rol.setIdRol(in.nextLong()); break;
+                    case "nombre": rol.setNombre(in.nextString()); break;
+                    case "descripcion": rol.setDescripcion(in.nextString()); break;
+                    case "fechaCreacion": rol.setFechaCreacion(dateTimeAdapter.read(in)); break;
+                    case "fechaModificacion": rol.setFechaModificacion(dateTimeAdapter.read(in)); break;
+                    case "activo": rol.setActivo(readBoolean(in)); break;
+                    case "usuarios": rol.setUsuarios(readList(in, usuarioAdapter)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return rol;
+        }
+    }
+
+    private static class LogEventoAdapter extends TypeAdapter<LogEvento> {
+        private final TypeAdapter<LocalDateTime> dateTimeAdapter;
+        private final TypeAdapter<Usuario> usuarioAdapter;
+
+        LogEventoAdapter(Gson gson) {
+            this.dateTimeAdapter = gson.getAdapter(LocalDateTime.class);
+            this.usuarioAdapter = gson.getAdapter(Usuario.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, LogEvento log) throws IOException {
+            out.beginObject();
+            writeLong(out, "idLog", log.getIdLog());
+            writeDateTime(out, dateTimeAdapter, "fechaEvento", log.getFechaEvento());
+            writeLong(out, "idUsuario", log.getIdUsuario());
+            writeString(out, "username", log.getUsername());
+            writeString(out, "tipoEvento", log.getTipoEvento());
+            writeString(out, "modulo", log.getModulo());
+            writeString(out, "accion", log.getAccion());
+            writeString(out, "entidad", log.getEntidad());
+            writeLong(out, "idAfectado", log.getIdAfectado());
+            writeString(out, "datosPrevios", log.getDatosPrevios());
+            writeString(out, "datosNuevos", log.getDatosNuevos());
+            writeString(out, "ipOrigen", log.getIpOrigen());
+            writeString(out, "userAgent", log.getUserAgent());
+            writeString(out, "nivel", log.getNivel());
+            if (log.getUsuario() != null) {
+                out.name("usuario");
+                usuarioAdapter.write(out, log.getUsuario());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public LogEvento read(JsonReader in) throws IOException {
+            LogEvento log = new LogEvento();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "idLog": log.setIdLog(in.nextLong()); break;
+                    case "fechaEvento": log.setFechaEvento(dateTimeAdapter.read(in)); break;
+                    case "idUsuario": log.setIdUsuario(in.nextLong()); break;
+                    case "username": log.setUsername(in.nextString()); break;
+                    case "tipoEvento": log.setTipoEvento(in.nextString()); break;
+                    case "modulo": log.setModulo(in.nextString()); break;
+                    case "accion": log.setAccion(in.nextString()); break;
+                    case "entidad": log.setEntidad(in.nextString()); break;
+                    case "idAfectado": log.setIdAfectado(in.nextLong()); break;
+                    case "datosPrevios": log.setDatosPrevios(in.nextString()); break;
+                    case "datosNuevos": log.setDatosNuevos(in.nextString()); break;
+                    case "ipOrigen": log.setIpOrigen(in.nextString()); break;
+                    case "userAgent": log.setUserAgent(in.nextString()); break;
+                    case "nivel": log.setNivel(in.nextString()); break;
+                    case "usuario": log.setUsuario(usuarioAdapter.read(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return log;
+        }
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeLong(JsonWriter out, String name, Long value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.longValue());
+        }
+    }
+
+    private static void writeBoolean(JsonWriter out, String name, Boolean value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value.booleanValue());
+        }
+    }
+
+    private static void writeDateTime(JsonWriter out, TypeAdapter<LocalDateTime> adapter,
+                                      String name, LocalDateTime value) throws IOException {
+        if (value != null) {
+            out.name(name);
+            adapter.write(out, value);
+        }
+    }
+
+    private static <E> void writeList(JsonWriter out, TypeAdapter<E> adapter,
+                                      String name, List<E> values) throws IOException {
+        if (values != null) {
+            out.name(name).beginArray();
+            for (E value : values) {
+                adapter.write(out, value);
+            }
+            out.endArray();
+        }
+    }
+
+    private static <E> List<E> readList(JsonReader in, TypeAdapter<E> adapter) throws IOException {
+        List<E> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(adapter.read(in));
+        }
+        in.endArray();
+        return values;
+    }
+
+    // Acepta true/false y también "true"/"false", como el adaptador de Gson para boolean
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+}
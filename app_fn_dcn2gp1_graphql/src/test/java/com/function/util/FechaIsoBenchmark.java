@@ -0,0 +1,60 @@
+package com.function.util;
+
+import com.google.gson.stream.JsonWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura de 1000 LocalDateTime en un JsonWriter: DateTimeFormatter.ISO_LOCAL_DATE_TIME
+ * contra el buffer por hilo de GsonConfig.formatIsoDateTime (mismo texto, ver GsonConfigTest).
+ *
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main FechaIsoBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FechaIsoBenchmark {
+
+    private final LocalDateTime[] fechas = new LocalDateTime[1000];
+
+    @Setup
+    public void preparar() {
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 15, 8, 30, 0, 123_000_000);
+        for (int i = 0; i < fechas.length; i++) {
+            fechas[i] = fecha.plusSeconds(i * 37L).plusNanos(i * 1000L);
+        }
+    }
+
+    @Benchmark
+    public String conFormatter() throws IOException {
+        StringWriter salida = new StringWriter(32 * fechas.length);
+        JsonWriter json = new JsonWriter(salida);
+        json.beginArray();
+        for (LocalDateTime fecha : fechas) {
+            json.value(fecha.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+        json.endArray();
+        return salida.toString();
+    }
+
+    @Benchmark
+    public String conBuffer() throws IOException {
+        StringWriter salida = new StringWriter(32 * fechas.length);
+        JsonWriter json = new JsonWriter(salida);
+        json.beginArray();
+        for (LocalDateTime fecha : fechas) {
+            json.value(GsonConfig.formatIsoDateTime(fecha));
+        }
+        json.endArray();
+        return salida.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.function.util;
+
+import com.function.model.LogEvento;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de una lista de LogEvento: Gson creado en cada llamada con reflexión, fechas
+ * como JsonPrimitive y pretty printing (como antes de GsonConfig.getGson) contra el Gson
+ * compartido con los adaptadores de streaming.
+ *
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main GsonBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonBenchmark {
+
+    @Param({"100", "10000"})
+    private int logs;
+
+    private List<LogEvento> lista;
+
+    @Setup
+    public void preparar() {
+        lista = new ArrayList<>(logs);
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 15, 8, 30, 0, 123_000_000);
+        for (int i = 0; i < logs; i++) {
+            LogEvento log = new LogEvento();
+            log.setIdLog((long) i + 1);
+            log.setFechaEvento(fecha.plusSeconds(i));
+            log.setIdUsuario((long) (i % 50) + 1);
+            log.setUsername("usuario" + (i % 50));
+            log.setTipoEvento("user_updated");
+            log.setModulo("USUARIOS");
+            log.setAccion("ACTUALIZAR");
+            log.setEntidad("usuario");
+            log.setIdAfectado((long) (i % 50) + 1);
+            log.setDatosPrevios("{\"email\":\"anterior" + i + "@duoc.cl\"}");
+            log.setDatosNuevos("{\"email\":\"nuevo" + i + "@duoc.cl\"}");
+            log.setIpOrigen("10.0.0." + (i % 255));
+            log.setNivel("INFO");
+            lista.add(log);
+        }
+    }
+
+    @Benchmark
+    public String gsonPorLlamada() {
+        Gson gson = new GsonBuilder()
+                .setPrettyPrinting()
+                .registerTypeAdapter(LocalDateTime.class, (JsonSerializer<LocalDateTime>) (src, tipo, contexto) ->
+                        new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
+                .create();
+        return gson.toJson(lista);
+    }
+
+    @Benchmark
+    public String gsonCompartido() {
+        return GsonConfig.getGson().toJson(lista);
+    }
+}
@@ -0,0 +1,90 @@
+package com.function.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fechas de GsonConfig: el formato con buffer debe coincidir con ISO_LOCAL_DATE_TIME.
+ */
+public class GsonConfigTest {
+
+    private static final LocalDateTime[] FECHAS = {
+            LocalDateTime.of(2026, 1, 15, 8, 30),
+            LocalDateTime.of(2026, 1, 15, 8, 30, 5),
+            LocalDateTime.of(2026, 12, 31, 23, 59, 59, 999_999_999),
+            // Ceros finales en la fracción: milisegundos, microsegundos y un solo dígito
+            LocalDateTime.of(2026, 3, 1, 0, 0, 0, 120_000_000),
+            LocalDateTime.of(2026, 3, 1, 0, 0, 0, 123_456_000),
+            LocalDateTime.of(2026, 3, 1, 0, 0, 0, 500_000_000),
+            LocalDateTime.of(2026, 3, 1, 0, 0, 0, 1),
+            LocalDateTime.of(2026, 3, 1, 0, 0, 0, 100),
+            // Años en el borde y fuera de 0000-9999
+            LocalDateTime.of(0, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            LocalDateTime.of(10000, 1, 1, 0, 0),
+            LocalDateTime.of(-1, 6, 15, 12, 0, 0, 10_000_000),
+            LocalDateTime.MIN,
+            LocalDateTime.MAX
+    };
+
+    @Test
+    public void formatIsoDateTimeCoincideConIsoLocalDateTime() {
+        for (LocalDateTime fecha : FECHAS) {
+            assertEquals(fecha.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), GsonConfig.formatIsoDateTime(fecha),
+                    fecha::toString);
+        }
+    }
+
+    @Test
+    public void adaptadorIsoEscribeYLeeLaMismaFecha() throws IOException {
+        GsonConfig.LocalDateTimeAdapter adaptador = new GsonConfig.LocalDateTimeAdapter(false, ZoneOffset.UTC);
+        for (LocalDateTime fecha : FECHAS) {
+            String json = escribir(adaptador, fecha);
+            assertEquals('"' + fecha.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + '"', json);
+            assertEquals(fecha, adaptador.read(new JsonReader(new StringReader(json))));
+        }
+    }
+
+    @Test
+    public void adaptadorEpochMillisUsaLaZonaConfigurada() throws IOException {
+        ZoneId zona = ZoneId.of("America/Santiago");
+        GsonConfig.LocalDateTimeAdapter adaptador = new GsonConfig.LocalDateTimeAdapter(true, zona);
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 15, 8, 30, 0, 123_456_789);
+
+        String json = escribir(adaptador, fecha);
+        assertEquals(String.valueOf(fecha.atZone(zona).toInstant().toEpochMilli()), json);
+        // Epoch millis conserva solo los milisegundos
+        assertEquals(fecha.withNano(123_000_000), adaptador.read(new JsonReader(new StringReader(json))));
+        // Al leer también acepta texto ISO
+        assertEquals(fecha, adaptador.read(new JsonReader(new StringReader("\"2026-01-15T08:30:00.123456789\""))));
+    }
+
+    @Test
+    public void adaptadorFechaCoincideConIsoLocalDate() throws IOException {
+        GsonConfig.LocalDateAdapter adaptador = new GsonConfig.LocalDateAdapter();
+        for (LocalDateTime fecha : FECHAS) {
+            LocalDate dia = fecha.toLocalDate();
+            StringWriter salida = new StringWriter();
+            adaptador.write(new JsonWriter(salida), dia);
+            assertEquals('"' + dia.format(DateTimeFormatter.ISO_LOCAL_DATE) + '"', salida.toString(), dia::toString);
+        }
+    }
+
+    private static String escribir(GsonConfig.LocalDateTimeAdapter adaptador, LocalDateTime fecha) throws IOException {
+        StringWriter salida = new StringWriter();
+        adaptador.write(new JsonWriter(salida), fecha);
+        return salida.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.duoc.app_spring.config;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Define qué errores cuentan como falla para el circuit breaker: respuestas 5xx,
+ * errores de conexión y tiempos de espera. Los 4xx son errores del cliente y no
+ * deben abrir el circuito.
+ */
+public class DownstreamFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable ex) {
+        if (ex instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return ex instanceof WebClientRequestException
+                || ex instanceof TimeoutException
+                || ex instanceof IOException;
+    }
+}
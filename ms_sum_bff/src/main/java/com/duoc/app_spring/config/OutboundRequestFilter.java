@@ -0,0 +1,116 @@
+package com.duoc.app_spring.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro de instrumentación para las llamadas salientes del WebClient.
+ * Registra latencia, código de estado y tamaño de respuesta por ruta de destino
+ * y solo escribe el detalle de la solicitud (con cabeceras sensibles ocultas)
+ * en nivel DEBUG y para una muestra de las solicitudes.
+ */
+@Component
+public class OutboundRequestFilter implements ExchangeFilterFunction {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundRequestFilter.class);
+
+    static final String TIMER_NAME = "bff.outbound.requests";
+    static final String SIZE_NAME = "bff.outbound.response.size";
+
+    // Segmentos numéricos de la ruta se agrupan para no generar una serie por ID
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private static final Set<String> SENSITIVE_HEADERS = Set.of(
+            "authorization", "proxy-authorization", "cookie", "set-cookie",
+            "x-functions-key", "x-api-key", "aeg-sas-key");
+
+    private final MeterRegistry meterRegistry;
+    private final double logSampleRate;
+
+    public OutboundRequestFilter(MeterRegistry meterRegistry,
+                                 @Value("${bff.outbound.log-sample-rate:0.01}") double logSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.logSampleRate = logSampleRate;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String method = request.method().name();
+        String route = route(request.url());
+
+        if (logger.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            logger.debug("Solicitud saliente: {} {} cabeceras={}", method, request.url(), redact(request.headers()));
+        }
+
+        long start = System.nanoTime();
+        return next.exchange(request)
+                .doOnSuccess(response -> {
+                    String status = String.valueOf(response.statusCode().value());
+                    record(method, route, status, start);
+                    long contentLength = response.headers().asHttpHeaders().getContentLength();
+                    if (contentLength >= 0) {
+                        DistributionSummary.builder(SIZE_NAME)
+                                .baseUnit("bytes")
+                                .tag("method", method)
+                                .tag("route", route)
+                                .register(meterRegistry)
+                                .record(contentLength);
+                    }
+                })
+                .doOnError(ex -> record(method, route, "IO_ERROR", start));
+    }
+
+    /**
+     * Registra la duración hasta recibir las cabeceras de la respuesta.
+     */
+    private void record(String method, String route, String status, long start) {
+        Timer.builder(TIMER_NAME)
+                .tag("method", method)
+                .tag("route", route)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Obtiene la ruta de destino (host + path) reemplazando los IDs por un marcador.
+     */
+    static String route(URI url) {
+        String path = url.getPath() == null ? "" : url.getPath();
+        return url.getHost() + NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    /**
+     * Devuelve una copia de las cabeceras con los valores sensibles ocultos.
+     */
+    static HttpHeaders redact(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (SENSITIVE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                copy.add(name, "***");
+            } else {
+                copy.addAll(name, values);
+            }
+        });
+        return copy;
+    }
+}
@@ -1,27 +1,32 @@
 package com.duoc.app_spring.config;
 
+import io.netty.channel.ChannelOption;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
-    
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
+    public WebClient.Builder webClientBuilder(OutboundRequestFilter outboundRequestFilter,
+                                              @Value("${bff.http.connect-timeout:5s}") Duration connectTimeout,
+                                              @Value("${bff.http.response-timeout:20s}") Duration responseTimeout,
+                                              @Value("${bff.http.compress:true}") boolean compress) {
+        // compress(true) envía Accept-Encoding: gzip y descomprime la respuesta antes de entregarla
+        HttpClient httpClient = HttpClient.create()
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+            .responseTimeout(responseTimeout)
+            .compress(compress);
+
         return WebClient.builder()
-            .filter((request, next) -> {
-                System.out.println("Solicitud: " + request.method() + " " + request.url());
-                request.headers().forEach((name, values) -> 
-                    values.forEach(value -> System.out.println(name + ": " + value))
-                );
-    
-                // Intenta imprimir el cuerpo si es posible
-                if (request.body() != null) {
-                    System.out.println("Cuerpo de la solicitud presente (no se puede mostrar directamente)");
-                }
-                
-                return next.exchange(request);
-            });
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .filter(outboundRequestFilter);
     }
-}
\ No newline at end of file
+}
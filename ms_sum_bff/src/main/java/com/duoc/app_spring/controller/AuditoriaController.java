@@ -1,38 +1,145 @@
 package com.duoc.app_spring.controller;
 
+import com.duoc.app_spring.service.AuditoriaExportService;
+import com.duoc.app_spring.service.AuditoriaStreamService;
 import com.duoc.app_spring.service.GraphQLService;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")
 public class AuditoriaController {
     
+    private static final String GRAPHQL_JSON_VALUE = "application/graphql+json";
+    
     private final GraphQLService graphQLService;
+    private final AuditoriaStreamService auditoriaStreamService;
+    private final AuditoriaExportService auditoriaExportService;
+    private final ObjectMapper objectMapper;
+    private final boolean passthrough;
+    private final Duration heartbeat;
     
-    public AuditoriaController(GraphQLService graphQLService) {
+    public AuditoriaController(GraphQLService graphQLService,
+                               AuditoriaStreamService auditoriaStreamService,
+                               AuditoriaExportService auditoriaExportService,
+                               ObjectMapper objectMapper,
+                               @Value("${bff.graphql.passthrough:true}") boolean passthrough,
+                               @Value("${bff.auditoria.stream.heartbeat:15s}") Duration heartbeat) {
         this.graphQLService = graphQLService;
+        this.auditoriaStreamService = auditoriaStreamService;
+        this.auditoriaExportService = auditoriaExportService;
+        this.objectMapper = objectMapper;
+        this.passthrough = passthrough;
+        this.heartbeat = heartbeat;
     }
     
     /**
      * Endpoint para la API de auditoría - formato original de GraphQL
      */
-    @PostMapping(value = "/auditoria", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<JsonNode> forwardGraphQLQuery(@RequestBody String requestBody) {
-        JsonNode response = graphQLService.executeAuditoriaQuery(requestBody);
-        return ResponseEntity.ok(response);
+    @PostMapping(value = "/auditoria", consumes = {MediaType.APPLICATION_JSON_VALUE, GRAPHQL_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> forwardGraphQLQuery(HttpServletRequest request) throws IOException {
+        if (passthrough) {
+            return stream(graphQLService.passthroughAuditoria(request.getInputStream(),
+                    request.getContentLengthLong(), MediaType.parseMediaType(request.getContentType())));
+        }
+        return json(graphQLService.executeAuditoriaQuery(readBody(request)));
     }
     
     /**
      * Endpoint para la API de consulta de usuarios por rol - formato original de GraphQL
      */
-    @PostMapping(value = "/usuariosByRole", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<JsonNode> forwardUsuariosByRoleQuery(@RequestBody String requestBody) {
-        JsonNode response = graphQLService.executeUsuariosByRoleQuery(requestBody);
-        return ResponseEntity.ok(response);
+    @PostMapping(value = "/usuariosByRole", consumes = {MediaType.APPLICATION_JSON_VALUE, GRAPHQL_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> forwardUsuariosByRoleQuery(HttpServletRequest request) throws IOException {
+        if (passthrough) {
+            return stream(graphQLService.passthroughUsuariosByRole(request.getInputStream(),
+                    request.getContentLengthLong(), MediaType.parseMediaType(request.getContentType())));
+        }
+        return json(graphQLService.executeUsuariosByRoleQuery(readBody(request)));
+    }
+    
+    /**
+     * Stream SSE con los logs de auditoría a medida que se registran, en lugar de repetir
+     * logsPorRangoFechas. Filtros opcionales: idUsuario, tipoEvento, modulo, entidad, nivel.
+     * Cada evento lleva el idLog como id; al reconectarse, el navegador lo envía en Last-Event-ID
+     * y el stream retoma desde ahí. Un comentario periódico mantiene abierta la conexión.
+     */
+    @GetMapping(value = "/auditoria/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<JsonNode>> streamAuditoria(
+            @RequestParam Map<String, String> filtros,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Flux<ServerSentEvent<JsonNode>> logs = auditoriaStreamService.suscribir(filtros, lastEventId)
+                .map(log -> ServerSentEvent.<JsonNode>builder(log)
+                        .id(log.path("idLog").asText())
+                        .event("log")
+                        .build());
+        Flux<ServerSentEvent<JsonNode>> latidos = Flux.interval(heartbeat)
+                .map(tick -> ServerSentEvent.<JsonNode>builder().comment("keepalive").build());
+        return Flux.merge(logs, latidos);
+    }
+    
+    /**
+     * Exportación de la auditoría de un rango de fechas (fechaFin excluida) como archivo gzip
+     * de NDJSON o CSV. La primera página se pide antes de responder para que los errores de
+     * parámetros lleguen como 400; las siguientes se copian mientras se escribe la respuesta.
+     */
+    @GetMapping("/auditoria/export")
+    public ResponseEntity<StreamingResponseBody> exportarAuditoria(
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin,
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        ResponseEntity<Flux<DataBuffer>> primera = auditoriaExportService.pagina(fechaInicio, fechaFin, formato, "0");
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/gzip"));
+        String disposition = primera.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION);
+        if (disposition != null) {
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, disposition);
+        }
+        StreamingResponseBody stream = output ->
+                auditoriaExportService.copiar(primera, fechaInicio, fechaFin, formato, output);
+        return ResponseEntity.ok().headers(headers).body(stream);
+    }
+    
+    /**
+     * Escribe el flujo de la respuesta GraphQL directamente en la salida del servlet
+     */
+    private ResponseEntity<StreamingResponseBody> stream(ResponseEntity<Flux<DataBuffer>> upstream) {
+        Flux<DataBuffer> body = upstream.getBody() != null ? upstream.getBody() : Flux.empty();
+        StreamingResponseBody stream = output -> DataBufferUtils.write(body, output)
+                .doOnNext(DataBufferUtils::release)
+                .blockLast();
+        return new ResponseEntity<>(stream, upstream.getHeaders(), upstream.getStatusCode());
+    }
+    
+    /**
+     * Modo sin passthrough: escribe la respuesta ya parseada como JSON
+     */
+    private ResponseEntity<StreamingResponseBody> json(JsonNode response) {
+        StreamingResponseBody stream = output -> objectMapper.writeValue(output, response);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(stream);
+    }
+    
+    private static String readBody(HttpServletRequest request) throws IOException {
+        return StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.duoc.app_spring.controller;
+
+import com.duoc.app_spring.model.ApiResponse;
+import com.duoc.app_spring.model.PaginaCambios;
+import com.duoc.app_spring.service.CambiosService;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/changes")
+@CrossOrigin(origins = "*")
+public class CambiosController {
+    
+    private final CambiosService cambiosService;
+    
+    public CambiosController(CambiosService cambiosService) {
+        this.cambiosService = cambiosService;
+    }
+    
+    /**
+     * Feed de cambios para sincronizar usuarios y roles de forma incremental: se pide con el
+     * cursor de la respuesta anterior hasta que hayMas sea false, y se vuelve a consultar más tarde
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<PaginaCambios>> getCambios(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(cambiosService.getCambios(since, limit));
+    }
+}
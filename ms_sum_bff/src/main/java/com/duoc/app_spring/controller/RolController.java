@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/roles")
@@ -21,9 +22,16 @@ public class RolController {
         this.rolService = rolService;
     }
     
+    /**
+     * Listado de roles; los filtros (activo, q, createdAfter), fields y sort
+     * se reenvían a la Azure Function, que los resuelve en la base de datos
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Rol>>> getAllRoles() {
-        ApiResponse<List<Rol>> response = rolService.getAllRoles();
+    public ResponseEntity<ApiResponse<?>> getAllRoles(@RequestParam Map<String, String> parametros) {
+        if (parametros.containsKey("fields")) {
+            return ResponseEntity.ok(rolService.getRolesCampos(parametros));
+        }
+        ApiResponse<List<Rol>> response = rolService.getAllRoles(parametros);
         return ResponseEntity.ok(response);
     }
     
@@ -2,14 +2,20 @@ package com.duoc.app_spring.controller;
 
 import com.duoc.app_spring.model.ApiResponse;
 import com.duoc.app_spring.model.Usuario;
+import com.duoc.app_spring.model.UsuarioDetalle;
 import com.duoc.app_spring.model.UsuarioUpdateDTO;
+import com.duoc.app_spring.model.UsuariosPorIds;
+import com.duoc.app_spring.service.UsuarioDetalleService;
 import com.duoc.app_spring.service.UsuarioService;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -17,14 +23,36 @@ import java.util.List;
 public class UsuarioController {
     
     private final UsuarioService usuarioService;
+    private final UsuarioDetalleService usuarioDetalleService;
     
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, UsuarioDetalleService usuarioDetalleService) {
         this.usuarioService = usuarioService;
+        this.usuarioDetalleService = usuarioDetalleService;
     }
     
+    /**
+     * Varios usuarios por ID en una sola llamada (variante de ?ids= para listas largas)
+     */
+    @PostMapping("/buscar")
+    public ResponseEntity<ApiResponse<UsuariosPorIds>> buscarUsuarios(@RequestBody List<Long> ids) {
+        ApiResponse<UsuariosPorIds> response = usuarioService.getUsuariosByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Listado de usuarios (o ?ids=1,2,3 para varios usuarios por ID); los filtros (activo, q,
+     * dominio, createdAfter), fields y sort se reenvían a la Azure Function, que los resuelve
+     * en la base de datos
+     */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Usuario>>> getAllUsuarios() {
-        ApiResponse<List<Usuario>> response = usuarioService.getAllUsuarios();
+    public ResponseEntity<ApiResponse<?>> getAllUsuarios(@RequestParam Map<String, String> parametros) {
+        if (parametros.containsKey("ids")) {
+            return ResponseEntity.ok(usuarioService.getUsuariosByIds(leerIds(parametros.get("ids"))));
+        }
+        if (parametros.containsKey("fields")) {
+            return ResponseEntity.ok(usuarioService.getUsuariosCampos(parametros));
+        }
+        ApiResponse<List<Usuario>> response = usuarioService.getAllUsuarios(parametros);
         return ResponseEntity.ok(response);
     }
     
@@ -38,6 +66,19 @@ public class UsuarioController {
         }
     }
     
+    /**
+     * Detalle compuesto del usuario (usuario, roles y logs) obtenido en una sola llamada
+     */
+    @GetMapping("/{id}/detalle")
+    public ResponseEntity<ApiResponse<UsuarioDetalle>> getUsuarioDetalle(@PathVariable Long id) {
+        ApiResponse<UsuarioDetalle> response = usuarioDetalleService.getUsuarioDetalle(id);
+        if (response.isSuccess()) {
+            return ResponseEntity.ok(response);
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+    
     @PostMapping
     public ResponseEntity<ApiResponse<Usuario>> createUsuario(@RequestBody Usuario usuario) {
         ApiResponse<Usuario> response = usuarioService.createUsuario(usuario);
@@ -90,4 +131,19 @@ public class UsuarioController {
             this.idRol = idRol;
         }
     }
+    
+    // IDs separados por comas de ?ids=; un valor no numérico responde 400
+    private static List<Long> leerIds(String valor) {
+        List<Long> ids = new ArrayList<>();
+        for (String id : valor.split(",")) {
+            if (!id.isBlank()) {
+                try {
+                    ids.add(Long.parseLong(id.trim()));
+                } catch (NumberFormatException e) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ID invalido en ids: " + id.trim());
+                }
+            }
+        }
+        return ids;
+    }
 }
\ No newline at end of file
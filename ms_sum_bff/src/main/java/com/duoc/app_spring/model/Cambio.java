@@ -0,0 +1,27 @@
+package com.duoc.app_spring.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambio de un usuario, rol o asignación de rol (entidad usuario_rol) en el feed de cambios.
+ * Los datos son el estado actual de la entidad (los campos de Usuario o de Rol) y no vienen
+ * en los eliminados; en las asignaciones son idUsuario e idRol. Los usuarios creados y las
+ * asignaciones traen en roles los roles actuales del usuario.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cambio {
+    private String cursor;
+    private String entidad;
+    private String operacion;
+    private Long id;
+    private LocalDateTime fecha;
+    private Map<String, Object> datos;
+    private List<Long> roles;
+}
@@ -0,0 +1,19 @@
+package com.duoc.app_spring.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página del feed de cambios: los cambios en orden, el cursor para pedir la siguiente
+ * página (since=cursor) y si quedan más cambios después de esta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCambios {
+    private List<Cambio> cambios;
+    private String cursor;
+    private boolean hayMas;
+}
@@ -0,0 +1,23 @@
+package com.duoc.app_spring.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Documento compuesto para la página de detalle de usuario: datos del usuario,
+ * catálogo de roles y logs de auditoría. Las partes que no se pudieron obtener
+ * quedan en null y su causa se informa en {@code errores}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioDetalle {
+    private Usuario usuario;
+    private List<Rol> roles;
+    private JsonNode logs;
+    private Map<String, String> errores;
+}
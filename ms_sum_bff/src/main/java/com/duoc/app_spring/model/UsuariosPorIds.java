@@ -0,0 +1,18 @@
+package com.duoc.app_spring.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de la búsqueda de usuarios por lista de IDs: los usuarios encontrados
+ * (en el orden pedido) y los IDs que no existen.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuariosPorIds {
+    private List<Usuario> usuarios;
+    private List<Long> noEncontrados;
+}
@@ -0,0 +1,74 @@
+package com.duoc.app_spring.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exportación de la auditoría en NDJSON o CSV comprimido. La Azure Function entrega la exportación
+ * por páginas (bloques gzip con el cursor de la siguiente en X-Export-Cursor); el BFF las pide una
+ * tras otra y copia los bytes comprimidos a la respuesta a medida que llegan, sin descomprimirlos
+ * ni acumularlos, así que la memoria usada no depende del tamaño de la exportación.
+ */
+@Service
+public class AuditoriaExportService {
+    
+    static final String CURSOR = "X-Export-Cursor";
+    static final String COMPLETO = "X-Export-Completo";
+    
+    private final WebClient exportClient;
+    private final DownstreamInvoker invoker;
+    
+    public AuditoriaExportService(WebClient.Builder webClientBuilder,
+                                  @Value("${azure.functions.auditoria-export-url}") String exportUrl,
+                                  DownstreamInvoker invoker) {
+        this.exportClient = webClientBuilder.clone().baseUrl(exportUrl).build();
+        this.invoker = invoker;
+    }
+    
+    /**
+     * Pide una página de la exportación; los 4xx de la Function (parámetros inválidos)
+     * llegan como WebClientResponseException
+     */
+    public ResponseEntity<Flux<DataBuffer>> pagina(String fechaInicio, String fechaFin, String formato, String cursor) {
+        Map<String, String> valores = new LinkedHashMap<>();
+        valores.put("fechaInicio", fechaInicio);
+        valores.put("fechaFin", fechaFin);
+        valores.put("formato", formato);
+        valores.put("cursor", cursor);
+        return invoker.invoke("graphql", "exportarAuditoria", exportClient.get()
+                .uri("?fechaInicio={fechaInicio}&fechaFin={fechaFin}&formato={formato}&cursor={cursor}", valores)
+                .retrieve()
+                .toEntityFlux(DataBuffer.class))
+                .block();
+    }
+    
+    /**
+     * Copia la página recibida y las siguientes a la salida, hasta que la Function indique
+     * que la exportación está completa
+     */
+    public void copiar(ResponseEntity<Flux<DataBuffer>> primera, String fechaInicio, String fechaFin,
+                       String formato, OutputStream salida) {
+        ResponseEntity<Flux<DataBuffer>> pagina = primera;
+        while (true) {
+            Flux<DataBuffer> cuerpo = pagina.getBody() != null ? pagina.getBody() : Flux.empty();
+            DataBufferUtils.write(cuerpo, salida)
+                    .doOnNext(DataBufferUtils::release)
+                    .blockLast();
+            
+            String cursor = pagina.getHeaders().getFirst(CURSOR);
+            if (!"false".equalsIgnoreCase(pagina.getHeaders().getFirst(COMPLETO)) || cursor == null) {
+                return;
+            }
+            pagina = pagina(fechaInicio, fechaFin, formato, cursor);
+        }
+    }
+}
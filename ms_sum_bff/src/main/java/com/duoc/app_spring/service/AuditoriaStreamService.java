@@ -0,0 +1,220 @@
+package com.duoc.app_spring.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Seguimiento en vivo de la tabla de auditoría para los clientes del stream SSE.
+ * Un solo sondeo por instancia del BFF consulta logsDesde en el servicio GraphQL con el último
+ * idLog recibido (consulta por rango sobre la clave primaria) y reparte los logs nuevos a todos
+ * los suscriptores; cada suscriptor aplica sus filtros sobre ese flujo compartido. El sondeo
+ * empieza con el primer suscriptor y se detiene cuando se desconecta el último.
+ * logsDesde solo devuelve logs con algunos segundos de antigüedad (LOGS_DESDE_RETRASO_SEGUNDOS en
+ * el servicio GraphQL), así que avanzar el cursor no se salta filas con un idLog menor que se
+ * confirmaron tarde; a cambio, los logs llegan al stream con ese retraso.
+ * Un cliente que se reconecta con el último idLog recibido (Last-Event-ID) primero recibe lo
+ * registrado mientras estuvo desconectado, con una consulta logsDesde propia con sus filtros.
+ */
+@Service
+public class AuditoriaStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaStreamService.class);
+
+    private static final String LOGS_DESDE =
+            "query LogsDesde($idLog: ID, $limite: Int, $idUsuario: ID, $tipoEvento: String, " +
+            "    $modulo: String, $entidad: String, $nivel: String) { " +
+            "  logsDesde(idLog: $idLog, limite: $limite, idUsuario: $idUsuario, tipoEvento: $tipoEvento, " +
+            "      modulo: $modulo, entidad: $entidad, nivel: $nivel) { " +
+            "    idLog " +
+            "    fechaEvento " +
+            "    idUsuario " +
+            "    username " +
+            "    tipoEvento " +
+            "    modulo " +
+            "    accion " +
+            "    entidad " +
+            "    idAfectado " +
+            "    datosPrevios " +
+            "    datosNuevos " +
+            "    ipOrigen " +
+            "    nivel " +
+            "  } " +
+            "}";
+
+    // Campos de LogEvento por los que se puede filtrar el stream
+    public static final List<String> FILTROS = List.of("idUsuario", "tipoEvento", "modulo", "entidad", "nivel");
+
+    private final WebClient auditoriaClient;
+    private final DownstreamInvoker invoker;
+    private final ObjectMapper objectMapper;
+    private final Duration intervalo;
+    private final int limite;
+    private final Flux<JsonNode> logs;
+
+    public AuditoriaStreamService(WebClient.Builder webClientBuilder,
+                                  @Value("${azure.functions.graphql-url}") String auditoriaUrl,
+                                  @Value("${bff.auditoria.stream.intervalo:2s}") Duration intervalo,
+                                  @Value("${bff.auditoria.stream.limite:500}") int limite,
+                                  DownstreamInvoker invoker,
+                                  ObjectMapper objectMapper) {
+        this.auditoriaClient = webClientBuilder.clone().baseUrl(auditoriaUrl).build();
+        this.invoker = invoker;
+        this.objectMapper = objectMapper;
+        this.intervalo = intervalo;
+        this.limite = limite;
+        this.logs = Flux.defer(this::sondear).publish().refCount(1);
+    }
+
+    /**
+     * Logs nuevos de auditoría que cumplen los filtros (valores exactos de los campos de FILTROS)
+     * @param ultimoId Último idLog recibido por el cliente (Last-Event-ID); si viene, antes de los
+     *                 logs nuevos se envían los posteriores a él, sin repetir ninguno
+     */
+    public Flux<JsonNode> suscribir(Map<String, String> filtros, String ultimoId) {
+        Map<String, String> activos = new LinkedHashMap<>();
+        for (String campo : FILTROS) {
+            String valor = filtros.get(campo);
+            if (valor != null && !valor.isBlank()) {
+                activos.put(campo, valor);
+            }
+        }
+        Predicate<JsonNode> cumpleFiltros = log -> activos.entrySet().stream()
+                .allMatch(filtro -> filtro.getValue().equals(log.path(filtro.getKey()).asText(null)));
+
+        Long desde = leerId(ultimoId);
+        if (desde == null) {
+            return logs.filter(cumpleFiltros);
+        }
+        return Flux.defer(() -> {
+            // El flujo compartido se escucha desde ya y se acumula mientras se envía lo pendiente
+            AtomicLong ultimo = new AtomicLong(desde);
+            Sinks.Many<JsonNode> vivos = Sinks.many().unicast().onBackpressureBuffer();
+            Disposable suscripcion = logs.subscribe(vivos::tryEmitNext, vivos::tryEmitError, vivos::tryEmitComplete);
+            // Si el sondeo compartido arrancó después de la puesta al día, el hueco hasta su
+            // primer log se completa con otra consulta
+            Flux<JsonNode> enVivo = vivos.asFlux().switchOnFirst((primero, flujo) -> primero.hasValue()
+                    ? ponerAlDia(ultimo, idLog(primero.get()), activos).concatWith(flujo)
+                    : flujo);
+            return ponerAlDia(ultimo, Long.MAX_VALUE, activos)
+                    .concatWith(enVivo)
+                    .filter(log -> avanzar(ultimo, log))
+                    .filter(cumpleFiltros)
+                    .doFinally(senal -> suscripcion.dispose());
+        });
+    }
+
+    /**
+     * Sondeo compartido: cada activación empieza en el último log registrado, para que los
+     * suscriptores reciban solo lo que ocurre después de conectarse
+     */
+    private Flux<JsonNode> sondear() {
+        AtomicReference<String> cursor = new AtomicReference<>();
+        return Flux.interval(Duration.ZERO, intervalo)
+                .onBackpressureDrop()
+                .concatMap(tick -> siguientePagina(cursor), 1)
+                .concatMapIterable(pagina -> pagina);
+    }
+
+    /**
+     * Logs de un cliente posteriores a ultimo y anteriores a hasta, con sus filtros, página por
+     * página hasta llegar al final de la tabla. Un error termina el stream para que el cliente
+     * se reconecte con el mismo Last-Event-ID en lugar de perder esos logs.
+     */
+    private Flux<JsonNode> ponerAlDia(AtomicLong ultimo, long hasta, Map<String, String> filtros) {
+        return Flux.defer(() -> consultar(String.valueOf(ultimo.get()), limite, filtros)
+                .expand(pagina -> pagina.size() < limite || idLog(pagina.get(pagina.size() - 1)) >= hasta
+                        ? Mono.empty()
+                        : consultar(pagina.get(pagina.size() - 1).path("idLog").asText(), limite, filtros))
+                .concatMapIterable(pagina -> pagina)
+                .takeWhile(log -> idLog(log) < hasta)
+                .doOnError(e -> logger.warn("No se pudo enviar la auditoria pendiente desde {}: {}",
+                        ultimo.get(), e.getMessage())));
+    }
+
+    private Mono<List<JsonNode>> siguientePagina(AtomicReference<String> cursor) {
+        String desde = cursor.get();
+        return consultar(desde, desde == null ? 1 : limite, Collections.emptyMap())
+                .map(pagina -> {
+                    if (!pagina.isEmpty()) {
+                        cursor.set(pagina.get(pagina.size() - 1).path("idLog").asText());
+                    } else if (desde == null) {
+                        cursor.set("0");
+                    }
+                    // La primera consulta solo ubica el cursor al final de la tabla
+                    return desde == null ? Collections.<JsonNode>emptyList() : pagina;
+                })
+                .onErrorResume(e -> {
+                    // Se reintenta en el siguiente intervalo desde el mismo cursor
+                    logger.warn("No se pudo consultar la auditoria desde {}: {}", desde, e.getMessage());
+                    return Mono.just(Collections.emptyList());
+                });
+    }
+
+    private Mono<List<JsonNode>> consultar(String desde, int cantidad, Map<String, String> filtros) {
+        ObjectNode variables = objectMapper.createObjectNode();
+        variables.put("idLog", desde);
+        variables.put("limite", cantidad);
+        filtros.forEach(variables::put);
+        ObjectNode consulta = objectMapper.createObjectNode();
+        consulta.put("query", LOGS_DESDE);
+        consulta.set("variables", variables);
+
+        return invoker.invoke("graphql", "logsDesde", auditoriaClient.post()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(consulta)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class))
+                .map(respuesta -> {
+                    List<JsonNode> pagina = new ArrayList<>();
+                    respuesta.path("data").path("logsDesde").forEach(pagina::add);
+                    return pagina;
+                });
+    }
+
+    // Envía cada log una sola vez, en orden de idLog
+    private static boolean avanzar(AtomicLong ultimo, JsonNode log) {
+        long id = idLog(log);
+        if (id <= ultimo.get()) {
+            return false;
+        }
+        ultimo.set(id);
+        return true;
+    }
+
+    private static long idLog(JsonNode log) {
+        return log.path("idLog").asLong();
+    }
+
+    private static Long leerId(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.duoc.app_spring.service;
+
+import com.duoc.app_spring.model.ApiResponse;
+import com.duoc.app_spring.model.PaginaCambios;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class CambiosService {
+    
+    private final WebClient webClient;
+    private final DownstreamInvoker invoker;
+    
+    public CambiosService(WebClient.Builder webClientBuilder,
+                          @Value("${azure.functions.base-url}") String baseUrl,
+                          DownstreamInvoker invoker) {
+        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.invoker = invoker;
+    }
+    
+    /**
+     * Cambios de usuarios y roles posteriores al cursor (since), leídos por la Azure Function
+     * del registro de auditoría; since=now devuelve solo el cursor actual
+     */
+    public ApiResponse<PaginaCambios> getCambios(String since, Integer limit) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        valores.put("since", since != null ? since : "");
+        valores.put("limit", limit != null ? limit : "");
+        return invoker.invoke("cambios", "getCambios", webClient.get()
+                .uri("/cambios?since={since}&limit={limit}", valores)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<PaginaCambios>>() {}))
+                .block();
+    }
+}
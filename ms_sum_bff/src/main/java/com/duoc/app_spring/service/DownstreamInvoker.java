@@ -0,0 +1,136 @@
+package com.duoc.app_spring.service;
+
+import com.duoc.app_spring.util.DownstreamUnavailableException;
+import com.duoc.app_spring.util.DownstreamUnavailableException.Reason;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Punto único por el que pasan las llamadas de los servicios hacia las Azure Functions.
+ * Registra por servicio de destino y operación la latencia, los errores por código
+ * de estado y la cantidad de llamadas en curso.
+ *
+ * Cada servicio de destino tiene además su propio tiempo límite, bulkhead y circuit
+ * breaker (configurados en resilience4j.* con el nombre del destino), de modo que un
+ * backend lento no consuma todos los hilos del BFF.
+ */
+@Component
+public class DownstreamInvoker {
+
+    static final String CALLS_TIMER = "bff.downstream.calls";
+    static final String ERRORS_COUNTER = "bff.downstream.errors";
+    static final String IN_FLIGHT_GAUGE = "bff.downstream.in.flight";
+
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public DownstreamInvoker(MeterRegistry meterRegistry,
+                             CircuitBreakerRegistry circuitBreakerRegistry,
+                             BulkheadRegistry bulkheadRegistry,
+                             TimeLimiterRegistry timeLimiterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+    }
+
+    /**
+     * Envuelve la llamada con la instrumentación; la medición comienza al suscribirse.
+     *
+     * @param downstream nombre lógico del servicio de destino (usuarios, roles, cambios, graphql)
+     * @param operation nombre del método del servicio
+     * @param call llamada reactiva a ejecutar
+     */
+    public <T> Mono<T> invoke(String downstream, String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            AtomicInteger current = inFlight(downstream);
+            current.incrementAndGet();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return protect(downstream, call)
+                    .doOnSuccess(value -> sample.stop(timer(downstream, operation, "SUCCESS")))
+                    .doOnError(ex -> {
+                        sample.stop(timer(downstream, operation, "ERROR"));
+                        Counter.builder(ERRORS_COUNTER)
+                                .tag("downstream", downstream)
+                                .tag("operation", operation)
+                                .tag("status", status(ex))
+                                .register(meterRegistry)
+                                .increment();
+                    })
+                    .doOnCancel(() -> sample.stop(timer(downstream, operation, "CANCELLED")))
+                    .doFinally(signal -> current.decrementAndGet());
+        });
+    }
+
+    /**
+     * Aplica tiempo límite, bulkhead y circuit breaker del destino. El circuit breaker
+     * queda por fuera para contar también los tiempos de espera como fallas; los rechazos
+     * del bulkhead se ignoran (ignore-exceptions) para no registrarlos como llamadas exitosas.
+     */
+    private <T> Mono<T> protect(String downstream, Mono<T> call) {
+        return call
+                .transformDeferred(TimeLimiterOperator.of(timeLimiterRegistry.timeLimiter(downstream)))
+                .transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(downstream)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(downstream)))
+                .onErrorMap(CallNotPermittedException.class,
+                        ex -> new DownstreamUnavailableException(downstream, Reason.CIRCUIT_OPEN, ex))
+                .onErrorMap(BulkheadFullException.class,
+                        ex -> new DownstreamUnavailableException(downstream, Reason.BULKHEAD_FULL, ex))
+                .onErrorMap(TimeoutException.class,
+                        ex -> new DownstreamUnavailableException(downstream, Reason.TIMEOUT, ex));
+    }
+
+    private Timer timer(String downstream, String operation, String outcome) {
+        return Timer.builder(CALLS_TIMER)
+                .tag("downstream", downstream)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private AtomicInteger inFlight(String downstream) {
+        return inFlight.computeIfAbsent(downstream, key -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder(IN_FLIGHT_GAUGE, counter, AtomicInteger::get)
+                    .tag("downstream", key)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    /**
+     * Código HTTP de la respuesta de error, o el tipo de excepción si no hubo respuesta.
+     */
+    private static String status(Throwable ex) {
+        if (ex instanceof WebClientResponseException responseException) {
+            return String.valueOf(responseException.getStatusCode().value());
+        }
+        if (ex instanceof DownstreamUnavailableException unavailable) {
+            return unavailable.getReason().name();
+        }
+        return ex.getClass().getSimpleName();
+    }
+}
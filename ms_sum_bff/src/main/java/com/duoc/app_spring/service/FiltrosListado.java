@@ -0,0 +1,40 @@
+package com.duoc.app_spring.service;
+
+import org.springframework.web.util.UriBuilder;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Parámetros de filtro, proyección y orden que se reenvían a los listados de las Azure Functions
+ * (GET /usuarios y GET /roles). El filtrado ocurre en la base de datos; el BFF solo los reenvía.
+ */
+final class FiltrosListado {
+
+    static final List<String> PARAMETROS = List.of("activo", "q", "dominio", "createdAfter", "fields", "sort");
+
+    private FiltrosListado() {
+    }
+
+    /**
+     * URI del listado con los parámetros conocidos; los valores se codifican como variables
+     * de la plantilla para que caracteres como "+" o "&" lleguen intactos.
+     */
+    static Function<UriBuilder, URI> uri(String path, Map<String, String> filtros) {
+        return builder -> {
+            Map<String, String> valores = new LinkedHashMap<>();
+            builder.path(path);
+            for (String parametro : PARAMETROS) {
+                String valor = filtros.get(parametro);
+                if (valor != null && !valor.isBlank()) {
+                    builder.queryParam(parametro, "{" + parametro + "}");
+                    valores.put(parametro, valor);
+                }
+            }
+            return builder.build(valores);
+        };
+    }
+}
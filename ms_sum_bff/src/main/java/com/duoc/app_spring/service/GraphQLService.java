@@ -1,27 +1,53 @@
 package com.duoc.app_spring.service;
 
+import com.duoc.app_spring.util.DownstreamUnavailableException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.duoc.app_spring.util.RequestTooLargeException;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 
 @Service
 public class GraphQLService {
     
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient auditoriaClient;
+    private final WebClient usuariosByRoleClient;
     private final String auditoriaUrl;
     private final String usuariosByRoleUrl;
+    private final long maxRequestBytes;
+    private final Duration bodyTimeout;
     private final ObjectMapper objectMapper;
+    private final DownstreamInvoker invoker;
     
     public GraphQLService(WebClient.Builder webClientBuilder,
                           @Value("${azure.functions.graphql-url}") String auditoriaUrl,
-                          @Value("${azure.functions.usuarios-by-role-url}") String usuariosByRoleUrl) {
-        this.webClientBuilder = webClientBuilder;
+                          @Value("${azure.functions.usuarios-by-role-url}") String usuariosByRoleUrl,
+                          @Value("${bff.graphql.max-request-bytes:65536}") long maxRequestBytes,
+                          @Value("${bff.graphql.passthrough.body-timeout:30s}") Duration bodyTimeout,
+                          DownstreamInvoker invoker) {
+        // Un cliente por URL, creado una sola vez sobre una copia del builder compartido
+        this.auditoriaClient = webClientBuilder.clone().baseUrl(auditoriaUrl).build();
+        this.usuariosByRoleClient = webClientBuilder.clone().baseUrl(usuariosByRoleUrl).build();
+        this.invoker = invoker;
         this.auditoriaUrl = auditoriaUrl;
         this.usuariosByRoleUrl = usuariosByRoleUrl;
+        this.maxRequestBytes = maxRequestBytes;
+        this.bodyTimeout = bodyTimeout;
         this.objectMapper = new ObjectMapper();
     }
     
@@ -29,35 +55,113 @@ public class GraphQLService {
      * Ejecuta una consulta GraphQL para el endpoint de auditoría
      */
     public JsonNode executeAuditoriaQuery(String requestBody) {
-        return executeGraphQLQuery(requestBody, auditoriaUrl);
+        return executeGraphQLQuery(requestBody, auditoriaClient, auditoriaUrl, "executeAuditoriaQuery");
     }
     
     /**
      * Ejecuta una consulta GraphQL para el endpoint de usuarios por rol
      */
     public JsonNode executeUsuariosByRoleQuery(String requestBody) {
-        return executeGraphQLQuery(requestBody, usuariosByRoleUrl);
+        return executeGraphQLQuery(requestBody, usuariosByRoleClient, usuariosByRoleUrl, "executeUsuariosByRoleQuery");
+    }
+    
+    /**
+     * Reenvía la consulta de auditoría sin parsearla (ver {@link #passthrough})
+     */
+    public ResponseEntity<Flux<DataBuffer>> passthroughAuditoria(InputStream body, long contentLength,
+                                                                 MediaType contentType) {
+        return passthrough(auditoriaClient, "executeAuditoriaQuery", body, contentLength, contentType);
+    }
+    
+    /**
+     * Reenvía la consulta de usuarios por rol sin parsearla (ver {@link #passthrough})
+     */
+    public ResponseEntity<Flux<DataBuffer>> passthroughUsuariosByRole(InputStream body, long contentLength,
+                                                                      MediaType contentType) {
+        return passthrough(usuariosByRoleClient, "executeUsuariosByRoleQuery", body, contentLength, contentType);
+    }
+    
+    /**
+     * Versión reactiva de la consulta de auditoría, para componerla con otras llamadas.
+     * Los errores se propagan en el Mono en lugar de convertirse en un JSON de error.
+     */
+    public Mono<JsonNode> executeAuditoriaQueryAsync(JsonNode requestNode) {
+        return invoker.invoke("graphql", "executeAuditoriaQuery", auditoriaClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestNode)
+                .retrieve()
+                .bodyToMono(JsonNode.class));
+    }
+    
+    /**
+     * Reenvía el cuerpo de la solicitud y el de la respuesta sin parsear el JSON. La solicitud
+     * (acotada a bff.graphql.max-request-bytes) se lee completa en el hilo de la solicitud, para
+     * no hacer lecturas bloqueantes del InputStream del servlet en el event loop de Netty; la
+     * respuesta se entrega como flujo de DataBuffer sin copiarla completa en memoria.
+     * El TimeLimiter y el Bulkhead cubren hasta la llegada de los encabezados de la respuesta;
+     * mientras se copia el cuerpo, bff.graphql.passthrough.body-timeout limita la espera entre
+     * fragmentos (el plazo se reinicia con cada DataBuffer recibido).
+     * Solo se valida el tamaño de la solicitud; el tipo de contenido lo restringe el controlador.
+     * Las respuestas 4xx del servicio GraphQL se reenvían tal cual; los 5xx pasan por el
+     * circuit breaker y GlobalExceptionHandler como el resto de las llamadas.
+     */
+    private ResponseEntity<Flux<DataBuffer>> passthrough(WebClient client, String operation, InputStream body,
+                                                         long contentLength, MediaType contentType) {
+        if (contentLength > maxRequestBytes) {
+            throw new RequestTooLargeException(maxRequestBytes);
+        }
+        
+        // Si la solicitud no declara Content-Length, leer un byte más que el límite basta para detectar el exceso
+        byte[] requestBody;
+        try {
+            requestBody = body.readNBytes((int) Math.min(maxRequestBytes + 1, Integer.MAX_VALUE - 8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el cuerpo de la solicitud", e);
+        }
+        if (requestBody.length > maxRequestBytes) {
+            throw new RequestTooLargeException(maxRequestBytes);
+        }
+        
+        ResponseEntity<Flux<DataBuffer>> upstream = invoker.invoke("graphql", operation, client.post()
+                .contentType(contentType)
+                .bodyValue(requestBody)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class))
+                .block();
+        
+        HttpHeaders headers = new HttpHeaders();
+        copyHeader(upstream.getHeaders(), headers, HttpHeaders.CONTENT_TYPE);
+        copyHeader(upstream.getHeaders(), headers, HttpHeaders.CONTENT_LENGTH);
+        copyHeader(upstream.getHeaders(), headers, HttpHeaders.CONTENT_ENCODING);
+        // Con la respuesta ya comprometida un timeout solo puede cortar la conexión, pero no deja el
+        // hilo de escritura bloqueado por un servicio que dejó de enviar datos
+        Flux<DataBuffer> responseBody = upstream.getBody() != null
+                ? upstream.getBody().timeout(bodyTimeout) : Flux.empty();
+        return new ResponseEntity<>(responseBody, headers, upstream.getStatusCode());
+    }
+    
+    private static void copyHeader(HttpHeaders from, HttpHeaders to, String name) {
+        String value = from.getFirst(name);
+        if (value != null) {
+            to.set(name, value);
+        }
     }
     
     /**
      * Método privado compartido para ejecutar consultas GraphQL a la URL especificada
      */
-    private JsonNode executeGraphQLQuery(String requestBody, String url) {
+    private JsonNode executeGraphQLQuery(String requestBody, WebClient client, String url, String operation) {
         try {
             // Verificar que el cuerpo de la solicitud sea JSON válido
             JsonNode requestNode = objectMapper.readTree(requestBody);
             
-            // Crear un cliente específico para la URL solicitada
-            WebClient client = webClientBuilder
-                    .baseUrl(url)
-                    .build();
-            
             // Realizar la solicitud HTTP POST al servicio GraphQL
-            String response = client.post()
+            String response = invoker.invoke("graphql", operation, client.post()
                     .contentType(MediaType.APPLICATION_JSON)
                     .bodyValue(requestNode)
                     .retrieve()
-                    .bodyToMono(String.class)
+                    .bodyToMono(String.class))
                     .block();
             
             // Convertir la respuesta a JsonNode para preservar el formato exacto
@@ -68,6 +172,9 @@ public class GraphQLService {
                         .put("error", "No se recibió respuesta del servidor GraphQL");
                 return errorNode;
             }
+        } catch (DownstreamUnavailableException e) {
+            // Rechazo rápido: lo resuelve GlobalExceptionHandler con el estado correspondiente
+            throw e;
         } catch (Exception e) {
             // Registrar el error para depuración
             System.err.println("Error al ejecutar consulta GraphQL a " + url + ": " + e.getMessage());
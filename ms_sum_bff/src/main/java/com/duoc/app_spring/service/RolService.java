@@ -9,70 +9,103 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import reactor.core.publisher.Mono;
+
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class RolService {
     
     private final WebClient webClient;
+    private final DownstreamInvoker invoker;
     
     public RolService(WebClient.Builder webClientBuilder, 
-                     @Value("${azure.functions.base-url}") String baseUrl) {
+                     @Value("${azure.functions.base-url}") String baseUrl,
+                     DownstreamInvoker invoker) {
         this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.invoker = invoker;
     }
     
     public ApiResponse<List<Rol>> getAllRoles() {
-        return webClient.get()
-                .uri("/roles")
+        return getAllRolesAsync().block();
+    }
+    
+    /**
+     * Roles filtrados y ordenados por la Azure Function (activo, q, createdAfter, sort)
+     */
+    public ApiResponse<List<Rol>> getAllRoles(Map<String, String> filtros) {
+        return invoker.invoke("roles", "getAllRoles", webClient.get()
+                .uri(FiltrosListado.uri("/roles", filtros))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Rol>>>() {}))
+                .block();
+    }
+    
+    /**
+     * Solo los campos pedidos en fields=, tal como los devuelve la Azure Function
+     */
+    public ApiResponse<List<Map<String, Object>>> getRolesCampos(Map<String, String> filtros) {
+        return invoker.invoke("roles", "getAllRoles", webClient.get()
+                .uri(FiltrosListado.uri("/roles", filtros))
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Rol>>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Map<String, Object>>>>() {}))
                 .block();
     }
     
+    public Mono<ApiResponse<List<Rol>>> getAllRolesAsync() {
+        return invoker.invoke("roles", "getAllRoles", webClient.get()
+                .uri("/roles")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Rol>>>() {}));
+    }
+    
     public ApiResponse<Rol> getRolById(Long id) {
-        return webClient.get()
+        return invoker.invoke("roles", "getRolById", webClient.get()
                 .uri("/roles/" + id)
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Rol>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Rol>>() {}))
                 .block();
     }
     
     public ApiResponse<Rol> createRol(Rol rol) {
-        return webClient.post()
+        return invoker.invoke("roles", "createRol", webClient.post()
                 .uri("/roles")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(rol)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Rol>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Rol>>() {}))
                 .block();
     }
     
     public ApiResponse<Rol> updateRol(Long id, Rol rol) {
-        return webClient.put()
+        return invoker.invoke("roles", "updateRol", webClient.put()
                 .uri("/roles/" + id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(rol)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Rol>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Rol>>() {}))
                 .block();
     }
     
     public ApiResponse<Void> deleteRol(Long id) {
-        return webClient.delete()
+        return invoker.invoke("roles", "deleteRol", webClient.delete()
                 .uri("/roles/" + id)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Void>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Void>>() {}))
                 .block();
     }
     
     public ApiResponse<List<Long>> getUsuariosByRol(Long idRol) {
-        return webClient.get()
+        return invoker.invoke("roles", "getUsuariosByRol", webClient.get()
                 .uri("/roles/" + idRol + "/usuarios")
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Long>>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Long>>>() {}))
                 .block();
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.duoc.app_spring.service;
+
+import com.duoc.app_spring.model.ApiResponse;
+import com.duoc.app_spring.model.Rol;
+import com.duoc.app_spring.model.Usuario;
+import com.duoc.app_spring.model.UsuarioDetalle;
+import com.duoc.app_spring.util.DownstreamUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Arma el detalle de un usuario consultando en paralelo el usuario, el catálogo
+ * de roles y sus logs de auditoría. La latencia total queda acotada por el plazo
+ * configurado y no por la suma de las llamadas.
+ */
+@Service
+public class UsuarioDetalleService {
+    private static final Logger logger = LoggerFactory.getLogger(UsuarioDetalleService.class);
+
+    static final String LOGS_QUERY = "query($idUsuario: ID!) { logsPorUsuario(idUsuario: $idUsuario) "
+            + "{ idLog fechaEvento tipoEvento modulo accion entidad idAfectado nivel } }";
+
+    private final UsuarioService usuarioService;
+    private final RolService rolService;
+    private final GraphQLService graphQLService;
+    private final ObjectMapper objectMapper;
+    private final Duration deadline;
+
+    public UsuarioDetalleService(UsuarioService usuarioService,
+                                 RolService rolService,
+                                 GraphQLService graphQLService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${bff.detalle.deadline:3s}") Duration deadline) {
+        this.usuarioService = usuarioService;
+        this.rolService = rolService;
+        this.graphQLService = graphQLService;
+        this.objectMapper = objectMapper;
+        this.deadline = deadline;
+    }
+
+    /**
+     * El usuario es obligatorio: si no existe se devuelve una respuesta fallida y si
+     * su servicio falla el error se propaga. Roles y logs son opcionales; si fallan
+     * o no responden dentro del plazo quedan en null y se informan en {@code errores}.
+     */
+    public ApiResponse<UsuarioDetalle> getUsuarioDetalle(Long id) {
+        Map<String, String> errores = new ConcurrentHashMap<>();
+
+        Mono<ApiResponse<Usuario>> usuario = usuarioService.getUsuarioByIdAsync(id)
+                .timeout(deadline)
+                .onErrorMap(TimeoutException.class, ex -> new DownstreamUnavailableException(
+                        "usuarios", DownstreamUnavailableException.Reason.TIMEOUT, ex));
+
+        Mono<Optional<List<Rol>>> roles = opcional("roles",
+                rolService.getAllRolesAsync().map(UsuarioDetalleService::datos), errores);
+
+        Mono<Optional<JsonNode>> logs = opcional("logs",
+                graphQLService.executeAuditoriaQueryAsync(logsRequest(id)).map(UsuarioDetalleService::logsPorUsuario),
+                errores);
+
+        return Mono.zip(usuario, roles, logs)
+                .map(partes -> {
+                    ApiResponse<Usuario> usuarioResponse = partes.getT1();
+                    if (!usuarioResponse.isSuccess()) {
+                        return new ApiResponse<UsuarioDetalle>(false, usuarioResponse.getMessage(), null,
+                                usuarioResponse.getError());
+                    }
+                    UsuarioDetalle detalle = new UsuarioDetalle(
+                            usuarioResponse.getData(),
+                            partes.getT2().orElse(null),
+                            partes.getT3().orElse(null),
+                            errores.isEmpty() ? null : new TreeMap<>(errores));
+                    String mensaje = errores.isEmpty() ? "Detalle de usuario obtenido" : "Detalle de usuario parcial";
+                    return new ApiResponse<>(true, mensaje, detalle, null);
+                })
+                .block();
+    }
+
+    /**
+     * Aplica el plazo a una parte opcional y convierte cualquier error en un valor vacío.
+     */
+    private <T> Mono<Optional<T>> opcional(String parte, Mono<T> llamada, Map<String, String> errores) {
+        return llamada
+                .timeout(deadline)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(ex -> {
+                    String causa = ex instanceof TimeoutException
+                            ? "Sin respuesta dentro de " + deadline.toMillis() + " ms"
+                            : ex.getMessage();
+                    logger.warn("No se pudo obtener '{}' para el detalle de usuario: {}", parte, causa);
+                    errores.put(parte, causa);
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private JsonNode logsRequest(Long id) {
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("query", LOGS_QUERY);
+        request.putObject("variables").put("idUsuario", String.valueOf(id));
+        return request;
+    }
+
+    private static <T> T datos(ApiResponse<T> response) {
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(response.getError() != null ? response.getError() : response.getMessage());
+        }
+        return response.getData();
+    }
+
+    private static JsonNode logsPorUsuario(JsonNode response) {
+        JsonNode logs = response.path("data").path("logsPorUsuario");
+        if (logs.isMissingNode() || logs.isNull()) {
+            JsonNode errors = response.path("errors");
+            throw new IllegalStateException(errors.isArray() && errors.size() > 0
+                    ? errors.get(0).path("message").asText()
+                    : "Respuesta GraphQL sin datos");
+        }
+        return logs;
+    }
+}
@@ -3,6 +3,7 @@ package com.duoc.app_spring.service;
 import com.duoc.app_spring.model.ApiResponse;
 import com.duoc.app_spring.model.Usuario;
 import com.duoc.app_spring.model.UsuarioUpdateDTO;
+import com.duoc.app_spring.model.UsuariosPorIds;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
@@ -11,54 +12,100 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class UsuarioService {
     
     private final WebClient webClient;
+    private final DownstreamInvoker invoker;
     
     public UsuarioService(WebClient.Builder webClientBuilder, 
-                          @Value("${azure.functions.base-url}") String baseUrl) {
+                          @Value("${azure.functions.base-url}") String baseUrl,
+                          DownstreamInvoker invoker) {
         this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.invoker = invoker;
     }
     
     public ApiResponse<List<Usuario>> getAllUsuarios() {
-        return webClient.get()
-                .uri("/usuarios")
+        return getAllUsuarios(Map.of());
+    }
+    
+    /**
+     * Usuarios filtrados y ordenados por la Azure Function (activo, q, dominio, createdAfter, sort)
+     */
+    public ApiResponse<List<Usuario>> getAllUsuarios(Map<String, String> filtros) {
+        return invoker.invoke("usuarios", "getAllUsuarios", webClient.get()
+                .uri(FiltrosListado.uri("/usuarios", filtros))
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Usuario>>>() {}))
+                .block();
+    }
+    
+    /**
+     * Solo los campos pedidos en fields=, tal como los devuelve la Azure Function
+     */
+    public ApiResponse<List<Map<String, Object>>> getUsuariosCampos(Map<String, String> filtros) {
+        return invoker.invoke("usuarios", "getAllUsuarios", webClient.get()
+                .uri(FiltrosListado.uri("/usuarios", filtros))
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Usuario>>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Map<String, Object>>>>() {}))
                 .block();
     }
     
+    /**
+     * Varios usuarios por ID en una sola llamada (POST /usuarios/buscar) en lugar de una por usuario
+     */
+    public ApiResponse<UsuariosPorIds> getUsuariosByIds(Collection<Long> ids) {
+        return getUsuariosByIdsAsync(ids).block();
+    }
+    
+    public Mono<ApiResponse<UsuariosPorIds>> getUsuariosByIdsAsync(Collection<Long> ids) {
+        return invoker.invoke("usuarios", "getUsuariosByIds", webClient.post()
+                .uri("/usuarios/buscar")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", ids))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<UsuariosPorIds>>() {}));
+    }
+    
     public ApiResponse<Usuario> getUsuarioById(Long id) {
-        return webClient.get()
+        return getUsuarioByIdAsync(id).block();
+    }
+    
+    public Mono<ApiResponse<Usuario>> getUsuarioByIdAsync(Long id) {
+        return invoker.invoke("usuarios", "getUsuarioById", webClient.get()
                 .uri("/usuarios/" + id)
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Usuario>>() {})
-                .block();
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Usuario>>() {}));
     }
     
     public ApiResponse<Usuario> createUsuario(Usuario usuario) {
-        return webClient.post()
+        return invoker.invoke("usuarios", "createUsuario", webClient.post()
                 .uri("/usuarios")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(usuario)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Usuario>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Usuario>>() {}))
                 .block();
     }
     
     public ApiResponse<Usuario> updateUsuario(Long id, UsuarioUpdateDTO usuario) {
         try {
-            return webClient.put()
+            return invoker.invoke("usuarios", "updateUsuario", webClient.put()
                     .uri("/usuarios/" + id)
                     .contentType(MediaType.APPLICATION_JSON)
                     .bodyValue(usuario)
                     .retrieve()
-                    .bodyToMono(new ParameterizedTypeReference<ApiResponse<Usuario>>() {})
+                    .bodyToMono(new ParameterizedTypeReference<ApiResponse<Usuario>>() {}))
                     .block();
         } catch (WebClientResponseException e) {
             System.out.println("Error en la solicitud: " + e.getResponseBodyAsString());
@@ -67,20 +114,20 @@ public class UsuarioService {
     }
     
     public ApiResponse<Void> deleteUsuario(Long id) {
-        return webClient.delete()
+        return invoker.invoke("usuarios", "deleteUsuario", webClient.delete()
                 .uri("/usuarios/" + id)
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Void>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Void>>() {}))
                 .block();
     }
     
     public ApiResponse<List<Long>> asignarRol(Long idUsuario, Long idRol) {
-        return webClient.post()
+        return invoker.invoke("usuarios", "asignarRol", webClient.post()
                 .uri("/usuarios/" + idUsuario + "/roles")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(new RolRequest(idRol))
                 .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Long>>>() {})
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<List<Long>>>() {}))
                 .block();
     }
     
@@ -0,0 +1,43 @@
+package com.duoc.app_spring.util;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Se lanza cuando una llamada a un servicio de destino se rechaza sin ejecutarse
+ * (circuito abierto o bulkhead lleno) o se corta por tiempo de espera.
+ */
+public class DownstreamUnavailableException extends RuntimeException {
+
+    public enum Reason {
+        CIRCUIT_OPEN(HttpStatus.SERVICE_UNAVAILABLE),
+        BULKHEAD_FULL(HttpStatus.SERVICE_UNAVAILABLE),
+        TIMEOUT(HttpStatus.GATEWAY_TIMEOUT);
+
+        private final HttpStatus status;
+
+        Reason(HttpStatus status) {
+            this.status = status;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+    }
+
+    private final String downstream;
+    private final Reason reason;
+
+    public DownstreamUnavailableException(String downstream, Reason reason, Throwable cause) {
+        super("Servicio '" + downstream + "' no disponible: " + reason, cause);
+        this.downstream = downstream;
+        this.reason = reason;
+    }
+
+    public String getDownstream() {
+        return downstream;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
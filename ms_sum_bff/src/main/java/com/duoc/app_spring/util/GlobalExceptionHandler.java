@@ -6,9 +6,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -40,6 +42,37 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ex.getStatusCode()).body(response);
     }
     
+    @ExceptionHandler(DownstreamUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleDownstreamUnavailableException(DownstreamUnavailableException ex) {
+        String errorMessage = ex.getReason() == DownstreamUnavailableException.Reason.TIMEOUT
+                ? "El servicio no respondió a tiempo"
+                : "Servicio no disponible temporalmente";
+        ApiResponse<Object> response = new ApiResponse<>(false, errorMessage, null, ex.getMessage());
+        return ResponseEntity.status(ex.getReason().getStatus())
+                .header("Retry-After", "5")
+                .body(response);
+    }
+    
+    @ExceptionHandler(RequestTooLargeException.class)
+    public ResponseEntity<ApiResponse<Object>> handleRequestTooLargeException(RequestTooLargeException ex) {
+        ApiResponse<Object> response = new ApiResponse<>(false, "Solicitud demasiado grande", null, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+    }
+    
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException ex) {
+        ApiResponse<Object> response = new ApiResponse<>(false, "Tipo de contenido no soportado", null, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(response);
+    }
+    
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ApiResponse<Object>> handleResponseStatusException(ResponseStatusException ex) {
+        // Errores que los controladores lanzan con su estado (por ejemplo, 400 por parámetros inválidos)
+        String errorMessage = ex.getStatusCode().is4xxClientError() ? "Solicitud invalida" : "Error al procesar la solicitud";
+        ApiResponse<Object> response = new ApiResponse<>(false, errorMessage, null, ex.getReason());
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(response);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Object>> handleGenericException(Exception ex) {
         ApiResponse<Object> response = new ApiResponse<>(false, "Error interno del servidor", null, ex.getMessage());
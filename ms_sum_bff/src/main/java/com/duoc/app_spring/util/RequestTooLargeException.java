@@ -0,0 +1,11 @@
+package com.duoc.app_spring.util;
+
+/**
+ * Se lanza cuando el cuerpo de una solicitud reenviada supera el tamaño permitido.
+ */
+public class RequestTooLargeException extends RuntimeException {
+
+    public RequestTooLargeException(long maxBytes) {
+        super("El cuerpo de la solicitud supera el máximo de " + maxBytes + " bytes");
+    }
+}
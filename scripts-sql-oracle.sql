@@ -52,6 +52,15 @@ CREATE TABLE sum_usuario_rol (
         REFERENCES sum_roles (id_rol) ON DELETE CASCADE
 );
 
+-- Índices de los filtros de GET usuarios y GET roles (activo, q, dominio, createdAfter)
+-- q busca el prefijo sin distinguir mayúsculas (LOWER(col) LIKE 'abc%'), por eso los índices son sobre LOWER()
+CREATE INDEX idx_sum_usuarios_activo_fecha ON sum_usuarios (activo, fecha_creacion);
+CREATE INDEX idx_sum_usuarios_fecha ON sum_usuarios (fecha_creacion);
+CREATE INDEX idx_sum_usuarios_username_lower ON sum_usuarios (LOWER(username));
+CREATE INDEX idx_sum_usuarios_email_lower ON sum_usuarios (LOWER(email));
+CREATE INDEX idx_sum_usuarios_email_dominio ON sum_usuarios (LOWER(SUBSTR(email, INSTR(email, '@') + 1)));
+CREATE INDEX idx_sum_roles_nombre_lower ON sum_roles (LOWER(nombre));
+
 -- Comentarios en tablas y columnas para documentación
 COMMENT ON TABLE sum_roles IS 'Tabla que almacena los roles del sistema';
 COMMENT ON COLUMN sum_roles.id_rol IS 'Identificador único del rol';
@@ -78,6 +87,26 @@ COMMENT ON COLUMN sum_usuario_rol.id_usuario IS 'ID del usuario relacionado';
 COMMENT ON COLUMN sum_usuario_rol.id_rol IS 'ID del rol asignado';
 COMMENT ON COLUMN sum_usuario_rol.fecha_asignacion IS 'Fecha de asignación del rol al usuario';
 
+-- Crear tabla de eventos de Event Grid ya procesados (idempotencia de los consumidores)
+-- Event Grid entrega al menos una vez; la clave primaria descarta las reentregas del mismo evento
+CREATE TABLE sum_eventos_procesados (
+    id_evento       VARCHAR2(100) NOT NULL,
+    consumidor      VARCHAR2(50) NOT NULL,
+    fecha_proceso   TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT pk_sum_eventos_procesados PRIMARY KEY (id_evento, consumidor)
+);
+
+CREATE INDEX idx_sum_eventos_proc_fecha ON sum_eventos_procesados (fecha_proceso);
+
+COMMENT ON TABLE sum_eventos_procesados IS 'Eventos de Event Grid procesados por cada función consumidora';
+COMMENT ON COLUMN sum_eventos_procesados.id_evento IS 'ID del evento asignado por el publicador';
+COMMENT ON COLUMN sum_eventos_procesados.consumidor IS 'Función que procesó el evento (auditoria, notificaciones, rol_automatico)';
+COMMENT ON COLUMN sum_eventos_procesados.fecha_proceso IS 'Fecha en que se procesó el evento';
+
+-- Los reintentos de Event Grid duran como máximo 24 horas. La función purgarEventosProcesados
+-- (timer diario a las 03:00 UTC) borra las filas con más de EVENT_DEDUP_RETENCION_DIAS días (por defecto 7):
+-- DELETE FROM sum_eventos_procesados WHERE fecha_proceso < CURRENT_TIMESTAMP - NUMTODSINTERVAL(7, 'DAY');
+
 -- Crear triggers para actualizar automáticamente fecha_modificacion
 CREATE OR REPLACE TRIGGER trg_sum_usuarios_update
 BEFORE UPDATE ON sum_usuarios